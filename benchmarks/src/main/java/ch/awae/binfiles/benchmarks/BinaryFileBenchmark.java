@@ -0,0 +1,65 @@
+package ch.awae.binfiles.benchmarks;
+
+import ch.awae.binfiles.BinaryFile;
+import ch.awae.binfiles.DataFragment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the core operations of {@link BinaryFile}: adding fragments, extracting fragments and iterating.
+ * <p>
+ * Throughput is reported relative to the number of data bytes in the corpus. The record length parameter is used as
+ * the iterator step size.
+ *
+ * @author Andreas Wälchli
+ * @since 0.1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BinaryFileBenchmark extends CorpusBenchmark {
+
+    @Benchmark
+    public void addFragment(Throughput throughput, Blackhole blackhole) {
+        for (List<DataFragment> fragments : corpus.fragments()) {
+            BinaryFile file = new BinaryFile();
+            for (DataFragment fragment : fragments) {
+                file.addFragment(fragment);
+            }
+            blackhole.consume(file);
+        }
+        throughput.add(corpus.dataBytes());
+    }
+
+    @Benchmark
+    public void getFragments(Throughput throughput, Blackhole blackhole) {
+        for (BinaryFile file : corpus.files()) {
+            blackhole.consume(file.getFragments(0, file.getSizeLimit()));
+        }
+        throughput.add(corpus.dataBytes());
+    }
+
+    @Benchmark
+    public void iterate(Throughput throughput, Blackhole blackhole) {
+        for (BinaryFile file : corpus.files()) {
+            Iterator<DataFragment> iterator = file.iterator(recordLength);
+            while (iterator.hasNext()) {
+                blackhole.consume(iterator.next());
+            }
+        }
+        throughput.add(corpus.dataBytes());
+    }
+
+}
@@ -0,0 +1,179 @@
+package ch.awae.binfiles.benchmarks;
+
+import ch.awae.binfiles.BinaryFile;
+import ch.awae.binfiles.DataFragment;
+import ch.awae.binfiles.hex.HexFileWriter;
+import ch.awae.binfiles.hex.HexRecord;
+import ch.awae.binfiles.hex.HexRecordReader;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * A generated benchmark input.
+ * <p>
+ * All corpora are generated deterministically from a fixed seed, so results of different runs (and different library
+ * versions) are directly comparable.
+ *
+ * @author Andreas Wälchli
+ * @since 0.1.0
+ */
+public final class Corpus {
+
+    /**
+     * The shape of a generated corpus.
+     */
+    public enum Shape {
+        /**
+         * A single, fully populated 16 KiB image.
+         */
+        DENSE,
+        /**
+         * A single 64 KiB image with 32-byte runs every 512 bytes (6.25% populated).
+         */
+        SPARSE,
+        /**
+         * 256 independent, fully populated 256-byte images.
+         */
+        MANY_SMALL,
+        /**
+         * A single, fully populated 64 KiB image.
+         */
+        LARGE
+    }
+
+    private static final long SEED = 0x5eed_b1f5L;
+
+    private final @NotNull List<@NotNull BinaryFile> files;
+    private final @NotNull List<@NotNull List<@NotNull DataFragment>> fragments;
+    private final byte @NotNull [] hexText;
+    private final @NotNull List<@NotNull HexRecord> records;
+    private final long dataBytes;
+
+    private Corpus(@NotNull List<@NotNull List<@NotNull DataFragment>> fragments, int recordLength) {
+        this.fragments = fragments;
+        this.files = new ArrayList<>();
+        long bytes = 0;
+        for (List<DataFragment> fileFragments : fragments) {
+            this.files.add(new BinaryFile(fileFragments));
+            for (DataFragment fragment : fileFragments) {
+                bytes += fragment.getLength();
+            }
+        }
+        this.dataBytes = bytes;
+        this.hexText = encode(files, recordLength);
+        this.records = decode(hexText);
+    }
+
+    /**
+     * Generates a new corpus.
+     *
+     * @param shape        the shape of the corpus
+     * @param recordLength the record length used for the hex representation of the corpus
+     * @return the generated corpus
+     */
+    public static @NotNull Corpus generate(@NotNull Shape shape, int recordLength) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<List<DataFragment>> fragments = new ArrayList<>();
+        switch (shape) {
+            case DENSE -> fragments.add(List.of(new DataFragment(0, randomBytes(random, 16384))));
+            case LARGE -> fragments.add(List.of(new DataFragment(0, randomBytes(random, 65536))));
+            case SPARSE -> {
+                List<DataFragment> runs = new ArrayList<>();
+                for (int position = 0; position < 65536; position += 512) {
+                    runs.add(new DataFragment(position, randomBytes(random, 32)));
+                }
+                fragments.add(runs);
+            }
+            case MANY_SMALL -> {
+                for (int i = 0; i < 256; i++) {
+                    fragments.add(List.of(new DataFragment(0, randomBytes(random, 256))));
+                }
+            }
+        }
+        return new Corpus(fragments, recordLength);
+    }
+
+    /**
+     * Returns the binary files of this corpus.
+     *
+     * @return the files
+     */
+    public @NotNull List<@NotNull BinaryFile> files() {
+        return files;
+    }
+
+    /**
+     * Returns the data fragments making up each file of this corpus.
+     *
+     * @return a list with one fragment list per file
+     */
+    public @NotNull List<@NotNull List<@NotNull DataFragment>> fragments() {
+        return fragments;
+    }
+
+    /**
+     * Returns the hex representation of all files of this corpus, concatenated into a single stream.
+     *
+     * @return the hex text. The array is shared and must not be modified.
+     */
+    public byte @NotNull [] hexText() {
+        return hexText;
+    }
+
+    /**
+     * Returns all the records of the hex representation of this corpus.
+     *
+     * @return the records
+     */
+    public @NotNull List<@NotNull HexRecord> records() {
+        return records;
+    }
+
+    /**
+     * Returns the number of data bytes in all files of this corpus.
+     *
+     * @return the number of data bytes
+     */
+    public long dataBytes() {
+        return dataBytes;
+    }
+
+    private static byte @NotNull [] randomBytes(@NotNull SplittableRandom random, int length) {
+        byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+
+    private static byte @NotNull [] encode(@NotNull List<@NotNull BinaryFile> files, int recordLength) {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        try (HexFileWriter writer = new HexFileWriter(stream)) {
+            for (BinaryFile file : files) {
+                writer.write(file, recordLength);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return stream.toByteArray();
+    }
+
+    private static @NotNull List<@NotNull HexRecord> decode(byte @NotNull [] hexText) {
+        List<HexRecord> records = new ArrayList<>();
+        try (HexRecordReader reader = new HexRecordReader(new ByteArrayInputStream(hexText))) {
+            HexRecord record;
+            while ((record = reader.readNext()) != null) {
+                records.add(record);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return records;
+    }
+
+}
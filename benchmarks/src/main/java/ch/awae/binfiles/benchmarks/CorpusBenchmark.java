@@ -0,0 +1,45 @@
+package ch.awae.binfiles.benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Common state of all benchmarks operating on a generated {@link Corpus}.
+ * <p>
+ * Every benchmark is run against all corpus shapes and a set of record lengths.
+ *
+ * @author Andreas Wälchli
+ * @since 0.1.0
+ */
+@State(Scope.Benchmark)
+public abstract class CorpusBenchmark {
+
+    /**
+     * The shape of the generated corpus.
+     */
+    @Param({"DENSE", "SPARSE", "MANY_SMALL", "LARGE"})
+    public Corpus.Shape shape;
+
+    /**
+     * The record length used for reading and writing hex data.
+     */
+    @Param({"16", "32", "255"})
+    public int recordLength;
+
+    /**
+     * The corpus generated for the current parameters.
+     */
+    protected Corpus corpus;
+
+    /**
+     * Generates the corpus once per trial.
+     */
+    @Setup(Level.Trial)
+    public void generateCorpus() {
+        corpus = Corpus.generate(shape, recordLength);
+    }
+
+}
@@ -0,0 +1,53 @@
+package ch.awae.binfiles.benchmarks;
+
+import ch.awae.binfiles.BinaryFile;
+import ch.awae.binfiles.hex.HexFileReader;
+import ch.awae.binfiles.hex.ParallelHexFileReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link HexFileReader#read()} and {@link ParallelHexFileReader#read(byte[])} by reading all files of the
+ * corpus hex text.
+ * <p>
+ * Throughput is reported relative to the size of the hex text.
+ *
+ * @author Andreas Wälchli
+ * @since 0.1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HexFileReaderBenchmark extends CorpusBenchmark {
+
+    @Benchmark
+    public void read(Throughput throughput, Blackhole blackhole) throws IOException {
+        byte[] hexText = corpus.hexText();
+        HexFileReader reader = new HexFileReader(new ByteArrayInputStream(hexText));
+        BinaryFile file;
+        while ((file = reader.read()) != null) {
+            blackhole.consume(file);
+        }
+        throughput.add(hexText.length);
+    }
+
+    @Benchmark
+    public void readParallel(Throughput throughput, Blackhole blackhole) {
+        byte[] hexText = corpus.hexText();
+        blackhole.consume(new ParallelHexFileReader().read(hexText));
+        throughput.add(hexText.length);
+    }
+
+}
@@ -0,0 +1,54 @@
+package ch.awae.binfiles.benchmarks;
+
+import ch.awae.binfiles.BinaryFile;
+import ch.awae.binfiles.hex.HexFileWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link HexFileWriter#write(BinaryFile, int)} and {@link HexFileWriter#write(BinaryFile, int, ForkJoinPool)}
+ * by writing all files of the corpus to a null stream.
+ * <p>
+ * Throughput is reported relative to the size of the produced hex text.
+ *
+ * @author Andreas Wälchli
+ * @since 0.1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HexFileWriterBenchmark extends CorpusBenchmark {
+
+    @Benchmark
+    public void write(Throughput throughput) throws IOException {
+        HexFileWriter writer = new HexFileWriter(OutputStream.nullOutputStream());
+        for (BinaryFile file : corpus.files()) {
+            writer.write(file, recordLength);
+        }
+        writer.flush();
+        throughput.add(corpus.hexText().length);
+    }
+
+    @Benchmark
+    public void writeParallel(Throughput throughput) throws IOException {
+        HexFileWriter writer = new HexFileWriter(OutputStream.nullOutputStream());
+        for (BinaryFile file : corpus.files()) {
+            writer.write(file, recordLength, ForkJoinPool.commonPool());
+        }
+        writer.flush();
+        throughput.add(corpus.hexText().length);
+    }
+
+}
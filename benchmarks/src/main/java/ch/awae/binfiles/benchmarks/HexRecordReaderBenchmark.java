@@ -0,0 +1,44 @@
+package ch.awae.binfiles.benchmarks;
+
+import ch.awae.binfiles.hex.HexRecord;
+import ch.awae.binfiles.hex.HexRecordReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link HexRecordReader#readNext()} by reading all records of the corpus hex text.
+ * <p>
+ * Throughput is reported relative to the size of the hex text.
+ *
+ * @author Andreas Wälchli
+ * @since 0.1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HexRecordReaderBenchmark extends CorpusBenchmark {
+
+    @Benchmark
+    public void readNext(Throughput throughput, Blackhole blackhole) throws IOException {
+        byte[] hexText = corpus.hexText();
+        HexRecordReader reader = new HexRecordReader(new ByteArrayInputStream(hexText));
+        HexRecord record;
+        while ((record = reader.readNext()) != null) {
+            blackhole.consume(record);
+        }
+        throughput.add(hexText.length);
+    }
+
+}
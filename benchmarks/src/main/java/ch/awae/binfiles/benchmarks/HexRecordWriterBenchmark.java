@@ -0,0 +1,42 @@
+package ch.awae.binfiles.benchmarks;
+
+import ch.awae.binfiles.hex.HexRecord;
+import ch.awae.binfiles.hex.HexRecordWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link HexRecordWriter#write(HexRecord)} by writing all records of the corpus to a null stream.
+ * <p>
+ * Throughput is reported relative to the size of the produced hex text.
+ *
+ * @author Andreas Wälchli
+ * @since 0.1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HexRecordWriterBenchmark extends CorpusBenchmark {
+
+    @Benchmark
+    public void write(Throughput throughput) throws IOException {
+        HexRecordWriter writer = new HexRecordWriter(OutputStream.nullOutputStream());
+        for (HexRecord record : corpus.records()) {
+            writer.write(record);
+        }
+        writer.flush();
+        throughput.add(corpus.hexText().length);
+    }
+
+}
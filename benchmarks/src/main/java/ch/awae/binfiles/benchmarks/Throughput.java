@@ -0,0 +1,44 @@
+package ch.awae.binfiles.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Auxiliary JMH counter reporting the processed data volume in MB/s.
+ * <p>
+ * Every benchmark invocation adds the number of bytes it processed. JMH normalizes the counter by the measured time,
+ * so it shows up in the results as a secondary {@code megabytes} metric in MB/s (1 MB = 10<sup>6</sup> bytes).
+ *
+ * @author Andreas Wälchli
+ * @since 0.1.0
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class Throughput {
+
+    /**
+     * The number of megabytes processed in the current iteration.
+     */
+    public double megabytes;
+
+    /**
+     * Resets the counter at the start of each iteration.
+     */
+    @Setup(Level.Iteration)
+    public void reset() {
+        megabytes = 0;
+    }
+
+    /**
+     * Records a number of processed bytes.
+     *
+     * @param bytes the number of bytes
+     */
+    public void add(long bytes) {
+        megabytes += bytes / 1_000_000.0;
+    }
+
+}
@@ -3,21 +3,44 @@ package ch.awae.binfiles;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.nio.ByteOrder;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
- * A representation of a binary data file with a size of up to 65536 bytes (16-bit address space).
+ * A representation of a binary data file with a size of up to 4 GiB (32-bit address space).
+ * <p>
+ * Memory is only allocated for the regions of the address space that actually contain data, so sparsely populated
+ * files are cheap to hold in memory regardless of their size limit.
+ * <p>
+ * Instances are not safe for concurrent modification. Use a {@link ConcurrentBinaryFile} to populate a file from
+ * multiple threads.
+ * <p>
+ * A file can be {@link #freeze() frozen} into an immutable snapshot or {@link #mutableCopy() copied} in constant
+ * time. The snapshot or copy shares all memory with the original, and data is only copied page by page on the first
+ * write to a shared page.
  *
  * @author Andreas Wälchli
  * @since 0.1.0
  */
 public class BinaryFile implements Iterable<DataFragment> {
 
+    /**
+     * The largest possible size limit of a file: 4 GiB (32-bit address space).
+     */
+    public static final long MAX_SIZE = Content.MAX_SIZE;
+
+    // the largest array length supported by all JVMs
+    private static final int MAX_FRAGMENT_LENGTH = Integer.MAX_VALUE - 8;
+
     private final @NotNull Content content;
-    private int currentSize = 0;
+    private long currentSize = 0;
 
     /**
      * Creates a new empty file with a max size of 65536 bytes.
@@ -27,12 +50,34 @@ public class BinaryFile implements Iterable<DataFragment> {
     }
 
     /**
-     * Creates a new empty file with a size limit of 65536 bytes.
+     * Creates a new empty file with a given size limit.
      *
-     * @param sizeLimit the max size of the file. must be between 1 and 65536.
+     * @param sizeLimit the max size of the file. must be between 1 and {@link #MAX_SIZE}.
      */
-    public BinaryFile(int sizeLimit) {
-        this.content = new Content(sizeLimit);
+    public BinaryFile(long sizeLimit) {
+        this(new Content(sizeLimit, Content.DEFAULT_PAGE_SIZE));
+    }
+
+    /**
+     * Creates a new empty file with a given size limit, prepared for holding a given amount of data.
+     * <p>
+     * The expected data length only affects how memory is allocated: if the file is expected to be densely
+     * populated, memory is allocated in large regions instead of small ones.
+     *
+     * @param sizeLimit      the max size of the file. must be between 1 and {@link #MAX_SIZE}.
+     * @param expectedLength the expected number of bytes that will be added to the file.
+     */
+    public BinaryFile(long sizeLimit, long expectedLength) {
+        this(Content.forDensity(sizeLimit, expectedLength));
+    }
+
+    BinaryFile(@NotNull Content content) {
+        this.content = content;
+    }
+
+    BinaryFile(@NotNull Content content, long currentSize) {
+        this.content = content;
+        this.currentSize = currentSize;
     }
 
     /**
@@ -48,18 +93,26 @@ public class BinaryFile implements Iterable<DataFragment> {
     /**
      * Creates a new file with a given size limit and initializes it with the provided fragments.
      *
-     * @param sizeLimit the max size of the file. must be between 1 and 65536.
+     * @param sizeLimit the max size of the file. must be between 1 and {@link #MAX_SIZE}.
      * @param fragments the fragments to add
      * @throws IllegalStateException     if any of the fragments are "colliding" with each other.
      * @throws IndexOutOfBoundsException if any fragment does not fit into this file.
      */
-    public BinaryFile(int sizeLimit, @NotNull List<@NotNull DataFragment> fragments) {
-        this(sizeLimit);
+    public BinaryFile(long sizeLimit, @NotNull List<@NotNull DataFragment> fragments) {
+        this(Content.forDensity(sizeLimit, totalLength(fragments)));
         for (DataFragment fragment : fragments) {
             this.addFragment(fragment);
         }
     }
 
+    private static long totalLength(@NotNull List<@NotNull DataFragment> fragments) {
+        long length = 0;
+        for (DataFragment fragment : fragments) {
+            length += fragment.getLength();
+        }
+        return length;
+    }
+
     /**
      * Puts the data contained in the given fragment into this file.
      *
@@ -68,13 +121,15 @@ public class BinaryFile implements Iterable<DataFragment> {
      * @throws IllegalStateException     if there's already data present for the given address
      * @throws IndexOutOfBoundsException if the address is out of bounds for this file
      */
-    public void addByte(int address, byte value) {
+    public void addByte(long address, byte value) {
         this.content.put(address, value);
-        currentSize = Math.max(this.currentSize, address + 1);
+        growTo(address + 1);
     }
 
     /**
      * Puts the data contained in the given fragment into this file.
+     * <p>
+     * If the fragment cannot be added, the file is not modified at all.
      *
      * @param fragment the fragment to add to the file. may not be null
      * @throws IllegalStateException     if any data in the fragment collides with data already present in the file.
@@ -82,12 +137,42 @@ public class BinaryFile implements Iterable<DataFragment> {
      */
     public void addFragment(@NotNull DataFragment fragment) {
         Objects.requireNonNull(fragment, "fragment must not be null");
-        byte[] data = fragment.getData();
-        int offset = fragment.getPosition();
+        byte[] data = fragment.internalData();
+        long offset = fragment.getPosition();
 
-        for (int i = 0; i < data.length; i++) {
-            this.addByte(offset + i, data[i]);
+        this.content.putRange(offset, data, 0, data.length);
+        growTo(offset + data.length);
+    }
+
+    /**
+     * Puts a range of bytes from an array into this file.
+     * <p>
+     * If the bytes cannot be added, the file is not modified at all.
+     *
+     * @param address the address of the first byte
+     * @param data    the array holding the data. may not be null
+     * @param offset  the offset of the first byte in the array
+     * @param length  the number of bytes to add
+     * @throws IllegalStateException     if any of the bytes collides with data already present in the file.
+     * @throws IndexOutOfBoundsException if the range does not fit into this file or into the array.
+     */
+    public void addBytes(long address, byte @NotNull [] data, int offset, int length) {
+        Objects.requireNonNull(data, "data must not be null");
+        Objects.checkFromIndexSize(offset, length, data.length);
+        if (length == 0) {
+            return;
         }
+        this.content.putRange(address, data, offset, length);
+        growTo(address + length);
+    }
+
+    /**
+     * Extends the current size to cover a newly added range.
+     *
+     * @param end the end of the range (exclusive)
+     */
+    void growTo(long end) {
+        currentSize = Math.max(currentSize, end);
     }
 
     /**
@@ -97,7 +182,7 @@ public class BinaryFile implements Iterable<DataFragment> {
      *
      * @return the file size
      */
-    public int getCurrentSize() {
+    public long getCurrentSize() {
         return this.currentSize;
     }
 
@@ -108,7 +193,7 @@ public class BinaryFile implements Iterable<DataFragment> {
      * @return the data at the given address or null if no data is present
      * @throws IndexOutOfBoundsException if the address is out of bounds for this file
      */
-    public @Nullable Byte getByte(int address) {
+    public @Nullable Byte getByte(long address) {
         return content.getOrNull(address);
     }
 
@@ -118,13 +203,15 @@ public class BinaryFile implements Iterable<DataFragment> {
      * If the space is continuous (all bytes in the space are filled), a single fragment will be returned.
      * If not, a list with the smallest number of fragments possible to cover the entire space is provided.
      * If there's no data in the space, an empty list will be returned.
+     * <p>
+     * The cost of this operation depends on the number of continuous regions in the space, not on its length.
      *
      * @param start  starting address of the memory space to extract
      * @param length length of the memory space to extract. must be larger than 0.
      * @return a list with 0-n fragments
      * @throws IndexOutOfBoundsException if the memory space is "invalid" (any byte outside the range of this file)
      */
-    public @NotNull List<@NotNull DataFragment> getFragments(int start, int length) {
+    public @NotNull List<@NotNull DataFragment> getFragments(long start, long length) {
         if (length < 1) {
             throw new IllegalArgumentException("length must be greater than zero");
         }
@@ -133,34 +220,175 @@ public class BinaryFile implements Iterable<DataFragment> {
         }
 
         List<DataFragment> fragments = new ArrayList<>();
-        List<@NotNull Byte> buffer = new ArrayList<>();
-        int bufferStart = start;
-        for (int i = start; i < start + length; i++) {
-            Byte nextByte = content.getOrNull(i);
-            if (nextByte != null) {
-                buffer.add(nextByte);
-            } else {
-                if (!buffer.isEmpty()) {
-                    // "flush" buffer to new fragment.
-                    fragments.add(buildFragment(bufferStart, buffer));
-                    buffer.clear();
-                }
-                bufferStart = i + 1;
+        long end = start + length;
+        long runStart = content.nextSetAddress(start, end);
+        while (runStart >= 0) {
+            long runEnd = content.nextClearAddress(runStart, end);
+            // a single fragment can hold at most MAX_FRAGMENT_LENGTH bytes
+            while (runStart < runEnd) {
+                int fragmentLength = (int) Math.min(runEnd - runStart, MAX_FRAGMENT_LENGTH);
+                byte[] data = new byte[fragmentLength];
+                content.copy(runStart, data, 0, fragmentLength);
+                fragments.add(new DataFragment(runStart, data, false));
+                runStart += fragmentLength;
             }
-        }
-        // if there's still data in the buffer, "flush" it again
-        if (!buffer.isEmpty()) {
-            fragments.add(buildFragment(bufferStart, buffer));
+            runStart = content.nextSetAddress(runEnd, end);
         }
         return fragments;
     }
 
-    private static @NotNull DataFragment buildFragment(int start, @NotNull List<@NotNull Byte> data) {
-        byte[] bytes = new byte[data.size()];
-        for (int i = 0; i < data.size(); i++) {
-            bytes[i] = data.get(i);
+    /**
+     * Copies a range of this file into an array, filling all addresses without data with a fill value.
+     * <p>
+     * The cost of this operation depends on the length of the range and the number of continuous regions in it.
+     *
+     * @param start  starting address of the range to copy
+     * @param target the array to copy to. may not be null
+     * @param offset the offset in the target array
+     * @param length length of the range to copy
+     * @param fill   the value to write for all addresses without data
+     * @throws IndexOutOfBoundsException if the range does not fit into this file or into the array.
+     */
+    public void copyTo(long start, byte @NotNull [] target, int offset, int length, byte fill) {
+        Objects.requireNonNull(target, "target must not be null");
+        Objects.checkFromIndexSize(offset, length, target.length);
+        if (start < 0 || start + length > this.content.getSize()) {
+            throw new IndexOutOfBoundsException();
+        }
+        long end = start + length;
+        long address = start;
+        while (address < end) {
+            long runStart = content.nextSetAddress(address, end);
+            if (runStart < 0) {
+                runStart = end;
+            }
+            Arrays.fill(target, offset + (int) (address - start), offset + (int) (runStart - start), fill);
+            long runEnd = content.nextClearAddress(runStart, end);
+            content.copy(runStart, target, offset + (int) (runStart - start), (int) (runEnd - runStart));
+            address = runEnd;
+        }
+    }
+
+    /**
+     * Calculates a checksum over a range of this file, using a fill value for all addresses without data.
+     * <p>
+     * The data is processed directly from the internal storage, without copying it. The cost of this operation
+     * depends on the length of the range. For the additive checksums, the cost only depends on the amount of data and
+     * the number of continuous regions in the range.
+     *
+     * @param algorithm the checksum algorithm. may not be null
+     * @param start     starting address of the range
+     * @param length    length of the range. must be larger than 0.
+     * @param fill      the value to use for all addresses without data
+     * @return the checksum value. only the lowest {@link Checksum#width()} bytes are used.
+     * @throws IndexOutOfBoundsException if the range does not fit into this file.
+     */
+    public long checksum(@NotNull Checksum algorithm, long start, long length, byte fill) {
+        Objects.requireNonNull(algorithm, "algorithm must not be null");
+        if (length < 1) {
+            throw new IllegalArgumentException("length must be greater than zero");
+        }
+        if (start < 0 || start + length > this.content.getSize()) {
+            throw new IndexOutOfBoundsException();
         }
-        return new DataFragment(start, bytes);
+        Checksum.State state = algorithm.newState();
+        long end = start + length;
+        long address = start;
+        while (address < end) {
+            long runStart = content.nextSetAddress(address, end);
+            if (runStart < 0) {
+                runStart = end;
+            }
+            if (runStart > address) {
+                state.updateFill(fill, runStart - address);
+            }
+            long runEnd = content.nextClearAddress(runStart, end);
+            content.visit(runStart, runEnd - runStart, state::update);
+            address = runEnd;
+        }
+        return state.value();
+    }
+
+    /**
+     * Calculates a checksum over a range of this file and writes it into the file.
+     * <p>
+     * The checksum is written as {@link Checksum#width()} bytes at the target address, in the given byte order.
+     * The target range must not overlap the checksummed range and must not contain any data yet.
+     *
+     * @param algorithm the checksum algorithm. may not be null
+     * @param start     starting address of the range
+     * @param length    length of the range. must be larger than 0.
+     * @param fill      the value to use for all addresses without data
+     * @param target    the address to write the checksum to
+     * @param order     the byte order of the written checksum. may not be null
+     * @return the checksum value
+     * @throws IndexOutOfBoundsException if the range or the target does not fit into this file.
+     * @throws IllegalArgumentException  if the length is not positive or if the target range overlaps the checksummed
+     *                                   range.
+     * @throws IllegalStateException     if the target range already contains data. The file is not modified in that
+     *                                   case.
+     * @see #checksum(Checksum, long, long, byte)
+     */
+    public long writeChecksum(@NotNull Checksum algorithm, long start, long length, byte fill, long target,
+                              @NotNull ByteOrder order) {
+        Objects.requireNonNull(algorithm, "algorithm must not be null");
+        Objects.requireNonNull(order, "order must not be null");
+        int width = algorithm.width();
+        if (target < start + length && start < target + width) {
+            throw new IllegalArgumentException("target must not overlap the checksummed range");
+        }
+        long value = checksum(algorithm, start, length, fill);
+        byte[] bytes = new byte[width];
+        for (int i = 0; i < width; i++) {
+            int shift = 8 * (order == ByteOrder.BIG_ENDIAN ? width - 1 - i : i);
+            bytes[i] = (byte) (value >>> shift);
+        }
+        addBytes(target, bytes, 0, width);
+        return value;
+    }
+
+    /**
+     * Creates an immutable snapshot of this file in constant time.
+     * <p>
+     * The snapshot shares all memory with this file. Subsequent modifications of this file do not affect the snapshot,
+     * they copy the pages they touch instead. The snapshot can safely be shared between threads without any further
+     * synchronization.
+     *
+     * @return the snapshot
+     */
+    public @NotNull FrozenBinaryFile freeze() {
+        Content snapshot = content.snapshot();
+        return new FrozenBinaryFile(snapshot, sizeOf(snapshot));
+    }
+
+    /**
+     * Creates a mutable copy of this file in constant time.
+     * <p>
+     * The copy shares all memory with this file. Modifications of either file do not affect the other one, they copy
+     * the pages they touch instead.
+     *
+     * @return the copy
+     */
+    public @NotNull BinaryFile mutableCopy() {
+        Content snapshot = content.snapshot();
+        return new BinaryFile(snapshot, sizeOf(snapshot));
+    }
+
+    /**
+     * Returns the current size of a snapshot of this file's content.
+     */
+    long sizeOf(@NotNull Content snapshot) {
+        return currentSize;
+    }
+
+    /**
+     * Finds the first address at or after a given address that contains data.
+     *
+     * @param from the first address to consider
+     * @return the next address with data or -1 if there's no more data in the file
+     */
+    long nextDataAddress(long from) {
+        return content.nextSetAddress(from, content.getSize());
     }
 
     /**
@@ -168,10 +396,29 @@ public class BinaryFile implements Iterable<DataFragment> {
      *
      * @return the size limit
      */
-    public int getSizeLimit() {
+    public long getSizeLimit() {
         return this.content.getSize();
     }
 
+    /**
+     * Returns the number of bytes of memory allocated for the data of this file.
+     * <p>
+     * Memory is allocated page by page, so this is usually larger than the amount of data in the file. Pages shared
+     * with {@link #freeze() snapshots} or {@link #mutableCopy() copies} are included.
+     *
+     * @return the allocated bytes
+     */
+    public long getAllocatedBytes() {
+        return this.content.getAllocatedBytes();
+    }
+
+    /**
+     * Returns the number of bytes of memory allocated for pages not shared with snapshots or copies.
+     */
+    long getOwnedBytes() {
+        return this.content.getOwnedBytes();
+    }
+
     /**
      * Returns an iterator with a step size of 64.
      *
@@ -190,8 +437,8 @@ public class BinaryFile implements Iterable<DataFragment> {
      * If one "slice" is not representable in a single fragment, the iterator will provide multiple smaller fragments
      * for the same "slice".
      * <p>
-     * Internally the iterator calls {@link #getFragments(int, int)} repeatedly and returns the resulting list items one
-     * by one.
+     * Internally the iterator calls {@link #getFragments(long, long)} repeatedly and returns the resulting list items
+     * one by one.
      *
      * @param stepSize the step size. must be larger than 0.
      * @return a new iterator
@@ -202,4 +449,93 @@ public class BinaryFile implements Iterable<DataFragment> {
         }
         return new BinaryFileIterator(this, stepSize);
     }
+
+    /**
+     * Returns an iterator with a custom step size over a part of the file.
+     * <p>
+     * The slices are aligned to multiples of the step size just like for {@link #iterator(int)}, but the first and
+     * the last slice are cut off at the boundaries of the range. Iterating over adjacent ranges therefore yields the
+     * same data as iterating over the entire file, with fragments crossing a range boundary split in two.
+     *
+     * @param stepSize the step size. must be larger than 0.
+     * @param start    starting address of the range
+     * @param length   length of the range. must be larger than 0.
+     * @return a new iterator
+     * @throws IndexOutOfBoundsException if the range is "invalid" (any byte outside the range of this file)
+     */
+    public @NotNull Iterator<@NotNull DataFragment> iterator(int stepSize, long start, long length) {
+        if (stepSize < 1) {
+            throw new IllegalArgumentException("stepSize must be greater than zero");
+        }
+        if (length < 1) {
+            throw new IllegalArgumentException("length must be greater than zero");
+        }
+        if (start < 0 || start + length > this.content.getSize()) {
+            throw new IndexOutOfBoundsException();
+        }
+        return new BinaryFileIterator(this, stepSize, start, start + length);
+    }
+
+    /**
+     * Returns a spliterator with a step size of 64.
+     *
+     * @return a new spliterator
+     * @see #stream(int)
+     */
+    @Override
+    public @NotNull Spliterator<@NotNull DataFragment> spliterator() {
+        return new BinaryFileSpliterator(this, 64, 0, getCurrentSize());
+    }
+
+    /**
+     * Returns a stream with a step size of 64.
+     *
+     * @return a new sequential stream
+     * @see #stream(int)
+     */
+    public @NotNull Stream<@NotNull DataFragment> stream() {
+        return stream(64);
+    }
+
+    /**
+     * Returns a stream over the same fragments as {@link #iterator(int)}.
+     * <p>
+     * The stream can be split by address range in constant time, so parallel streams process separate regions of
+     * the file on separate threads. The fragments are the same for sequential and parallel streams. The file must not
+     * be modified while the stream is being processed.
+     *
+     * @param stepSize the step size. must be larger than 0.
+     * @return a new sequential stream
+     */
+    public @NotNull Stream<@NotNull DataFragment> stream(int stepSize) {
+        if (stepSize < 1) {
+            throw new IllegalArgumentException("stepSize must be greater than zero");
+        }
+        // nothing to split beyond the current size
+        return StreamSupport.stream(new BinaryFileSpliterator(this, stepSize, 0, getCurrentSize()), false);
+    }
+
+    /**
+     * Returns a stream over the same fragments as {@link #iterator(int, long, long)}.
+     *
+     * @param stepSize the step size. must be larger than 0.
+     * @param start    starting address of the range
+     * @param length   length of the range. must be larger than 0.
+     * @return a new sequential stream
+     * @throws IndexOutOfBoundsException if the range is "invalid" (any byte outside the range of this file)
+     * @see #stream(int)
+     */
+    public @NotNull Stream<@NotNull DataFragment> stream(int stepSize, long start, long length) {
+        if (stepSize < 1) {
+            throw new IllegalArgumentException("stepSize must be greater than zero");
+        }
+        if (length < 1) {
+            throw new IllegalArgumentException("length must be greater than zero");
+        }
+        if (start < 0 || start + length > this.content.getSize()) {
+            throw new IndexOutOfBoundsException();
+        }
+        long end = Math.max(start, Math.min(start + length, getCurrentSize()));
+        return StreamSupport.stream(new BinaryFileSpliterator(this, stepSize, start, end), false);
+    }
 }
@@ -8,13 +8,27 @@ class BinaryFileIterator implements Iterator<DataFragment> {
 
     private final @NotNull BinaryFile file;
     private final int stepSize;
+    // the range to iterate over
+    private final long start;
+    private final long end;
     // queue to hold "remaining" elements of a slice
     private final Queue<DataFragment> queue = new ArrayDeque<>();
-    private int nextStart;
+    private long nextStart;
 
     public BinaryFileIterator(@NotNull BinaryFile file, int stepSize) {
+        this(file, stepSize, 0, file.getSizeLimit());
+    }
+
+    /**
+     * Creates an iterator over the range [start, end). The slices are aligned to multiples of the step size, the first
+     * and last slice are cut off at the range boundaries.
+     */
+    public BinaryFileIterator(@NotNull BinaryFile file, int stepSize, long start, long end) {
         this.file = file;
         this.stepSize = stepSize;
+        this.start = start;
+        this.end = end;
+        this.nextStart = start / stepSize * stepSize;
         this.fetchNextSegment();
     }
 
@@ -42,10 +56,17 @@ class BinaryFileIterator implements Iterator<DataFragment> {
      * anything into the queue!
      */
     private void fetchNextSegment() {
-        while (queue.isEmpty() && nextStart < file.getCurrentSize()) {
-            // cap size so we don't run over the end of the file.
-            int size = Math.min(stepSize, file.getSizeLimit() - nextStart);
-            List<@NotNull DataFragment> fragments = file.getFragments(nextStart, size);
+        while (queue.isEmpty() && nextStart < Math.min(file.getCurrentSize(), end)) {
+            // skip ahead to the slice containing the next data
+            long nextData = file.nextDataAddress(Math.max(nextStart, start));
+            if (nextData < 0 || nextData >= end) {
+                break;
+            }
+            nextStart += (nextData - nextStart) / stepSize * stepSize;
+            // cut the slice off at the range boundaries, so we don't run over the end of the file.
+            long sliceStart = Math.max(nextStart, start);
+            long sliceEnd = Math.min(nextStart + stepSize, end);
+            List<@NotNull DataFragment> fragments = file.getFragments(sliceStart, sliceEnd - sliceStart);
             queue.addAll(fragments);
             nextStart = nextStart + stepSize;
         }
@@ -0,0 +1,85 @@
+package ch.awae.binfiles;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator over the fragments of a range of a {@link BinaryFile}, see {@link BinaryFile#stream(int)}.
+ * <p>
+ * The range is split in halves at multiples of the step size. Since the slices of the {@link BinaryFileIterator} are
+ * aligned to the step size as well, the split parts yield exactly the same fragments as the unsplit range.
+ * The number of fragments is not known without scanning the range, so the spliterator is not SIZED. The estimated
+ * size is the number of slices in the range.
+ */
+class BinaryFileSpliterator implements Spliterator<DataFragment> {
+
+    private final @NotNull BinaryFile file;
+    private final int stepSize;
+    private long start;
+    private final long end;
+    // created on the first traversal, the range can no longer be split afterward
+    private Iterator<DataFragment> iterator;
+
+    /**
+     * Creates a spliterator over the range [start, end).
+     */
+    BinaryFileSpliterator(@NotNull BinaryFile file, int stepSize, long start, long end) {
+        this.file = file;
+        this.stepSize = stepSize;
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super DataFragment> action) {
+        Iterator<DataFragment> iterator = iterator();
+        if (!iterator.hasNext()) {
+            return false;
+        }
+        action.accept(iterator.next());
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super DataFragment> action) {
+        iterator().forEachRemaining(action);
+    }
+
+    private Iterator<DataFragment> iterator() {
+        if (iterator == null) {
+            iterator = new BinaryFileIterator(file, stepSize, start, end);
+        }
+        return iterator;
+    }
+
+    @Override
+    public Spliterator<DataFragment> trySplit() {
+        if (iterator != null) {
+            return null;
+        }
+        long middle = (start + (end - start) / 2) / stepSize * stepSize;
+        if (middle <= start || middle >= end) {
+            return null;
+        }
+        BinaryFileSpliterator prefix = new BinaryFileSpliterator(file, stepSize, start, middle);
+        start = middle;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        if (start >= end) {
+            return 0;
+        }
+        return (end - 1) / stepSize - start / stepSize + 1;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+
+}
@@ -0,0 +1,190 @@
+package ch.awae.binfiles;
+
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Checksum algorithms for calculating checksums over address ranges of a {@link BinaryFile}.
+ *
+ * @author Andreas Wälchli
+ * @see BinaryFile#checksum(Checksum, long, long, byte)
+ * @since 0.1.0
+ */
+public enum Checksum {
+
+    /**
+     * CRC-32 as used by zip and ethernet (polynomial 0x04C11DB7, reflected, initial value and final XOR 0xFFFFFFFF).
+     */
+    CRC32(4) {
+        @Override
+        State newState() {
+            return new Crc32State();
+        }
+    },
+
+    /**
+     * CRC-16-CCITT (polynomial 0x1021, not reflected, initial value 0xFFFF, no final XOR), also known as
+     * CRC-16/CCITT-FALSE.
+     */
+    CRC16_CCITT(2) {
+        @Override
+        State newState() {
+            return new Crc16State();
+        }
+    },
+
+    /**
+     * The sum of all bytes, truncated to 8 bits.
+     */
+    SUM8(1) {
+        @Override
+        State newState() {
+            return new SumState(0xffL);
+        }
+    },
+
+    /**
+     * The sum of all bytes, truncated to 16 bits.
+     */
+    SUM16(2) {
+        @Override
+        State newState() {
+            return new SumState(0xffffL);
+        }
+    },
+
+    /**
+     * The sum of all bytes, truncated to 32 bits.
+     */
+    SUM32(4) {
+        @Override
+        State newState() {
+            return new SumState(0xffffffffL);
+        }
+    };
+
+    private final int width;
+
+    Checksum(int width) {
+        this.width = width;
+    }
+
+    /**
+     * Returns the width of a checksum value in bytes.
+     *
+     * @return the width
+     */
+    public int width() {
+        return width;
+    }
+
+    /**
+     * Creates a new state for a single checksum calculation.
+     */
+    abstract State newState();
+
+    /**
+     * The running state of a single checksum calculation.
+     */
+    abstract static class State {
+
+        // the source of fill bytes for algorithms without a closed form for repeated bytes
+        private static final int FILL_BLOCK_SIZE = 4096;
+
+        /**
+         * Updates the checksum with a range of bytes.
+         */
+        abstract void update(byte[] data, int offset, int length);
+
+        /**
+         * Updates the checksum with a number of repetitions of the same byte.
+         */
+        void updateFill(byte fill, long count) {
+            byte[] block = new byte[(int) Math.min(count, FILL_BLOCK_SIZE)];
+            Arrays.fill(block, fill);
+            while (count > 0) {
+                int length = (int) Math.min(count, block.length);
+                update(block, 0, length);
+                count -= length;
+            }
+        }
+
+        /**
+         * @return the final checksum value
+         */
+        abstract long value();
+    }
+
+    private static final class Crc32State extends State {
+        private final CRC32 crc = new CRC32();
+
+        @Override
+        void update(byte[] data, int offset, int length) {
+            crc.update(data, offset, length);
+        }
+
+        @Override
+        long value() {
+            return crc.getValue();
+        }
+    }
+
+    private static final class Crc16State extends State {
+        private static final char[] TABLE = new char[256];
+
+        static {
+            for (int i = 0; i < 256; i++) {
+                int crc = i << 8;
+                for (int bit = 0; bit < 8; bit++) {
+                    crc = (crc & 0x8000) != 0 ? (crc << 1) ^ 0x1021 : crc << 1;
+                }
+                TABLE[i] = (char) crc;
+            }
+        }
+
+        private int crc = 0xffff;
+
+        @Override
+        void update(byte[] data, int offset, int length) {
+            int crc = this.crc;
+            for (int i = offset; i < offset + length; i++) {
+                crc = (crc << 8) ^ TABLE[((crc >>> 8) ^ data[i]) & 0xff];
+            }
+            this.crc = crc & 0xffff;
+        }
+
+        @Override
+        long value() {
+            return crc;
+        }
+    }
+
+    private static final class SumState extends State {
+        private final long mask;
+        private long sum = 0;
+
+        SumState(long mask) {
+            this.mask = mask;
+        }
+
+        @Override
+        void update(byte[] data, int offset, int length) {
+            long sum = this.sum;
+            for (int i = offset; i < offset + length; i++) {
+                sum += data[i] & 0xff;
+            }
+            this.sum = sum;
+        }
+
+        @Override
+        void updateFill(byte fill, long count) {
+            sum += (fill & 0xffL) * count;
+        }
+
+        @Override
+        long value() {
+            return sum & mask;
+        }
+    }
+
+}
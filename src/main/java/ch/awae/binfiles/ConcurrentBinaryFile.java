@@ -0,0 +1,63 @@
+package ch.awae.binfiles;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link BinaryFile} that can be populated by multiple threads at once.
+ * <p>
+ * Adding data is atomic: the collision check and the write of a byte, fragment or range of bytes happen as a single
+ * step with respect to all other writers, so of two colliding writes exactly one succeeds, and a failed write never
+ * leaves any of its bytes in the file. Writers only block each other if their ranges share a page or a lock stripe.
+ * <p>
+ * Readers never block. A reader running concurrently with a writer may observe only part of the written range, but
+ * never observes a byte as present before its value has been written.
+ * <p>
+ * {@link #freeze() Snapshots} and {@link #mutableCopy() copies} never contain only part of a write. They are not
+ * concurrent files themselves.
+ *
+ * @author Andreas Wälchli
+ * @since 0.1.0
+ */
+public class ConcurrentBinaryFile extends BinaryFile {
+
+    private final AtomicLong currentSize = new AtomicLong();
+
+    /**
+     * Creates a new empty file with a max size of 65536 bytes.
+     */
+    public ConcurrentBinaryFile() {
+        this(65536);
+    }
+
+    /**
+     * Creates a new empty file with a given size limit.
+     *
+     * @param sizeLimit the max size of the file. must be between 1 and {@link #MAX_SIZE}.
+     */
+    public ConcurrentBinaryFile(long sizeLimit) {
+        super(new ConcurrentContent(sizeLimit));
+    }
+
+    @Override
+    void growTo(long end) {
+        long size = currentSize.get();
+        // only contend on the counter if the file actually grows
+        if (end > size) {
+            currentSize.accumulateAndGet(end, Math::max);
+        }
+    }
+
+    @Override
+    long sizeOf(@NotNull Content snapshot) {
+        // writers update the current size only after releasing their locks, so it may lag behind the snapshot
+        return snapshot.lastSetAddress() + 1;
+    }
+
+    @Override
+    public long getCurrentSize() {
+        return currentSize.get();
+    }
+
+}
@@ -0,0 +1,113 @@
+package ch.awae.binfiles;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link Content} supporting multiple concurrent writers.
+ * <p>
+ * Writers lock all pages of the range they write, so the collision check and the write of a range are atomic with
+ * respect to other writers. Pages are mapped to a fixed number of lock stripes, which are always acquired in
+ * ascending order. Readers do not take any locks.
+ */
+class ConcurrentContent extends Content {
+
+    /**
+     * The page size used for concurrent content. Larger than {@link #DEFAULT_PAGE_SIZE} to reduce the number of locks
+     * taken per write.
+     */
+    static final int CONCURRENT_PAGE_SIZE = 4096;
+
+    // one bit per stripe in a long
+    private static final int STRIPES = 64;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    /**
+     * Creates a new concurrent content.
+     *
+     * @param size the size of the address space. must be between 1 and 2<sup>32</sup>.
+     */
+    ConcurrentContent(long size) {
+        super(size, CONCURRENT_PAGE_SIZE);
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public void put(long address, byte value) {
+        long stripes = lock(address, 1);
+        try {
+            super.put(address, value);
+        } finally {
+            unlock(stripes);
+        }
+    }
+
+    @Override
+    public void putRange(long address, byte[] data, int offset, int length) {
+        if (address < 0 || length < 0 || address + length > getSize()) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (length == 0) {
+            return;
+        }
+        long stripes = lock(address, length);
+        try {
+            super.putRange(address, data, offset, length);
+        } finally {
+            unlock(stripes);
+        }
+    }
+
+    /**
+     * Creates a snapshot of this content. All stripes are locked, so the snapshot never contains part of a write.
+     */
+    @Override
+    Content snapshot() {
+        long stripes = lockAll();
+        try {
+            return super.snapshot();
+        } finally {
+            unlock(stripes);
+        }
+    }
+
+    /**
+     * Locks all stripes of the pages in a range.
+     *
+     * @return the bitmask of the locked stripes
+     */
+    private long lock(long address, int length) {
+        int first = pageIndex(address);
+        int last = pageIndex(address + length - 1);
+        if (last - first + 1 >= STRIPES) {
+            return lockAll();
+        }
+        long stripes = 0;
+        for (int page = first; page <= last; page++) {
+            // the shift distance is taken modulo 64, i.e. page i maps to stripe i % 64
+            stripes |= 1L << page;
+        }
+        return lock(stripes);
+    }
+
+    private long lockAll() {
+        return lock(-1L);
+    }
+
+    private long lock(long stripes) {
+        // always lock in ascending order to prevent deadlocks
+        for (long remaining = stripes; remaining != 0; remaining &= remaining - 1) {
+            locks[Long.numberOfTrailingZeros(remaining)].lock();
+        }
+        return stripes;
+    }
+
+    private void unlock(long stripes) {
+        for (long remaining = stripes; remaining != 0; remaining &= remaining - 1) {
+            locks[Long.numberOfTrailingZeros(remaining)].unlock();
+        }
+    }
+
+}
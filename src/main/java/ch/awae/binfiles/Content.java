@@ -2,60 +2,564 @@ package ch.awae.binfiles;
 
 import org.jetbrains.annotations.Nullable;
 
-import java.util.BitSet;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.NoSuchElementException;
 
+/**
+ * Storage for the data of a {@link BinaryFile}.
+ * <p>
+ * The address space is split into pages. Each page consists of a data array and a presence bitmap and is only
+ * allocated once the first byte is written to it. A content with large pages needs few page lookups and copies for
+ * densely populated data ("dense" content), while a content with small pages only allocates memory for the regions
+ * actually in use ("paged" content). Even dense pages are bounded in size, so a write after a snapshot never copies
+ * more than a single large page.
+ * <p>
+ * Pages are looked up through a two-level page table, so even the page table of a sparse 4 GiB address space is only
+ * allocated for the regions in use.
+ * <p>
+ * Pages and tables are installed atomically, and the presence bitmaps are written with release and read with acquire
+ * semantics, after the data they mark. Readers therefore never observe a byte as present before its value. This
+ * class does not synchronize concurrent writers, see {@link ConcurrentContent}.
+ * <p>
+ * Contents can be {@link #snapshot() snapshotted} in constant time. The snapshot shares all pages and tables with the
+ * original. Every page and table is owned by the content that created it, and a content only ever modifies what it
+ * owns: the first write to a shared page or table copies it (copy-on-write).
+ */
 class Content {
 
-    private final int size;
-    private final byte[] content;
-    private final BitSet presenceMarkers;
+    /**
+     * The largest supported address space (32-bit).
+     */
+    static final long MAX_SIZE = 1L << 32;
 
-    public Content(int size) {
-        if (size <= 0 || size > 65536) {
-            throw new IllegalArgumentException("size must be between 1 and 65536");
+    /**
+     * The page size used for paged content.
+     */
+    static final int DEFAULT_PAGE_SIZE = 256;
+
+    /**
+     * The page size used for dense content.
+     */
+    static final int DENSE_PAGE_SIZE = 1 << 16;
+
+    /**
+     * The largest supported page size.
+     */
+    static final int MAX_PAGE_SIZE = 1 << 30;
+
+    // every table of the page table holds up to 4096 pages
+    private static final int TABLE_SHIFT = 12;
+    private static final int TABLE_MASK = (1 << TABLE_SHIFT) - 1;
+
+    private static final VarHandle TABLES = MethodHandles.arrayElementVarHandle(Table[].class);
+    private static final VarHandle PAGES = MethodHandles.arrayElementVarHandle(Page[].class);
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    /**
+     * A second level table of the page table.
+     */
+    private static final class Table {
+        final Page[] pages;
+        final Object owner;
+
+        Table(Page[] pages, Object owner) {
+            this.pages = pages;
+            this.owner = owner;
+        }
+    }
+
+    /**
+     * The top level of the page table together with its owner. Both are replaced at once, so a writer never sees the
+     * owner of a copy together with the shared original.
+     */
+    private static final class PageTable {
+        final Table[] tables;
+        final Object owner;
+
+        PageTable(Table[] tables, Object owner) {
+            this.tables = tables;
+            this.owner = owner;
+        }
+    }
+
+    static final class Page {
+        final byte[] data;
+        final long[] presenceMarkers;
+        final Object owner;
+
+        Page(int length, Object owner) {
+            this.data = new byte[length];
+            this.presenceMarkers = new long[((length - 1) >>> 6) + 1];
+            this.owner = owner;
+        }
+
+        private Page(Page original, Object owner) {
+            this.data = original.data.clone();
+            this.presenceMarkers = original.presenceMarkers.clone();
+            this.owner = owner;
+        }
+
+        boolean isSet(int offset) {
+            return (word(offset >>> 6) & (1L << offset)) != 0;
+        }
+
+        private long word(int index) {
+            return (long) WORDS.getAcquire(presenceMarkers, index);
+        }
+
+        private void setBits(int index, long bits) {
+            WORDS.setRelease(presenceMarkers, index, presenceMarkers[index] | bits);
+        }
+
+        /**
+         * marks all bytes in the range [from, to) as present.
+         */
+        void setRange(int from, int to) {
+            int firstWord = from >>> 6;
+            int lastWord = (to - 1) >>> 6;
+            long firstMask = -1L << from;
+            long lastMask = -1L >>> -to;
+            if (firstWord == lastWord) {
+                setBits(firstWord, firstMask & lastMask);
+                return;
+            }
+            setBits(firstWord, firstMask);
+            for (int word = firstWord + 1; word < lastWord; word++) {
+                WORDS.setRelease(presenceMarkers, word, -1L);
+            }
+            setBits(lastWord, lastMask);
+        }
+
+        /**
+         * @return the offset of the first set byte at or after {@code from}, or -1 if there is none.
+         */
+        int nextSet(int from) {
+            int word = from >>> 6;
+            long bits = word(word) & (-1L << from);
+            while (bits == 0) {
+                if (++word == presenceMarkers.length) {
+                    return -1;
+                }
+                bits = word(word);
+            }
+            return (word << 6) + Long.numberOfTrailingZeros(bits);
+        }
+
+        /**
+         * @return the offset of the first unset byte at or after {@code from}, or the page length if there is none.
+         */
+        int nextClear(int from) {
+            int word = from >>> 6;
+            long bits = ~word(word) & (-1L << from);
+            while (bits == 0) {
+                if (++word == presenceMarkers.length) {
+                    return data.length;
+                }
+                bits = ~word(word);
+            }
+            // the unused bits of the last word are never set
+            return Math.min((word << 6) + Long.numberOfTrailingZeros(bits), data.length);
+        }
+    }
+
+    private final long size;
+    private final int pageShift;
+    private final int pageMask;
+    private final int pageCount;
+    // the top level of the page table. replaced by a copy if it is shared with a snapshot
+    private volatile PageTable pageTable;
+    // the token identifying the pages and tables this content may modify
+    private volatile Object owner = new Object();
+
+    /**
+     * Creates a new dense content, i.e. a content with pages of {@link #DENSE_PAGE_SIZE}. A content smaller than that
+     * consists of a single page.
+     *
+     * @param size the size of the address space. must be between 1 and 2<sup>32</sup>.
+     */
+    public Content(long size) {
+        this(size, (int) Math.min(Math.max(size, 1), DENSE_PAGE_SIZE));
+    }
+
+    /**
+     * Creates a new content with a given page size.
+     *
+     * @param size     the size of the address space. must be between 1 and 2<sup>32</sup>.
+     * @param pageSize the size of a single page. will be rounded up to the next power of 2.
+     *                 must be between 1 and 2<sup>30</sup>.
+     */
+    public Content(long size, int pageSize) {
+        if (size <= 0 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_SIZE);
+        }
+        if (pageSize <= 0 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("pageSize must be between 1 and " + MAX_PAGE_SIZE);
         }
         this.size = size;
-        this.content = new byte[size];
-        this.presenceMarkers = new BitSet(size);
+        this.pageShift = 32 - Integer.numberOfLeadingZeros(pageSize - 1);
+        this.pageMask = (1 << pageShift) - 1;
+        long pages = ((size - 1) >>> pageShift) + 1;
+        if (pages > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("pageSize too small for size " + size);
+        }
+        this.pageCount = (int) pages;
+        this.pageTable = new PageTable(new Table[((pageCount - 1) >>> TABLE_SHIFT) + 1], owner);
+    }
+
+    /**
+     * Creates a content sharing all pages and tables with another content.
+     */
+    Content(Content original) {
+        this.size = original.size;
+        this.pageShift = original.pageShift;
+        this.pageMask = original.pageMask;
+        this.pageCount = original.pageCount;
+        this.pageTable = original.pageTable;
+    }
+
+    /**
+     * Creates a snapshot of this content in constant time.
+     * <p>
+     * The snapshot shares all pages and tables with this content. Afterward, neither this content nor the snapshot
+     * owns any of them, so any subsequent write to either of them copies the affected page and table first.
+     *
+     * @return the snapshot
+     */
+    Content snapshot() {
+        Content snapshot = new Content(this);
+        owner = new Object();
+        return snapshot;
+    }
+
+    /**
+     * Creates a content suitable for a given amount of data.
+     * <p>
+     * If at least half of the address space will be populated, a dense content is created. Otherwise, a paged content
+     * is created.
+     *
+     * @param size           the size of the address space. must be between 1 and 2<sup>32</sup>.
+     * @param populatedBytes the (expected) number of bytes that will be written into the content
+     * @return a new content
+     */
+    static Content forDensity(long size, long populatedBytes) {
+        if (populatedBytes * 2 >= size) {
+            return new Content(size);
+        } else {
+            return new Content(size, DEFAULT_PAGE_SIZE);
+        }
     }
 
-    private void validateAddress(int address) {
-        if (address < 0 || address >= content.length) {
+    private void validateAddress(long address) {
+        if (address < 0 || address >= size) {
             throw new IndexOutOfBoundsException();
         }
     }
 
-    public boolean isSet(int address) {
+    private @Nullable Page getPage(long address) {
+        int pageIndex = (int) (address >>> pageShift);
+        Table table = table(pageIndex >>> TABLE_SHIFT);
+        return table == null ? null : (Page) PAGES.getAcquire(table.pages, pageIndex & TABLE_MASK);
+    }
+
+    private @Nullable Table table(int tableIndex) {
+        return (Table) TABLES.getAcquire(pageTable.tables, tableIndex);
+    }
+
+    /**
+     * @return the top level of the page table, copied first if it is not owned by this content
+     */
+    private Table[] writablePageTable(Object owner) {
+        PageTable table = pageTable;
+        if (table.owner != owner) {
+            synchronized (this) {
+                table = pageTable;
+                if (table.owner != owner) {
+                    table = new PageTable(table.tables.clone(), owner);
+                    pageTable = table;
+                }
+            }
+        }
+        return table.tables;
+    }
+
+    private Page getOrAllocatePage(long address) {
+        int pageIndex = (int) (address >>> pageShift);
+        int tableIndex = pageIndex >>> TABLE_SHIFT;
+        Object owner = this.owner;
+        Table[] tables = writablePageTable(owner);
+        Table table = (Table) TABLES.getAcquire(tables, tableIndex);
+        if (table == null || table.owner != owner) {
+            Table copy = table == null
+                    // the last table may be shorter than all others
+                    ? new Table(new Page[Math.min(TABLE_MASK + 1, pageCount - (tableIndex << TABLE_SHIFT))], owner)
+                    : new Table(table.pages.clone(), owner);
+            // another thread may have installed a table in the meantime
+            Table witness = (Table) TABLES.compareAndExchangeRelease(tables, tableIndex, table, copy);
+            table = witness == table ? copy : witness;
+        }
+        int index = pageIndex & TABLE_MASK;
+        Page page = (Page) PAGES.getAcquire(table.pages, index);
+        if (page == null || page.owner != owner) {
+            Page copy;
+            if (page == null) {
+                // the last page may be shorter than all others
+                long pageStart = (long) pageIndex << pageShift;
+                copy = new Page((int) Math.min(pageMask + 1, size - pageStart), owner);
+            } else {
+                copy = new Page(page, owner);
+            }
+            Page witness = (Page) PAGES.compareAndExchangeRelease(table.pages, index, page, copy);
+            page = witness == page ? copy : witness;
+        }
+        return page;
+    }
+
+    public boolean isSet(long address) {
         validateAddress(address);
-        return presenceMarkers.get(address);
+        Page page = getPage(address);
+        return page != null && page.isSet((int) address & pageMask);
     }
 
-    public void put(int address, byte value) {
+    public void put(long address, byte value) {
         if (isSet(address)) {
             throw new IllegalStateException("value already present at address " + address);
         }
-        presenceMarkers.set(address);
-        content[address] = value;
+        Page page = getOrAllocatePage(address);
+        int offset = (int) address & pageMask;
+        page.data[offset] = value;
+        page.setRange(offset, offset + 1);
     }
 
-    public byte get(int address) {
+    /**
+     * Puts a range of bytes.
+     * <p>
+     * The entire range is checked for collisions before any data is written, so either all or none of the bytes are
+     * written.
+     *
+     * @param address the address of the first byte
+     * @param data    the array holding the data
+     * @param offset  the offset of the first byte in the data array
+     * @param length  the number of bytes to put
+     * @throws IndexOutOfBoundsException if the range does not fit into this content
+     * @throws IllegalStateException     if any byte in the range is already present
+     */
+    public void putRange(long address, byte[] data, int offset, int length) {
+        if (address < 0 || length < 0 || address + length > size) {
+            throw new IndexOutOfBoundsException();
+        }
+        long collision = nextSetAddress(address, address + length);
+        if (collision >= 0) {
+            throw new IllegalStateException("value already present at address " + collision);
+        }
+        while (length > 0) {
+            Page page = getOrAllocatePage(address);
+            int pageOffset = (int) address & pageMask;
+            int chunk = Math.min(length, page.data.length - pageOffset);
+            System.arraycopy(data, offset, page.data, pageOffset, chunk);
+            page.setRange(pageOffset, pageOffset + chunk);
+            address += chunk;
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    public byte get(long address) {
         if (isSet(address)) {
-            return content[address];
+            return getPage(address).data[(int) address & pageMask];
         } else {
             throw new NoSuchElementException("no value set at address " + address);
         }
     }
 
-    public @Nullable Byte getOrNull(int address) {
+    public @Nullable Byte getOrNull(long address) {
         if (isSet(address)) {
-            return content[address];
+            return getPage(address).data[(int) address & pageMask];
         } else {
             return null;
         }
     }
 
-    public int getSize() {
+    /**
+     * Finds the first populated address in a given range.
+     *
+     * @param from the first address to consider (inclusive)
+     * @param to   the end of the range (exclusive). must not exceed the size.
+     * @return the first populated address or -1 if the whole range is empty.
+     */
+    long nextSetAddress(long from, long to) {
+        long address = from;
+        while (address < to) {
+            int pageIndex = (int) (address >>> pageShift);
+            Table table = table(pageIndex >>> TABLE_SHIFT);
+            if (table == null) {
+                // skip the entire table
+                address = (long) (((pageIndex >>> TABLE_SHIFT) + 1) << TABLE_SHIFT) << pageShift;
+                continue;
+            }
+            Page page = (Page) PAGES.getAcquire(table.pages, pageIndex & TABLE_MASK);
+            long pageStart = (long) pageIndex << pageShift;
+            if (page != null) {
+                int offset = page.nextSet((int) (address - pageStart));
+                if (offset >= 0) {
+                    long result = pageStart + offset;
+                    return result < to ? result : -1;
+                }
+            }
+            address = pageStart + pageMask + 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the first empty address in a given range.
+     *
+     * @param from the first address to consider (inclusive)
+     * @param to   the end of the range (exclusive). must not exceed the size.
+     * @return the first empty address or {@code to} if the whole range is populated.
+     */
+    long nextClearAddress(long from, long to) {
+        long address = from;
+        while (address < to) {
+            Page page = getPage(address);
+            if (page == null) {
+                return address;
+            }
+            long pageStart = address & ~(long) pageMask;
+            int offset = page.nextClear((int) (address - pageStart));
+            if (offset < page.data.length) {
+                return Math.min(pageStart + offset, to);
+            }
+            address = pageStart + page.data.length;
+        }
+        return to;
+    }
+
+    /**
+     * Copies a populated range into an array.
+     * The caller must ensure that the entire range is populated.
+     *
+     * @param address the first address to copy
+     * @param target  the array to copy to
+     * @param offset  the offset in the target array
+     * @param length  the number of bytes to copy
+     */
+    void copy(long address, byte[] target, int offset, int length) {
+        while (length > 0) {
+            Page page = getPage(address);
+            int pageOffset = (int) address & pageMask;
+            int chunk = Math.min(length, page.data.length - pageOffset);
+            System.arraycopy(page.data, pageOffset, target, offset, chunk);
+            address += chunk;
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    /**
+     * Receives the page arrays of a populated range, see {@link #visit(long, long, RunVisitor)}.
+     */
+    interface RunVisitor {
+        void accept(byte[] data, int offset, int length);
+    }
+
+    /**
+     * Passes a populated range to a visitor page by page, directly from the page arrays without copying.
+     * The caller must ensure that the entire range is populated. The visitor must not modify the arrays.
+     *
+     * @param address the first address to visit
+     * @param length  the number of bytes to visit
+     * @param visitor the visitor to pass the page arrays to, in address order
+     */
+    void visit(long address, long length, RunVisitor visitor) {
+        while (length > 0) {
+            Page page = getPage(address);
+            int pageOffset = (int) address & pageMask;
+            int chunk = (int) Math.min(length, page.data.length - pageOffset);
+            visitor.accept(page.data, pageOffset, chunk);
+            address += chunk;
+            length -= chunk;
+        }
+    }
+
+    public long getSize() {
         return this.size;
     }
+
+    /**
+     * @return the index of the page holding a given address
+     */
+    int pageIndex(long address) {
+        return (int) (address >>> pageShift);
+    }
+
+    /**
+     * Returns the number of bytes allocated for page data.
+     *
+     * @return the allocated bytes, excluding presence markers and the page table
+     */
+    long getAllocatedBytes() {
+        long allocated = 0;
+        for (Table table : pageTable.tables) {
+            if (table == null) {
+                continue;
+            }
+            for (Page page : table.pages) {
+                if (page != null) {
+                    allocated += page.data.length;
+                }
+            }
+        }
+        return allocated;
+    }
+
+    /**
+     * Returns the number of bytes allocated for pages owned by this content, i.e. pages not shared with a snapshot.
+     *
+     * @return the owned bytes, excluding presence markers and the page table
+     */
+    long getOwnedBytes() {
+        Object owner = this.owner;
+        long owned = 0;
+        for (Table table : pageTable.tables) {
+            if (table == null) {
+                continue;
+            }
+            for (Page page : table.pages) {
+                if (page != null && page.owner == owner) {
+                    owned += page.data.length;
+                }
+            }
+        }
+        return owned;
+    }
+
+    /**
+     * Finds the last populated address.
+     *
+     * @return the last populated address or -1 if the content is empty.
+     */
+    long lastSetAddress() {
+        Table[] tables = pageTable.tables;
+        for (int tableIndex = tables.length - 1; tableIndex >= 0; tableIndex--) {
+            Table table = (Table) TABLES.getAcquire(tables, tableIndex);
+            if (table == null) {
+                continue;
+            }
+            for (int index = table.pages.length - 1; index >= 0; index--) {
+                Page page = (Page) PAGES.getAcquire(table.pages, index);
+                if (page == null) {
+                    continue;
+                }
+                for (int word = page.presenceMarkers.length - 1; word >= 0; word--) {
+                    long bits = page.word(word);
+                    if (bits != 0) {
+                        long pageStart = (long) ((tableIndex << TABLE_SHIFT) + index) << pageShift;
+                        return pageStart + (word << 6) + 63 - Long.numberOfLeadingZeros(bits);
+                    }
+                }
+            }
+        }
+        return -1;
+    }
 }
@@ -3,6 +3,7 @@ package ch.awae.binfiles;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Objects;
 
@@ -15,21 +16,31 @@ import java.util.Objects;
 @SuppressWarnings("ClassCanBeRecord")
 public class DataFragment {
 
-    private final int position;
+    private final long position;
     private final byte @NotNull [] data;
 
     /**
      * Create a new DataFragment.
      * <p>
-     * The entire address range the fragment occupies must fit into a 16-bit address space (0..65535)
+     * The entire address range the fragment occupies must fit into a 32-bit address space (0..4294967295)
      *
      * @param position the <i>starting position</i> of the fragment. The starting position is defined as the address of
      *                 the first byte.
      * @param data     the data contained in the fragment. may not be null and must contain at least 1 element.
-     * @throws IllegalArgumentException if any byte of the fragment lies outside the 16-bit address space (0..65535) or if {@code data} is empty.
+     * @throws IllegalArgumentException if any byte of the fragment lies outside the 32-bit address space (0..4294967295) or if {@code data} is empty.
      * @throws NullPointerException     if {@code data} is null.
      */
-    public DataFragment(int position, byte @NotNull [] data) {
+    public DataFragment(long position, byte @NotNull [] data) {
+        this(position, data, true);
+    }
+
+    /**
+     * Create a new DataFragment, optionally taking ownership of the data array.
+     *
+     * @param copy if false, the fragment takes ownership of the data array instead of copying it.
+     *             The caller must not modify the array afterward.
+     */
+    DataFragment(long position, byte @NotNull [] data, boolean copy) {
         Objects.requireNonNull(data, "data may not be null");
         validatePosition(position);
         validatePosition(position + data.length - 1);
@@ -38,7 +49,7 @@ public class DataFragment {
         }
 
         this.position = position;
-        this.data = Arrays.copyOf(data, data.length);
+        this.data = copy ? Arrays.copyOf(data, data.length) : data;
     }
 
     /**
@@ -48,14 +59,15 @@ public class DataFragment {
      *
      * @return the position
      */
-    public int getPosition() {
+    public long getPosition() {
         return position;
     }
 
     /**
      * Returns a <b>copy</b> of the data contained in the fragment.
      * <p>
-     * Please note, that every invocation returns a fresh copy!
+     * Please note, that every invocation returns a fresh copy! Use {@link #getDataBuffer()} to access the data without
+     * copying it.
      *
      * @return a copy of the fragments data
      */
@@ -64,6 +76,40 @@ public class DataFragment {
         return Arrays.copyOf(data, data.length);
     }
 
+    /**
+     * Returns a read-only view of the data contained in the fragment.
+     * <p>
+     * The data is not copied. Every invocation returns a new view, positioned at the start of the data.
+     *
+     * @return a read-only buffer containing the fragments data
+     */
+    @Contract("-> new")
+    public @NotNull ByteBuffer getDataBuffer() {
+        return ByteBuffer.wrap(data).asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns a fragment with the same data at a different position.
+     * <p>
+     * As fragments are immutable, the data is shared with this fragment instead of being copied.
+     *
+     * @param position the starting position of the new fragment.
+     * @return a new fragment at the given position
+     * @throws IllegalArgumentException if any byte of the new fragment lies outside the 32-bit address space (0..4294967295).
+     */
+    @Contract("_ -> new")
+    public @NotNull DataFragment withPosition(long position) {
+        return new DataFragment(position, data, false);
+    }
+
+    /**
+     * Returns the data contained in the fragment without copying it.
+     * The returned array must not be modified.
+     */
+    byte @NotNull [] internalData() {
+        return data;
+    }
+
     /**
      * Returns the length of this data fragment.
      *
@@ -78,8 +124,8 @@ public class DataFragment {
         return ("DataFragment(position=%d, length=%d)".formatted(this.position, this.data.length));
     }
 
-    private static void validatePosition(int position) {
-        if (position < 0 || position >= 65536) {
+    private static void validatePosition(long position) {
+        if (position < 0 || position >= Content.MAX_SIZE) {
             throw new IllegalArgumentException("address out of bounds: " + position);
         }
     }
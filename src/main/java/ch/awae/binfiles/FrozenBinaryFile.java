@@ -0,0 +1,73 @@
+package ch.awae.binfiles;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * An immutable snapshot of a {@link BinaryFile}, created by {@link BinaryFile#freeze()}.
+ * <p>
+ * All methods adding data throw an {@link UnsupportedOperationException}. Instances are safe to share between threads
+ * without any further synchronization. Use {@link #mutableCopy()} to derive a modifiable file from a snapshot.
+ *
+ * @author Andreas Wälchli
+ * @since 0.1.0
+ */
+public final class FrozenBinaryFile extends BinaryFile {
+
+    private final long currentSize;
+
+    FrozenBinaryFile(@NotNull Content content, long currentSize) {
+        super(content, currentSize);
+        this.currentSize = currentSize;
+    }
+
+    /**
+     * Not supported, snapshots are immutable.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void addByte(long address, byte value) {
+        throw new UnsupportedOperationException("file is frozen");
+    }
+
+    /**
+     * Not supported, snapshots are immutable.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void addFragment(@NotNull DataFragment fragment) {
+        throw new UnsupportedOperationException("file is frozen");
+    }
+
+    /**
+     * Not supported, snapshots are immutable.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void addBytes(long address, byte @NotNull [] data, int offset, int length) {
+        throw new UnsupportedOperationException("file is frozen");
+    }
+
+    /**
+     * Returns this snapshot, as it is already immutable.
+     *
+     * @return this instance
+     */
+    @Override
+    public @NotNull FrozenBinaryFile freeze() {
+        return this;
+    }
+
+    @Override
+    long sizeOf(@NotNull Content snapshot) {
+        return currentSize;
+    }
+
+    @Override
+    public long getCurrentSize() {
+        return currentSize;
+    }
+
+}
@@ -0,0 +1,176 @@
+package ch.awae.binfiles.bin;
+
+import ch.awae.binfiles.BinaryFile;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Reader for reading a raw binary image from a channel, a stream or a file into a {@link BinaryFile}.
+ * <p>
+ * The entire remaining content of the input is read as a single continuous image. The data is transferred in large
+ * blocks, never byte by byte.
+ *
+ * @author Andreas Wälchli
+ * @since 0.1.0
+ */
+public class BinFileReader implements Closeable {
+
+    // the size of a single block transferred from the channel
+    private static final int BLOCK_SIZE = 1 << 20;
+
+    private final ReadableByteChannel channel;
+
+    /**
+     * Creates a new reader instance.
+     *
+     * @param channel the channel to read from. may not be null.
+     */
+    public BinFileReader(@NotNull ReadableByteChannel channel) {
+        this.channel = Objects.requireNonNull(channel, "channel may not be null");
+    }
+
+    /**
+     * Creates a new reader instance.
+     *
+     * @param stream the input stream to read from. may not be null.
+     */
+    public BinFileReader(@NotNull InputStream stream) {
+        this(Channels.newChannel(Objects.requireNonNull(stream, "stream may not be null")));
+    }
+
+    /**
+     * Creates a new reader instance reading a file.
+     *
+     * @param path the file to read. may not be null.
+     * @return a new reader instance
+     * @throws IOException if the file cannot be opened.
+     */
+    public static @NotNull BinFileReader open(@NotNull Path path) throws IOException {
+        Objects.requireNonNull(path, "path may not be null");
+        return new BinFileReader(FileChannel.open(path, StandardOpenOption.READ));
+    }
+
+    /**
+     * Reads the image into a file, starting at address 0.
+     *
+     * @return the file
+     * @throws IOException if any I/O exception occurs in the underlying channel, or if the image is larger than the
+     *                     32-bit address space.
+     * @see #read(long)
+     */
+    public @NotNull BinaryFile read() throws IOException {
+        return read(0);
+    }
+
+    /**
+     * Reads the image into a file, starting at a given base address.
+     * <p>
+     * The returned file will have the smallest size that is a power of 2 that fits the entire image at the base
+     * address.
+     *
+     * @param baseAddress the address of the first byte of the image. must be between 0 and {@link BinaryFile#MAX_SIZE} - 1.
+     * @return the file
+     * @throws IOException if any I/O exception occurs in the underlying channel, or if the image does not fit into the
+     *                     32-bit address space at the given base address.
+     */
+    public @NotNull BinaryFile read(long baseAddress) throws IOException {
+        if (baseAddress < 0 || baseAddress >= BinaryFile.MAX_SIZE) {
+            throw new IllegalArgumentException("baseAddress out of bounds: " + baseAddress);
+        }
+        if (channel instanceof SeekableByteChannel seekable) {
+            // the length is known up front, the blocks can be added to the file directly
+            long length = seekable.size() - seekable.position();
+            BinaryFile file = createFile(baseAddress, length);
+            byte[] block = new byte[(int) Math.min(BLOCK_SIZE, length)];
+            long address = baseAddress;
+            long end = baseAddress + length;
+            while (address < end) {
+                int read = readBlock(block, (int) Math.min(block.length, end - address));
+                if (read == 0) {
+                    // the channel has been truncated while reading
+                    break;
+                }
+                file.addBytes(address, block, 0, read);
+                address += read;
+            }
+            return file;
+        }
+
+        // the length is unknown, collect all blocks first
+        List<byte[]> blocks = new ArrayList<>();
+        long length = 0;
+        while (true) {
+            byte[] block = new byte[BLOCK_SIZE];
+            int read = readBlock(block, BLOCK_SIZE);
+            if (read == 0) {
+                break;
+            }
+            length += read;
+            validateLength(baseAddress, length);
+            blocks.add(read == BLOCK_SIZE ? block : Arrays.copyOf(block, read));
+        }
+        BinaryFile file = createFile(baseAddress, length);
+        long address = baseAddress;
+        for (byte[] block : blocks) {
+            file.addBytes(address, block, 0, block.length);
+            address += block.length;
+        }
+        return file;
+    }
+
+    private static void validateLength(long baseAddress, long length) throws IOException {
+        if (baseAddress + length > BinaryFile.MAX_SIZE) {
+            throw new IOException("image does not fit into the 32-bit address space at base address " + baseAddress);
+        }
+    }
+
+    private static BinaryFile createFile(long baseAddress, long length) throws IOException {
+        validateLength(baseAddress, length);
+        // calculate the smallest power of 2 to fit everything
+        long fileSize = 1;
+        while (fileSize < baseAddress + length) {
+            fileSize *= 2;
+        }
+        return new BinaryFile(fileSize, length);
+    }
+
+    /**
+     * Fills the first {@code length} bytes of a block with data from the channel.
+     *
+     * @return the number of bytes read. smaller than the length only at the end of the channel.
+     */
+    private int readBlock(byte[] block, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(block, 0, length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                break;
+            }
+        }
+        return buffer.position();
+    }
+
+    /**
+     * Closes the underlying channel.
+     *
+     * @throws IOException if any I/O exception occurs in the underlying channel.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+}
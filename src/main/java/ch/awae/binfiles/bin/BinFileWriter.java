@@ -0,0 +1,159 @@
+package ch.awae.binfiles.bin;
+
+import ch.awae.binfiles.BinaryFile;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * Writer for writing {@link BinaryFile} instances as raw binary images to a channel, a stream or a file.
+ * <p>
+ * An image is a continuous copy of a range of the address space. All addresses in the range without any data are
+ * written as a configurable fill byte. The data is transferred in large blocks, never byte by byte.
+ *
+ * @author Andreas Wälchli
+ * @since 0.1.0
+ */
+public class BinFileWriter implements Closeable {
+
+    /**
+     * The default fill byte, corresponding to erased flash memory.
+     */
+    public static final byte DEFAULT_FILL = (byte) 0xff;
+
+    // the size of a single block transferred to the channel
+    private static final int BLOCK_SIZE = 1 << 20;
+
+    private final WritableByteChannel channel;
+    private final byte fill;
+
+    /**
+     * Creates a new writer instance using the {@link #DEFAULT_FILL default fill byte}.
+     *
+     * @param channel the channel to write to. may not be null.
+     */
+    public BinFileWriter(@NotNull WritableByteChannel channel) {
+        this(channel, DEFAULT_FILL);
+    }
+
+    /**
+     * Creates a new writer instance.
+     *
+     * @param channel the channel to write to. may not be null.
+     * @param fill    the value to write for all addresses without data.
+     */
+    public BinFileWriter(@NotNull WritableByteChannel channel, byte fill) {
+        this.channel = Objects.requireNonNull(channel, "channel must not be null");
+        this.fill = fill;
+    }
+
+    /**
+     * Creates a new writer instance using the {@link #DEFAULT_FILL default fill byte}.
+     *
+     * @param stream the output stream to write to. may not be null.
+     */
+    public BinFileWriter(@NotNull OutputStream stream) {
+        this(stream, DEFAULT_FILL);
+    }
+
+    /**
+     * Creates a new writer instance.
+     *
+     * @param stream the output stream to write to. may not be null.
+     * @param fill   the value to write for all addresses without data.
+     */
+    public BinFileWriter(@NotNull OutputStream stream, byte fill) {
+        this(Channels.newChannel(Objects.requireNonNull(stream, "stream must not be null")), fill);
+    }
+
+    /**
+     * Creates a new writer instance writing to a file using the {@link #DEFAULT_FILL default fill byte}.
+     * An existing file is overwritten.
+     *
+     * @param path the file to write. may not be null.
+     * @return a new writer instance
+     * @throws IOException if the file cannot be opened.
+     */
+    public static @NotNull BinFileWriter open(@NotNull Path path) throws IOException {
+        return open(path, DEFAULT_FILL);
+    }
+
+    /**
+     * Creates a new writer instance writing to a file. An existing file is overwritten.
+     *
+     * @param path the file to write. may not be null.
+     * @param fill the value to write for all addresses without data.
+     * @return a new writer instance
+     * @throws IOException if the file cannot be opened.
+     */
+    public static @NotNull BinFileWriter open(@NotNull Path path, byte fill) throws IOException {
+        Objects.requireNonNull(path, "path must not be null");
+        return new BinFileWriter(FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING), fill);
+    }
+
+    /**
+     * Writes the image of a file from address 0 up to its {@link BinaryFile#getCurrentSize() current size}.
+     *
+     * @param file the file to write. may not be null.
+     * @throws IOException if an I/O exception occurs in the underlying channel.
+     */
+    public void write(@NotNull BinaryFile file) throws IOException {
+        long size = file.getCurrentSize();
+        if (size > 0) {
+            write(file, 0, size);
+        }
+    }
+
+    /**
+     * Writes the image of a range of a file.
+     * <p>
+     * The first byte written is the one at the {@code baseAddress}. This is the inverse of
+     * {@link BinFileReader#read(long)}.
+     *
+     * @param file        the file to write. may not be null.
+     * @param baseAddress the starting address of the range to write
+     * @param length      the length of the range to write. must be larger than 0.
+     * @throws IOException               if an I/O exception occurs in the underlying channel.
+     * @throws IndexOutOfBoundsException if the range does not fit into the file.
+     */
+    public void write(@NotNull BinaryFile file, long baseAddress, long length) throws IOException {
+        Objects.requireNonNull(file, "file must not be null");
+        if (length < 1) {
+            throw new IllegalArgumentException("length must be greater than zero");
+        }
+        if (baseAddress < 0 || baseAddress + length > file.getSizeLimit()) {
+            throw new IndexOutOfBoundsException();
+        }
+        byte[] block = new byte[(int) Math.min(BLOCK_SIZE, length)];
+        long end = baseAddress + length;
+        for (long address = baseAddress; address < end; address += block.length) {
+            int blockLength = (int) Math.min(block.length, end - address);
+            file.copyTo(address, block, 0, blockLength, fill);
+            ByteBuffer buffer = ByteBuffer.wrap(block, 0, blockLength);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Closes the underlying channel.
+     *
+     * @throws IOException if any I/O exception occurs in the underlying channel.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+}
@@ -0,0 +1,8 @@
+/**
+ * This package contains read and write logic for reading and writing {@link ch.awae.binfiles.BinaryFile} instances
+ * from or to raw binary (.bin) files.
+ * <p>
+ * A raw binary file is a plain memory image without any addressing information. The position of the image in the
+ * address space is therefore provided separately when reading or writing.
+ */
+package ch.awae.binfiles.bin;
@@ -0,0 +1,27 @@
+package ch.awae.binfiles.hex;
+
+import ch.awae.binfiles.DataFragment;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * Receiver of {@link DataFragment}s produced while streaming hex records.
+ *
+ * @author Andreas Wälchli
+ * @see HexRecordPipeline
+ * @see HexRecordStage
+ * @since 0.1.0
+ */
+@FunctionalInterface
+public interface FragmentSink {
+
+    /**
+     * Accepts the next fragment.
+     *
+     * @param fragment the fragment. never null.
+     * @throws IOException if any I/O exception occurs while processing the fragment.
+     */
+    void accept(@NotNull DataFragment fragment) throws IOException;
+
+}
@@ -0,0 +1,226 @@
+package ch.awae.binfiles.hex;
+
+import ch.awae.binfiles.BinaryFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Converts or validates many hex files concurrently.
+ * <p>
+ * Every input is processed on its own virtual thread, with a configurable maximum number of inputs being processed at
+ * the same time. Each input is read completely with a {@link HexFileReader} (including collision checks) before any
+ * output is written, so an invalid input never produces a partial output. Outputs are written to a temporary file in
+ * the same directory first and only moved into place once complete, so a failing write never leaves a partial output
+ * either. Failures are reported per input and do not affect the other inputs of the batch.
+ * <p>
+ * Instances hold no state besides their configuration and can therefore be used by multiple threads at once.
+ *
+ * @author Andreas Wälchli
+ * @since 0.1.0
+ */
+public class HexBatchConverter {
+
+    /**
+     * The default maximum number of inputs processed at the same time.
+     */
+    public static final int DEFAULT_MAX_CONCURRENCY = 64;
+
+    /**
+     * A single conversion.
+     *
+     * @param input  the hex file to read. may not be null.
+     * @param output the hex file to write. if null, the input is only validated.
+     */
+    public record Job(@NotNull Path input, @Nullable Path output) {
+        public Job {
+            Objects.requireNonNull(input, "input may not be null");
+        }
+    }
+
+    /**
+     * The outcome of a single job.
+     *
+     * @param job   the job
+     * @param files the number of files contained in the input. 0 if the job failed.
+     * @param error the exception that caused the job to fail, or null if it succeeded.
+     */
+    public record Result(@NotNull Job job, int files, @Nullable Exception error) {
+        /**
+         * @return true if the job completed successfully
+         */
+        public boolean isSuccess() {
+            return error == null;
+        }
+    }
+
+    private final int maxConcurrency;
+    private final int recordLength;
+
+    /**
+     * Creates a new converter instance with a maximum record length of 16.
+     */
+    public HexBatchConverter() {
+        this(DEFAULT_MAX_CONCURRENCY, 16);
+    }
+
+    /**
+     * Creates a new converter instance.
+     *
+     * @param maxConcurrency the maximum number of inputs processed at the same time. must be at least 1.
+     * @param recordLength   the maximum length of a single data record in the outputs. Range: 1-255.
+     */
+    public HexBatchConverter(int maxConcurrency, int recordLength) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be at least 1");
+        }
+        if (recordLength < 1 || recordLength > 255) {
+            throw new IllegalArgumentException("record length must be between 1 and 255");
+        }
+        this.maxConcurrency = maxConcurrency;
+        this.recordLength = recordLength;
+    }
+
+    /**
+     * Processes a batch of jobs and waits for all of them to complete.
+     * <p>
+     * The output of a job contains all files of its input, written with a {@link HexFileWriter}. Existing outputs
+     * are overwritten.
+     *
+     * @param jobs the jobs to process. may not be null or contain null elements.
+     * @return the results in the order of the jobs
+     * @throws InterruptedException if the calling thread is interrupted while waiting. Jobs that have already been
+     *                              started are completed nonetheless.
+     */
+    public @NotNull List<@NotNull Result> convert(@NotNull List<@NotNull Job> jobs) throws InterruptedException {
+        List<Job> batch = List.copyOf(Objects.requireNonNull(jobs, "jobs may not be null"));
+        Semaphore permits = new Semaphore(maxConcurrency);
+        List<Future<Result>> futures = new ArrayList<>(batch.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Job job : batch) {
+                // only start a thread once a permit is available
+                permits.acquire();
+                futures.add(executor.submit(() -> {
+                    try {
+                        return process(job);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+        }
+        List<Result> results = new ArrayList<>(futures.size());
+        for (Future<Result> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                // process() catches all exceptions, so only errors remain
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Validates a batch of hex files and waits for all of them to complete.
+     *
+     * @param inputs the files to validate. may not be null or contain null elements.
+     * @return the results in the order of the inputs
+     * @throws InterruptedException if the calling thread is interrupted while waiting.
+     * @see #convert(List)
+     */
+    public @NotNull List<@NotNull Result> validate(@NotNull List<@NotNull Path> inputs) throws InterruptedException {
+        Objects.requireNonNull(inputs, "inputs may not be null");
+        List<Job> jobs = new ArrayList<>(inputs.size());
+        for (Path input : inputs) {
+            jobs.add(new Job(input, null));
+        }
+        return convert(jobs);
+    }
+
+    /**
+     * @implNote The input is read into memory with a blocking read instead of being mapped, as page faults on a mapped
+     * file would block the carrier thread of the virtual thread.
+     */
+    private Result process(Job job) {
+        try {
+            List<BinaryFile> files = new ArrayList<>();
+            try (HexFileReader reader = new HexFileReader(HexRecordReader.wrap(ByteBuffer.wrap(Files.readAllBytes(job.input()))))) {
+                BinaryFile file;
+                while ((file = reader.read()) != null) {
+                    files.add(file);
+                }
+            }
+            if (job.output() != null) {
+                write(files, job.output());
+            }
+            return new Result(job, files.size(), null);
+        } catch (Exception e) {
+            return new Result(job, 0, e);
+        }
+    }
+
+    /**
+     * Writes the files to a temporary file next to the output and moves it into place once complete. The temporary
+     * file is deleted if anything fails.
+     * <p>
+     * The temporary file is created like a plain output file, so its permissions follow the umask. A file created by
+     * {@link Files#createTempFile(Path, String, String)} would only be accessible by its owner.
+     */
+    private void write(List<BinaryFile> files, Path output) throws IOException {
+        Path target = output.toAbsolutePath();
+        Path temp;
+        OutputStream stream;
+        while (true) {
+            temp = target.resolveSibling("." + target.getFileName() + "."
+                    + Long.toUnsignedString(ThreadLocalRandom.current().nextLong(), 36) + ".tmp");
+            try {
+                stream = Files.newOutputStream(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                break;
+            } catch (FileAlreadyExistsException e) {
+                // name taken by a concurrent job, try another one
+            }
+        }
+        try {
+            try (HexFileWriter writer = new HexFileWriter(stream)) {
+                for (BinaryFile file : files) {
+                    writer.write(file, recordLength);
+                }
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+}
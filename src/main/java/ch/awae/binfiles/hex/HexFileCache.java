@@ -0,0 +1,281 @@
+package ch.awae.binfiles.hex;
+
+import ch.awae.binfiles.BinaryFile;
+import ch.awae.binfiles.FrozenBinaryFile;
+import ch.awae.binfiles.internal.RecordInput;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.CRC32C;
+
+/**
+ * Cache of parsed hex files, keyed by path.
+ * <p>
+ * {@link #read(Path)} returns the same result as reading the first file with {@link HexFileReader#open(Path)}, but
+ * only parses a file again if it has changed since it has been cached. Whether a file has changed is determined by
+ * the {@link Validation} mode. The cached files are {@link FrozenBinaryFile frozen}, so they can be handed out to any
+ * number of callers. Use {@link BinaryFile#mutableCopy()} to modify a result.
+ * <p>
+ * The cache holds files up to a budget of allocated bytes (see {@link BinaryFile#getAllocatedBytes()}). If the budget
+ * is exceeded, the least recently used files are evicted. Files larger than the entire budget are not cached at all.
+ * <p>
+ * Instances are safe to use from multiple threads. Files are parsed outside the lock, so concurrent misses on the same
+ * path may parse the file more than once.
+ *
+ * @author Andreas Wälchli
+ * @since 0.1.0
+ */
+public class HexFileCache {
+
+    /**
+     * Determines how the cache detects modified files.
+     */
+    public enum Validation {
+        /**
+         * A file is considered unchanged if its size, modification time and file key (if supported by the file
+         * system) are unchanged. This only reads the file attributes, but may miss modifications within the
+         * resolution of the file system timestamps.
+         */
+        MODIFICATION_TIME,
+        /**
+         * A file is considered unchanged if its size and a CRC-32C hash over its content are unchanged. This is
+         * independent of the file system timestamps, but reads and hashes the entire file on every access, so even a
+         * hit costs O(file size). A hit is still considerably cheaper than a miss, as the file is not parsed.
+         * <p>
+         * The timestamps are deliberately not used to skip the hash, as that would miss exactly the modifications
+         * this mode is meant to detect, e.g. by tools restoring the original modification time.
+         */
+        CONTENT_HASH
+    }
+
+    /**
+     * The size of the buffer for hashing files in the {@link Validation#CONTENT_HASH} mode.
+     */
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+
+    private final long budget;
+    private final Validation validation;
+    // access ordered, i.e. the least recently used entry comes first
+    private final LinkedHashMap<Path, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedBytes = 0;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    // the buffer for hashing files, taken by one read at a time. concurrent reads allocate their own
+    private final AtomicReference<ByteBuffer> hashBuffer = new AtomicReference<>();
+
+    /**
+     * Creates a new cache validating files by their modification time.
+     *
+     * @param budget the maximum number of allocated bytes of all cached files. must not be negative.
+     */
+    public HexFileCache(long budget) {
+        this(budget, Validation.MODIFICATION_TIME);
+    }
+
+    /**
+     * Creates a new cache.
+     *
+     * @param budget     the maximum number of allocated bytes of all cached files. must not be negative.
+     * @param validation the mode for detecting modified files. may not be null.
+     */
+    public HexFileCache(long budget, @NotNull Validation validation) {
+        if (budget < 0) {
+            throw new IllegalArgumentException("budget must not be negative");
+        }
+        this.budget = budget;
+        this.validation = Objects.requireNonNull(validation, "validation may not be null");
+    }
+
+    /**
+     * Reads the first hex file from a file, using the cached result if the file has not changed.
+     * <p>
+     * In the {@link Validation#CONTENT_HASH} mode, every call hashes the entire file. The file is read through a reused
+     * buffer for that, so hits do not map the file. On a miss, the file is mapped and hashed again, and parsed from
+     * the same mapping that has been hashed.
+     *
+     * @param path the file to read. may not be null.
+     * @return the first hex file or null, if the file does not contain any records.
+     * @throws IOException             if the file cannot be read.
+     * @throws HexFileParsingException if any parsing error occurs. Failures are not cached.
+     * @see HexFileReader#read()
+     */
+    public @Nullable FrozenBinaryFile read(@NotNull Path path) throws IOException {
+        Path key = Objects.requireNonNull(path, "path may not be null").toAbsolutePath().normalize();
+        // the stamp is taken before parsing, so a modification during parsing causes another miss later
+        Stamp stamp;
+        if (validation == Validation.MODIFICATION_TIME) {
+            BasicFileAttributes attributes = Files.readAttributes(key, BasicFileAttributes.class);
+            stamp = new Stamp(attributes.size(), attributes.lastModifiedTime(), attributes.fileKey(), 0);
+        } else {
+            stamp = hash(key);
+        }
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.stamp.equals(stamp)) {
+                hits.incrementAndGet();
+                return entry.file;
+            }
+        }
+        misses.incrementAndGet();
+        ByteBuffer content = null;
+        if (validation == Validation.CONTENT_HASH) {
+            // the file may have changed since it has been hashed, so the stamp is taken from the parsed content
+            content = RecordInput.map(key);
+            stamp = hash(content);
+        }
+        FrozenBinaryFile file;
+        try (HexFileReader reader = content == null
+                ? HexFileReader.open(key)
+                : new HexFileReader(HexRecordReader.wrap(content))) {
+            BinaryFile result = reader.read();
+            file = result == null ? null : result.freeze();
+        }
+        put(key, new Entry(stamp, file));
+        return file;
+    }
+
+    /**
+     * Hashes a file by reading it through the hash buffer.
+     */
+    private Stamp hash(Path path) throws IOException {
+        ByteBuffer buffer = hashBuffer.getAndSet(null);
+        if (buffer == null) {
+            buffer = ByteBuffer.allocateDirect(HASH_BUFFER_SIZE);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            CRC32C crc = new CRC32C();
+            long size = 0;
+            while (channel.read(buffer.clear()) >= 0) {
+                buffer.flip();
+                size += buffer.remaining();
+                crc.update(buffer);
+            }
+            return new Stamp(size, null, null, crc.getValue());
+        } finally {
+            hashBuffer.set(buffer);
+        }
+    }
+
+    private static Stamp hash(ByteBuffer content) {
+        CRC32C crc = new CRC32C();
+        crc.update(content.duplicate());
+        return new Stamp(content.capacity(), null, null, crc.getValue());
+    }
+
+    private synchronized void put(Path key, Entry entry) {
+        Entry previous = entries.remove(key);
+        if (previous != null) {
+            cachedBytes -= previous.weight;
+        }
+        if (entry.weight > budget) {
+            return;
+        }
+        entries.put(key, entry);
+        cachedBytes += entry.weight;
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (cachedBytes > budget) {
+            cachedBytes -= iterator.next().weight;
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Removes a file from the cache.
+     *
+     * @param path the file to remove. may not be null.
+     */
+    public synchronized void invalidate(@NotNull Path path) {
+        Entry entry = entries.remove(Objects.requireNonNull(path, "path may not be null").toAbsolutePath().normalize());
+        if (entry != null) {
+            cachedBytes -= entry.weight;
+        }
+    }
+
+    /**
+     * Removes all files from the cache. The hit and miss counters are not reset.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        cachedBytes = 0;
+    }
+
+    /**
+     * Returns the number of cached files.
+     *
+     * @return the number of files
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the number of allocated bytes of all cached files.
+     *
+     * @return the cached bytes. never exceeds the budget.
+     */
+    public synchronized long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    /**
+     * Returns the budget of this cache.
+     *
+     * @return the maximum number of allocated bytes of all cached files
+     */
+    public long getBudget() {
+        return budget;
+    }
+
+    /**
+     * Returns the number of reads served from the cache.
+     *
+     * @return the number of hits
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of reads that had to parse the file.
+     *
+     * @return the number of misses
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * The state of a file at the time it has been read.
+     */
+    private record Stamp(long size, @Nullable FileTime modified, @Nullable Object fileKey, long hash) {
+    }
+
+    private static final class Entry {
+        final Stamp stamp;
+        final @Nullable FrozenBinaryFile file;
+        final long weight;
+
+        Entry(Stamp stamp, @Nullable FrozenBinaryFile file) {
+            this.stamp = stamp;
+            this.file = file;
+            this.weight = file == null ? 0 : file.getAllocatedBytes();
+        }
+    }
+
+}
@@ -8,15 +8,17 @@ import org.jetbrains.annotations.Nullable;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
 /**
- * Reader for reading {@link BinaryFile}s from an {@link InputStream}.
+ * Reader for reading {@link BinaryFile}s from an {@link InputStream} or a file.
  * <p>
  * The reader follows the <a href="https://archive.org/details/IntelHEXStandard">Intel Hexadecimal Object File Format Specification</a>.
- * At the moment, only type 0 (data) and type 1 (end of file) records are supported.
+ * Data (type 0), end of file (type 1) and extended segment / linear address records (types 2 and 4) are supported,
+ * allowing files with a 32-bit address space. Start address records (types 3 and 5) are accepted, but ignored.
  *
  * @author Andreas Wälchli
  * @since 0.1.0
@@ -27,6 +29,7 @@ public class HexFileReader implements Closeable {
 
     private final HexRecordReader recordReader;
     private Status status = Status.ALIVE;
+    private @Nullable HexListener listener;
 
     /**
      * Creates a new reader instance
@@ -41,16 +44,42 @@ public class HexFileReader implements Closeable {
      * Creates a new reader instance
      *
      * @param stream the input stream to read from. may not be null.
-     * @implNote A {@link HexRecordReader} is constructed internally.
+     * @implNote A {@link HexRecordReader} with read-ahead is constructed internally. The stream may therefore be
+     * consumed past the end of the last file read.
      */
     public HexFileReader(@NotNull InputStream stream) {
-        this.recordReader = new HexRecordReader(Objects.requireNonNull(stream, "stream may not be null"));
+        this.recordReader = new HexRecordReader(Objects.requireNonNull(stream, "stream may not be null"),
+                HexRecordReader.DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a new reader instance reading a file.
+     *
+     * @param path the file to read. may not be null.
+     * @return a new reader instance
+     * @throws IOException if the file cannot be opened.
+     * @implNote The file is mapped into memory and parsed directly from the mapped buffer.
+     * See {@link HexRecordReader#open(Path)}.
+     */
+    public static @NotNull HexFileReader open(@NotNull Path path) throws IOException {
+        return new HexFileReader(HexRecordReader.open(path));
+    }
+
+    /**
+     * Sets the listener receiving instrumentation events from this reader.
+     *
+     * @param listener the listener or null to disable instrumentation. The listener is also set on the underlying
+     *                 {@link HexRecordReader}.
+     */
+    public void setListener(@Nullable HexListener listener) {
+        this.listener = listener;
+        recordReader.setListener(listener);
     }
 
     /**
      * Read the next full HexFile from the underlying reader / stream.
      * <p>
-     * The returned file will have the smallest size that is a multiple of 2 that fits the entire contents.
+     * The returned file will have the smallest size that is a power of 2 that fits the entire contents.
      * <p>
      * If any parsing error occurs while reading a record, a {@link HexFileParsingException} is thrown.
      * Parsing errors can be:
@@ -81,9 +110,12 @@ public class HexFileReader implements Closeable {
             throw new HexFileParsingException("reader invalid due to previous exception");
         }
         try {
+            long start = listener == null ? 0 : System.nanoTime();
             BinaryFile result = doRead();
             if (result == null) {
                 status = Status.COMPLETED;
+            } else if (listener != null) {
+                listener.fileRead(System.nanoTime() - start);
             }
             return result;
         } catch (IOException e) {
@@ -100,18 +132,23 @@ public class HexFileReader implements Closeable {
 
     private BinaryFile doRead() throws IOException {
         List<DataFragment> fragments = collectFileFragments();
-        if (fragments == null) {
-            return null;
-        }
+        return fragments == null ? null : toFile(fragments);
+    }
 
+    /**
+     * Creates a file of the smallest size that is a power of 2 that fits all fragments.
+     *
+     * @throws IllegalStateException if any of the fragments are colliding.
+     */
+    static BinaryFile toFile(List<DataFragment> fragments) {
         // determine the min file size necessary to fit everything
-        int minSize = 0;
+        long minSize = 0;
         for (DataFragment fragment : fragments) {
             minSize = Math.max(minSize, fragment.getPosition() + fragment.getLength());
         }
 
         // calculate the smallest power of 2 to fit everything
-        int fileSize = 1;
+        long fileSize = 1;
         while (fileSize < minSize) {
             fileSize *= 2;
         }
@@ -121,6 +158,7 @@ public class HexFileReader implements Closeable {
 
     private List<DataFragment> collectFileFragments() throws IOException {
         List<DataFragment> fragments = new ArrayList<>();
+        RecordDecoder decoder = new RecordDecoder(listener);
 
         while (true) {
             HexRecord record = recordReader.readNext();
@@ -132,16 +170,8 @@ public class HexFileReader implements Closeable {
                 throw new HexFileParsingException("unexpected end of stream");
             }
 
-            int i = record.type();
-            if (i == 0) {
-                // data record. convert to fragment.
-                fragments.add(new DataFragment(record.address(), record.data()));
-            } else if (i == 1) {
-                // EOF marker
+            if (decoder.decode(record, fragments::add)) {
                 return fragments;
-            } else {
-                // unsupported record type
-                throw new HexFileParsingException("unsupported record type: " + i);
             }
         }
     }
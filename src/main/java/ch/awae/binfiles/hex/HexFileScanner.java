@@ -0,0 +1,333 @@
+package ch.awae.binfiles.hex;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Scanner validating hex files without building {@link ch.awae.binfiles.BinaryFile}s.
+ * <p>
+ * The scanner accepts exactly the same input as the {@link HexFileReader}: every record is parsed and its checksum
+ * verified, every file must be terminated by an "EOF" record and data of a file must not overlap. Instead of the data
+ * itself, only a {@link Coverage} summary of the address ranges covered by a file is returned.
+ * <p>
+ * Records are decoded into a single reused buffer and overlaps are detected with a bitmap of the address space, so no
+ * objects are allocated per record. The bitmap is allocated in 64 KiB regions on first use and reused for all
+ * subsequent files.
+ *
+ * @author Andreas Wälchli
+ * @since 0.1.0
+ */
+public class HexFileScanner implements Closeable {
+
+    private enum Status {ALIVE, COMPLETED, CLOSED, READER_ERROR, IO_ERROR}
+
+    // 64K regions of the 32-bit address space, 1024 words each
+    private static final int REGION_SHIFT = 16;
+    private static final int REGION_COUNT = 1 << (32 - REGION_SHIFT);
+    private static final int REGION_WORDS = 1 << (REGION_SHIFT - 6);
+
+    private final HexRecordReader recordReader;
+    private Status status = Status.ALIVE;
+
+    private final RecordBlock block = new RecordBlock(255);
+    private final RecordDecoder decoder = new RecordDecoder();
+    private final RecordDecoder.DataSink sink = (position, data, offset, length) -> mark(position, length);
+
+    private final long[][] regions = new long[REGION_COUNT][];
+    // the regions touched by the current file, as a list and as a bitmap
+    private int[] touched = new int[16];
+    private int touchedCount = 0;
+    private final long[] touchedBits = new long[REGION_COUNT >>> 6];
+    private long[] ranges = new long[16];
+    private int records = 0;
+    private long bytes = 0;
+
+    /**
+     * A summary of the address ranges covered by a file.
+     * <p>
+     * The ranges are disjoint, sorted by address and maximal, i.e. adjacent ranges are merged even if their data comes
+     * from different records.
+     */
+    public static final class Coverage {
+
+        private final long[] ranges;
+        private final int records;
+        private final long bytes;
+
+        private Coverage(long[] ranges, int records, long bytes) {
+            this.ranges = ranges;
+            this.records = records;
+            this.bytes = bytes;
+        }
+
+        /**
+         * Returns the number of disjoint address ranges.
+         *
+         * @return the number of ranges
+         */
+        public int getRangeCount() {
+            return ranges.length / 2;
+        }
+
+        /**
+         * Returns the first address of a range.
+         *
+         * @param range the index of the range. Range: 0 - ({@link #getRangeCount()} - 1).
+         * @return the first address (inclusive)
+         */
+        public long getRangeStart(int range) {
+            Objects.checkIndex(range, getRangeCount());
+            return ranges[2 * range];
+        }
+
+        /**
+         * Returns the end of a range.
+         *
+         * @param range the index of the range. Range: 0 - ({@link #getRangeCount()} - 1).
+         * @return the address behind the last byte of the range (exclusive)
+         */
+        public long getRangeEnd(int range) {
+            Objects.checkIndex(range, getRangeCount());
+            return ranges[2 * range + 1];
+        }
+
+        /**
+         * Returns the number of records in the file, including the "EOF" record.
+         *
+         * @return the number of records
+         */
+        public int getRecordCount() {
+            return records;
+        }
+
+        /**
+         * Returns the number of data bytes in the file, i.e. the total length of all ranges.
+         *
+         * @return the number of bytes
+         */
+        public long getByteCount() {
+            return bytes;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder("Coverage(records=").append(records)
+                    .append(", bytes=").append(bytes).append(", ranges=[");
+            for (int i = 0; i < ranges.length; i += 2) {
+                builder.append(i == 0 ? "" : ", ").append(ranges[i]).append('-').append(ranges[i + 1]);
+            }
+            return builder.append("])").toString();
+        }
+    }
+
+    /**
+     * Creates a new scanner instance
+     *
+     * @param reader the record reader to read from. may not be null.
+     */
+    public HexFileScanner(@NotNull HexRecordReader reader) {
+        this.recordReader = Objects.requireNonNull(reader, "reader may not be null");
+    }
+
+    /**
+     * Creates a new scanner instance
+     *
+     * @param stream the input stream to read from. may not be null.
+     * @implNote A {@link HexRecordReader} with read-ahead is constructed internally. The stream may therefore be
+     * consumed past the end of the last file scanned.
+     */
+    public HexFileScanner(@NotNull InputStream stream) {
+        this.recordReader = new HexRecordReader(Objects.requireNonNull(stream, "stream may not be null"),
+                HexRecordReader.DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a new scanner instance reading a file.
+     *
+     * @param path the file to read. may not be null.
+     * @return a new scanner instance
+     * @throws IOException if the file cannot be opened.
+     * @implNote The file is mapped into memory and parsed directly from the mapped buffer.
+     * See {@link HexRecordReader#open(Path)}.
+     */
+    public static @NotNull HexFileScanner open(@NotNull Path path) throws IOException {
+        return new HexFileScanner(HexRecordReader.open(path));
+    }
+
+    /**
+     * Scans the next full HexFile from the underlying reader / stream.
+     * <p>
+     * The same errors as for {@link HexFileReader#read()} are reported. If any error occurs, any further scans will
+     * also fail.
+     *
+     * @return the coverage of the next file or null, if the end of the stream has been reached.
+     * @throws IOException             if any I/O exception occurs in the underlying stream, or if this scanner has already been closed.
+     * @throws HexFileParsingException if any parsing error occurs
+     * @throws IllegalStateException   if any data of the file is overlapping.
+     */
+    public @Nullable Coverage scan() throws IOException {
+        if (status == Status.COMPLETED) {
+            return null;
+        }
+        if (status == Status.CLOSED) {
+            throw new IOException("scanner already closed");
+        }
+        if (status == Status.IO_ERROR) {
+            throw new IOException("scanner invalid due to previous IOException");
+        }
+        if (status == Status.READER_ERROR) {
+            throw new HexFileParsingException("scanner invalid due to previous exception");
+        }
+        try {
+            Coverage result = doScan();
+            if (result == null) {
+                status = Status.COMPLETED;
+            }
+            return result;
+        } catch (IOException e) {
+            status = Status.IO_ERROR;
+            throw e;
+        } catch (HexFileParsingException | IllegalStateException e) {
+            status = Status.READER_ERROR;
+            throw e;
+        } catch (HexRecordParsingException e) {
+            status = Status.READER_ERROR;
+            throw new HexFileParsingException(e.getMessage(), e);
+        } finally {
+            resetFile();
+        }
+    }
+
+    private Coverage doScan() throws IOException {
+        while (true) {
+            block.clear();
+            if (!recordReader.readNextInto(block)) {
+                if (records == 0) {
+                    // end of stream before file starts, simply close.
+                    return null;
+                }
+                // end of stream before file end -> ERROR
+                throw new HexFileParsingException("unexpected end of stream");
+            }
+            records++;
+            if (decoder.decode(block.type(0), block.address(0), block.data(), 0, block.length(0), sink)) {
+                return summarize();
+            }
+        }
+    }
+
+    /**
+     * Marks a range as covered, failing if any byte of it is covered already.
+     */
+    private void mark(long position, int length) {
+        long address = position;
+        long end = position + length;
+        while (address < end) {
+            int region = (int) (address >>> REGION_SHIFT);
+            long[] words = touch(region);
+            long regionEnd = Math.min(end, (long) (region + 1) << REGION_SHIFT);
+            while (address < regionEnd) {
+                int bit = (int) address & ((1 << REGION_SHIFT) - 1);
+                int count = (int) Math.min(64 - (bit & 63), regionEnd - address);
+                long mask = (-1L >>> (64 - count)) << bit;
+                long word = words[bit >>> 6];
+                if ((word & mask) != 0) {
+                    long collision = address - (bit & 63) + Long.numberOfTrailingZeros(word & mask);
+                    throw new IllegalStateException("value already present at address " + collision);
+                }
+                words[bit >>> 6] = word | mask;
+                address += count;
+            }
+        }
+        bytes += length;
+    }
+
+    /**
+     * @return the bitmap of a region, allocated on first use and registered as touched by the current file.
+     */
+    private long[] touch(int region) {
+        if ((touchedBits[region >>> 6] & (1L << region)) == 0) {
+            touchedBits[region >>> 6] |= 1L << region;
+            if (touchedCount == touched.length) {
+                touched = Arrays.copyOf(touched, touchedCount * 2);
+            }
+            touched[touchedCount++] = region;
+            if (regions[region] == null) {
+                regions[region] = new long[REGION_WORDS];
+            }
+        }
+        return regions[region];
+    }
+
+    /**
+     * Collects the covered ranges from the bitmap of all touched regions in address order.
+     */
+    private Coverage summarize() {
+        Arrays.sort(touched, 0, touchedCount);
+        int count = 0;
+        for (int i = 0; i < touchedCount; i++) {
+            int region = touched[i];
+            long[] words = regions[region];
+            long base = (long) region << REGION_SHIFT;
+            for (int word = 0; word < REGION_WORDS; word++) {
+                long bits = words[word];
+                int bit = 0;
+                while (bit < 64) {
+                    long remaining = bits >>> bit;
+                    if (remaining == 0) {
+                        break;
+                    }
+                    int start = bit + Long.numberOfTrailingZeros(remaining);
+                    int stop = start + Long.numberOfTrailingZeros(~(bits >>> start));
+                    if (start == 0 && stop > 0 && count > 0 && ranges[count - 1] == base + (word << 6)) {
+                        // continues the previous range
+                        ranges[count - 1] = base + (word << 6) + stop;
+                    } else {
+                        if (count == ranges.length) {
+                            ranges = Arrays.copyOf(ranges, count * 2);
+                        }
+                        ranges[count++] = base + (word << 6) + start;
+                        ranges[count++] = base + (word << 6) + stop;
+                    }
+                    bit = stop;
+                }
+            }
+        }
+        return new Coverage(Arrays.copyOf(ranges, count), records, bytes);
+    }
+
+    /**
+     * Clears the bitmap of all regions touched by the current file.
+     */
+    private void resetFile() {
+        for (int i = 0; i < touchedCount; i++) {
+            int region = touched[i];
+            Arrays.fill(regions[region], 0);
+            touchedBits[region >>> 6] &= ~(1L << region);
+        }
+        touchedCount = 0;
+        records = 0;
+        bytes = 0;
+    }
+
+    /**
+     * Closes the underlying stream.
+     *
+     * @throws IOException if any I/O exception occurs in the underlying stream.
+     */
+    @Override
+    public void close() throws IOException {
+        if (status != Status.CLOSED) {
+            status = Status.CLOSED;
+            recordReader.close();
+        }
+    }
+
+}
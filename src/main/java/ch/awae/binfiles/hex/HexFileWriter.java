@@ -3,24 +3,40 @@ package ch.awae.binfiles.hex;
 import ch.awae.binfiles.BinaryFile;
 import ch.awae.binfiles.DataFragment;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * Writer for writing {@link BinaryFile} instances to an {@link OutputStream}.
  * <p>
  * The reader follows the <a href="https://archive.org/details/IntelHEXStandard">Intel Hexadecimal Object File Format Specification</a>.
+ * Data above the first 64 KiB is addressed with extended linear address records (type 4). These are only written where
+ * the upper 16 bits of the address change, so files fitting into 64 KiB do not contain any.
  *
  * @author Andreas Wälchli
  * @since 0.1.0
  */
 public class HexFileWriter implements Closeable {
 
+    // bounds for the size of the regions encoded by a single task in parallel mode. regions are always aligned to 64K
+    private static final long MIN_REGION_SIZE = 0x10000;
+    private static final long MAX_REGION_SIZE = 1 << 24;
+
     private final HexRecordWriter writer;
+    // the upper 16 bits of the address, as set by the last extended linear address record
+    private long upperAddress = 0;
+    private @Nullable HexListener listener;
 
     /**
      * Creates a new writer instance.
@@ -28,10 +44,12 @@ public class HexFileWriter implements Closeable {
      * Individual records will be terminated with a line break ('\n').
      *
      * @param stream The output stream to write to. May not be null.
-     * @implNote A {@link HexRecordWriter} is constructed internally.
+     * @implNote A buffering {@link HexRecordWriter} is constructed internally. Its buffer is written to the stream
+     * after every file.
      */
     public HexFileWriter(@NotNull OutputStream stream) {
-        this.writer = new HexRecordWriter(Objects.requireNonNull(stream, "stream must not be null"));
+        this.writer = new HexRecordWriter(Objects.requireNonNull(stream, "stream must not be null"),
+                new byte[]{'\n'}, HexRecordWriter.DEFAULT_BUFFER_SIZE);
     }
 
     /**
@@ -43,6 +61,17 @@ public class HexFileWriter implements Closeable {
         this.writer = Objects.requireNonNull(writer, "writer must not be null");
     }
 
+    /**
+     * Sets the listener receiving instrumentation events from this writer.
+     *
+     * @param listener the listener or null to disable instrumentation. The listener is also set on the underlying
+     *                 {@link HexRecordWriter}.
+     */
+    public void setListener(@Nullable HexListener listener) {
+        this.listener = listener;
+        writer.setListener(listener);
+    }
+
     /**
      * Writes a {@link BinaryFile} with a maximum record length of 16.
      *
@@ -70,17 +99,119 @@ public class HexFileWriter implements Closeable {
         if (recordLength < 1 || recordLength > 255) {
             throw new IllegalArgumentException("record length must be between 1 and 255");
         }
-        // write records
+        long startTime = listener == null ? 0 : System.nanoTime();
+        // write records. every file starts with an upper address of 0
+        upperAddress = 0;
         Iterator<DataFragment> iterator = file.iterator(recordLength);
         while (iterator.hasNext()) {
             writeFragment(iterator.next());
         }
-        // write "EOF" record
-        writer.write(new HexRecord(1, 0, new byte[0]));
+        writeEndOfFile();
+        if (listener != null) {
+            listener.fileWritten(System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * Writes a {@link BinaryFile} with a customizable recordLength, encoding the records on multiple threads.
+     * <p>
+     * The address space is split into regions, which are encoded into separate buffers on the given pool. The
+     * buffers are written in address order, followed by the "EOF" record. The output is identical to the output of
+     * {@link #write(BinaryFile, int)}.
+     * <p>
+     * The file must not be modified while it is being written.
+     *
+     * @param file         the file to write
+     * @param recordLength the maximum length of a single data record. Range: 1-255.
+     * @param pool         the pool to encode the regions on. may not be null.
+     * @throws IOException if an I/O exception occurs in the underlying stream.
+     * @implNote At most two regions per thread of the pool are encoded ahead of the region currently being written,
+     * limiting the amount of buffered output.
+     */
+    public void write(@NotNull BinaryFile file, int recordLength, @NotNull ForkJoinPool pool) throws IOException {
+        if (recordLength < 1 || recordLength > 255) {
+            throw new IllegalArgumentException("record length must be between 1 and 255");
+        }
+        Objects.requireNonNull(pool, "pool must not be null");
+        long startTime = listener == null ? 0 : System.nanoTime();
+
+        long size = file.getCurrentSize();
+        int window = 2 * pool.getParallelism();
+        // aim for a few regions per thread, aligned to 64K
+        long regionSize = (size / (2L * window) + 0xffff) & ~0xffffL;
+        regionSize = Math.min(Math.max(regionSize, MIN_REGION_SIZE), MAX_REGION_SIZE);
+
+        Deque<ForkJoinTask<ByteArrayOutputStream>> tasks = new ArrayDeque<>();
+        try {
+            long next = 0;
+            while (next < size || !tasks.isEmpty()) {
+                while (next < size && tasks.size() < window) {
+                    long start = next;
+                    long end = Math.min(start + regionSize, size);
+                    tasks.add(pool.submit(() -> encodeRegion(file, recordLength, start, end)));
+                    next = end;
+                }
+                writer.writeEncoded(tasks.remove().join());
+            }
+        } finally {
+            // only non-empty after an exception
+            tasks.forEach(task -> task.cancel(false));
+        }
+        writeEndOfFile();
+        if (listener != null) {
+            listener.fileWritten(System.nanoTime() - startTime);
+        }
     }
 
-    private void writeFragment(DataFragment fragment) throws IOException {
-        writer.write(new HexRecord(0, fragment.getPosition(), fragment.getData()));
+    /**
+     * Encodes the data records of the range [start, end) of a file into a separate buffer.
+     * <p>
+     * As all regions are aligned to 64K, the record preceding a region never has the same upper address as the first
+     * record of the region. An extended linear address record is therefore required at the start of every region,
+     * except for the first one, which starts with the initial upper address of 0.
+     */
+    private ByteArrayOutputStream encodeRegion(BinaryFile file, int recordLength, long start, long end) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        HexFileWriter regionWriter = new HexFileWriter(writer.withStream(buffer));
+        regionWriter.upperAddress = start == 0 ? 0 : -1;
+        Iterator<DataFragment> iterator = file.iterator(recordLength, start, end - start);
+        while (iterator.hasNext()) {
+            regionWriter.writeFragment(iterator.next());
+        }
+        regionWriter.writer.flushBuffer();
+        return buffer;
+    }
+
+    /**
+     * Writes the data records for a single fragment, preceded by an extended linear address record if necessary.
+     * Fragments longer than 255 bytes are split into multiple records.
+     */
+    void writeFragment(@NotNull DataFragment fragment) throws IOException {
+        long position = fragment.getPosition();
+        ByteBuffer data = fragment.getDataBuffer();
+        // a record may not cross a 64K boundary, split the fragment if necessary
+        int offset = 0;
+        while (offset < data.limit()) {
+            long address = position + offset;
+            int length = (int) Math.min(Math.min(data.limit() - offset, 255), 0x10000 - (address & 0xffff));
+            long upper = address >>> 16;
+            if (upper != upperAddress) {
+                writer.write(new HexRecord(4, 0, new byte[]{(byte) (upper >>> 8), (byte) upper}, false));
+                upperAddress = upper;
+            }
+            writer.write(0, (int) (address & 0xffff), data, offset, length);
+            offset += length;
+        }
+    }
+
+    /**
+     * Writes the "EOF" record and drains the buffer of the record writer. The next file starts with an upper address
+     * of 0 again.
+     */
+    void writeEndOfFile() throws IOException {
+        writer.write(new HexRecord(1, 0, new byte[0], false));
+        writer.flushBuffer();
+        upperAddress = 0;
     }
 
     /**
@@ -0,0 +1,69 @@
+package ch.awae.binfiles.hex;
+
+/**
+ * Listener receiving instrumentation events from hex readers and writers.
+ * <p>
+ * A listener can be set on a {@link HexRecordReader}, {@link HexFileReader}, {@link HexRecordWriter} or
+ * {@link HexFileWriter}. Readers and writers without a listener do not collect any measurements at all. All methods
+ * have an empty default implementation, so implementations only need to override the events they are interested in.
+ * <p>
+ * Events are reported on the thread performing the operation. A listener shared by multiple readers or writers, or
+ * set on a writer encoding on multiple threads (see {@link HexFileWriter#write(ch.awae.binfiles.BinaryFile, int,
+ * java.util.concurrent.ForkJoinPool)}), must therefore be thread-safe. Listeners should return quickly, as they are
+ * called on the hot path.
+ *
+ * @author Andreas Wälchli
+ * @see HexMetrics
+ * @since 0.1.0
+ */
+public interface HexListener {
+
+    /**
+     * Called after a record has been read successfully.
+     *
+     * @param type   the type of the record
+     * @param length the length of the data block of the record
+     */
+    default void recordRead(int type, int length) {
+    }
+
+    /**
+     * Called when a record with an invalid checksum has been read.
+     */
+    default void checksumFailure() {
+    }
+
+    /**
+     * Called when a file contains a record of an unsupported type.
+     *
+     * @param type the type of the record
+     */
+    default void unsupportedRecordType(int type) {
+    }
+
+    /**
+     * Called after a file has been read successfully.
+     *
+     * @param nanos the time spent reading and parsing the file, in nanoseconds
+     */
+    default void fileRead(long nanos) {
+    }
+
+    /**
+     * Called after a record has been written.
+     *
+     * @param type   the type of the record
+     * @param length the length of the data block of the record
+     */
+    default void recordWritten(int type, int length) {
+    }
+
+    /**
+     * Called after a file has been written.
+     *
+     * @param nanos the time spent encoding and writing the file, in nanoseconds
+     */
+    default void fileWritten(long nanos) {
+    }
+
+}
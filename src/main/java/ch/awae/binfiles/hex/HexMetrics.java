@@ -0,0 +1,106 @@
+package ch.awae.binfiles.hex;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link HexListener} accumulating all events into counters.
+ * <p>
+ * The counters can be read at any time as a consistent-enough {@link Snapshot}, e.g. for exporting them to a
+ * monitoring system. Instances are thread-safe and can be shared by any number of readers and writers.
+ *
+ * @author Andreas Wälchli
+ * @since 0.1.0
+ */
+public class HexMetrics implements HexListener {
+
+    /**
+     * An immutable snapshot of the counters of a {@link HexMetrics} instance.
+     *
+     * @param recordsRead       the number of records read
+     * @param bytesRead         the number of data bytes in all records read
+     * @param filesRead         the number of files read
+     * @param parseNanos        the total time spent reading files, in nanoseconds
+     * @param checksumFailures  the number of records with an invalid checksum
+     * @param unsupportedTypes  the number of records of an unsupported type
+     * @param recordsWritten    the number of records written
+     * @param bytesWritten      the number of data bytes in all records written
+     * @param filesWritten      the number of files written
+     * @param encodeNanos       the total time spent writing files, in nanoseconds
+     */
+    public record Snapshot(long recordsRead, long bytesRead, long filesRead, long parseNanos, long checksumFailures,
+                           long unsupportedTypes, long recordsWritten, long bytesWritten, long filesWritten,
+                           long encodeNanos) {
+    }
+
+    private final LongAdder recordsRead = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder filesRead = new LongAdder();
+    private final LongAdder parseNanos = new LongAdder();
+    private final LongAdder checksumFailures = new LongAdder();
+    private final LongAdder unsupportedTypes = new LongAdder();
+    private final LongAdder recordsWritten = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder filesWritten = new LongAdder();
+    private final LongAdder encodeNanos = new LongAdder();
+
+    @Override
+    public void recordRead(int type, int length) {
+        recordsRead.increment();
+        bytesRead.add(length);
+    }
+
+    @Override
+    public void checksumFailure() {
+        checksumFailures.increment();
+    }
+
+    @Override
+    public void unsupportedRecordType(int type) {
+        unsupportedTypes.increment();
+    }
+
+    @Override
+    public void fileRead(long nanos) {
+        filesRead.increment();
+        parseNanos.add(nanos);
+    }
+
+    @Override
+    public void recordWritten(int type, int length) {
+        recordsWritten.increment();
+        bytesWritten.add(length);
+    }
+
+    @Override
+    public void fileWritten(long nanos) {
+        filesWritten.increment();
+        encodeNanos.add(nanos);
+    }
+
+    /**
+     * Returns the current values of all counters.
+     * <p>
+     * The counters are read one by one, so events occurring concurrently may be included in some counters of the
+     * snapshot, but not in others.
+     *
+     * @return a new snapshot
+     */
+    public @NotNull Snapshot snapshot() {
+        return new Snapshot(recordsRead.sum(), bytesRead.sum(), filesRead.sum(), parseNanos.sum(),
+                checksumFailures.sum(), unsupportedTypes.sum(), recordsWritten.sum(), bytesWritten.sum(),
+                filesWritten.sum(), encodeNanos.sum());
+    }
+
+    /**
+     * Resets all counters to zero.
+     */
+    public void reset() {
+        for (LongAdder adder : new LongAdder[]{recordsRead, bytesRead, filesRead, parseNanos, checksumFailures,
+                unsupportedTypes, recordsWritten, bytesWritten, filesWritten, encodeNanos}) {
+            adder.reset();
+        }
+    }
+
+}
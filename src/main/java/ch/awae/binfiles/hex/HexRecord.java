@@ -1,8 +1,10 @@
 package ch.awae.binfiles.hex;
 
+import ch.awae.binfiles.internal.HexDigits;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Objects;
 
@@ -11,15 +13,18 @@ import java.util.Objects;
  * <p>
  * This class holds raw records without any knowledge of their internal structure or semantics.
  * The individual records are expected to be processed by higher level logic.
+ * <p>
+ * Instances are immutable. Two records are equal if their type, address and data are equal.
  *
- * @param type    the 1-byte type field of the record
- * @param address the 2-byte address field of the record
- * @param data    the 0-255 data bytes of the record
  * @author Andreas Wälchli
  * @see <a href="https://archive.org/details/IntelHEXStandard">Intel Hexadecimal Object File Format Specification</a>
  * @since 0.1.0
  */
-public record HexRecord(int type, int address, byte[] data) {
+public final class HexRecord {
+
+    private final int type;
+    private final int address;
+    private final byte @NotNull [] data;
 
     /**
      * Creates a new HexRecord.
@@ -30,6 +35,16 @@ public record HexRecord(int type, int address, byte[] data) {
      * @implNote The provided data array is copied to ensure immutability of the newly created instance.
      */
     public HexRecord(int type, int address, byte @NotNull [] data) {
+        this(type, address, data, true);
+    }
+
+    /**
+     * Creates a new HexRecord, optionally taking ownership of the data array.
+     *
+     * @param copy if false, the record takes ownership of the data array instead of copying it.
+     *             The caller must not modify the array afterward.
+     */
+    HexRecord(int type, int address, byte @NotNull [] data, boolean copy) {
         if (type < 0 || type > 255) {
             throw new IllegalArgumentException("invalid value for type field, must be between 0 and 255");
         }
@@ -43,7 +58,25 @@ public record HexRecord(int type, int address, byte[] data) {
 
         this.type = type;
         this.address = address;
-        this.data = Arrays.copyOf(data, data.length);
+        this.data = copy ? Arrays.copyOf(data, data.length) : data;
+    }
+
+    /**
+     * Returns the 1-byte type field of the record.
+     *
+     * @return the type field
+     */
+    public int type() {
+        return type;
+    }
+
+    /**
+     * Returns the 2-byte address field of the record.
+     *
+     * @return the address field
+     */
+    public int address() {
+        return address;
     }
 
     /**
@@ -51,14 +84,43 @@ public record HexRecord(int type, int address, byte[] data) {
      *
      * @return a <b>copy</b> of the data block.
      * @implNote A new copy is provided to ensure immutability of this instance.
-     * It is therefore not recommended to call this method too frequently.
+     * It is therefore not recommended to call this method too frequently. Use {@link #dataBuffer()} to access the data
+     * without copying it.
      */
     @Contract(value = " -> new", pure = true)
-    @Override
     public byte @NotNull [] data() {
         return Arrays.copyOf(data, data.length);
     }
 
+    /**
+     * Returns a read-only view of the data block of this record.
+     * <p>
+     * The data is not copied. Every invocation returns a new view, positioned at the start of the data block.
+     *
+     * @return a read-only buffer containing the data block
+     */
+    @Contract(value = " -> new", pure = true)
+    public @NotNull ByteBuffer dataBuffer() {
+        return ByteBuffer.wrap(data).asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns the length of the data block of this record.
+     *
+     * @return the length
+     */
+    public int length() {
+        return data.length;
+    }
+
+    /**
+     * Returns the data block of this record without copying it.
+     * The returned array must not be modified.
+     */
+    byte @NotNull [] internalData() {
+        return data;
+    }
+
     /**
      * Calculates the checksum for this record.
      *
@@ -67,10 +129,29 @@ public record HexRecord(int type, int address, byte[] data) {
     @Contract(pure = true)
     public int calculateChecksum() {
         int sum = data.length + (address & 0xff) + ((address >>> 8) & 0xff) + type;
-        for (byte x : data) {
-            sum += ((int) x) & 0xff;
-        }
+        sum += HexDigits.decoder().sum(data, 0, data.length);
         return (0x100 - (sum & 0xff)) & 0xff;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof HexRecord other)) {
+            return false;
+        }
+        return type == other.type && address == other.address && Arrays.equals(data, other.data);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * type + address) + Arrays.hashCode(data);
+    }
+
+    @Override
+    public String toString() {
+        return "HexRecord(type=%d, address=%d, length=%d)".formatted(type, address, data.length);
+    }
+
 }
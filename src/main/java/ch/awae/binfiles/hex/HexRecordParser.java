@@ -0,0 +1,245 @@
+package ch.awae.binfiles.hex;
+
+import ch.awae.binfiles.internal.HexDigits;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * Push-based parser for hex records arriving in arbitrary chunks, e.g. network packets or serial port reads.
+ * <p>
+ * In contrast to the {@link HexRecordReader}, the parser does not pull its input. The input is pushed with
+ * {@link #feed(ByteBuffer)} instead, and every record is passed to the sink as soon as its last character has been
+ * fed. Records may be split across any number of chunks, the partial record is carried over to the next call.
+ * Any characters between records are ignored, and records are parsed and verified exactly like by the
+ * {@link HexRecordReader}.
+ * <p>
+ * If any parsing error occurs, any further calls will also cause a {@link HexRecordParsingException} to be thrown.
+ *
+ * @author Andreas Wälchli
+ * @since 0.1.0
+ */
+public class HexRecordParser {
+
+    /**
+     * Receiver of the records parsed by a {@link HexRecordParser}.
+     */
+    @FunctionalInterface
+    public interface RecordSink {
+        /**
+         * Accepts the next record.
+         *
+         * @param record the record. never null.
+         * @throws IOException if any I/O exception occurs while processing the record.
+         */
+        void accept(@NotNull HexRecord record) throws IOException;
+    }
+
+    private enum State {VALID, FINISHED, PARSING_ERROR}
+
+    /**
+     * Record sink of the parsers created by {@link #forFragments(FragmentSink)}.
+     */
+    private static final class FragmentRecordSink implements RecordSink {
+        private final RecordDecoder decoder = new RecordDecoder();
+        private final FragmentSink sink;
+        // true if a data record has been decoded since the last "EOF" record
+        private boolean dataPending = false;
+
+        FragmentRecordSink(FragmentSink sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void accept(@NotNull HexRecord record) throws IOException {
+            if (record.type() == 0) {
+                dataPending = true;
+            }
+            if (decoder.decode(record, sink)) {
+                dataPending = false;
+            }
+        }
+    }
+
+    /**
+     * The maximum length of a single record in characters, excluding the record mark.
+     */
+    private static final int MAX_RECORD_LENGTH = 2 + 2 * 255 + 8;
+
+    private final RecordSink sink;
+    private State state = State.VALID;
+
+    // the characters of the current record, excluding the record mark
+    private final byte[] chars = new byte[MAX_RECORD_LENGTH];
+    private boolean inRecord = false;
+    private int count = 0;
+    // the number of characters of the current record known so far: 2 until the length field has been parsed
+    private int expected = 2;
+
+    /**
+     * Creates a new parser instance.
+     *
+     * @param sink the sink receiving the parsed records. may not be null.
+     */
+    public HexRecordParser(@NotNull RecordSink sink) {
+        this.sink = Objects.requireNonNull(sink, "sink may not be null");
+    }
+
+    /**
+     * Creates a new parser instance passing the data of all data records as fragments to a sink.
+     * <p>
+     * The extended segment and linear address records are resolved just like by a {@link HexFileReader}, so the
+     * fragments have absolute positions. Every "EOF" record resets the base address to 0 for the next file.
+     *
+     * @param sink the sink receiving the fragments. may not be null.
+     * @return a new parser instance
+     * @implNote Any records other than data records are not passed on. A {@link HexFileParsingException} is thrown if
+     * a record is invalid or of an unsupported type, or by {@link #finish()} if the input ends after a data record
+     * without a subsequent "EOF" record.
+     */
+    public static @NotNull HexRecordParser forFragments(@NotNull FragmentSink sink) {
+        Objects.requireNonNull(sink, "sink may not be null");
+        return new HexRecordParser(new FragmentRecordSink(sink));
+    }
+
+    /**
+     * Parses a chunk of input.
+     * <p>
+     * The entire remaining content of the chunk is consumed, i.e. the position of the chunk is moved to its limit.
+     * All records completed by the chunk are passed to the sink before this method returns.
+     *
+     * @param chunk the chunk to parse. may not be null.
+     * @throws IOException               if the sink throws an {@link IOException}, or if {@link #finish()} has already
+     *                                   been called.
+     * @throws HexRecordParsingException if any parsing error occurs
+     */
+    public void feed(@NotNull ByteBuffer chunk) throws IOException {
+        Objects.requireNonNull(chunk, "chunk may not be null");
+        checkState();
+        try {
+            while (chunk.hasRemaining()) {
+                if (!inRecord && !seekRecord(chunk)) {
+                    return;
+                }
+                int length = Math.min(expected - count, chunk.remaining());
+                chunk.get(chars, count, length);
+                count += length;
+                if (count < expected) {
+                    return;
+                }
+                if (expected == 2) {
+                    // the length field is complete, now the size of the entire record is known
+                    expected = 2 + 2 * nextByte(0) + 8;
+                } else {
+                    inRecord = false;
+                    sink.accept(decodeRecord());
+                }
+            }
+        } catch (HexRecordParsingException | HexFileParsingException e) {
+            state = State.PARSING_ERROR;
+            throw e;
+        }
+    }
+
+    /**
+     * Signals the end of the input.
+     *
+     * @throws IOException               if {@link #finish()} has already been called.
+     * @throws HexRecordParsingException if the input ends in the middle of a record
+     * @throws HexFileParsingException   if this parser has been created by {@link #forFragments(FragmentSink)} and
+     *                                   the input ends after a data record without a subsequent "EOF" record
+     */
+    public void finish() throws IOException {
+        checkState();
+        if (inRecord) {
+            state = State.PARSING_ERROR;
+            throw new HexRecordParsingException("unexpected end of stream");
+        }
+        if (sink instanceof FragmentRecordSink fragments && fragments.dataPending) {
+            // end of stream before file end -> ERROR
+            state = State.PARSING_ERROR;
+            throw new HexFileParsingException("unexpected end of stream");
+        }
+        state = State.FINISHED;
+    }
+
+    /**
+     * Returns true if the parser holds a partial record, i.e. if the input fed so far ends in the middle of a record.
+     *
+     * @return true if there is a partial record
+     */
+    public boolean hasPartialRecord() {
+        return inRecord;
+    }
+
+    private void checkState() throws IOException {
+        if (state == State.FINISHED) {
+            throw new IOException("parser already finished");
+        }
+        if (state == State.PARSING_ERROR) {
+            throw new HexRecordParsingException("parser invalid due to previous exception");
+        }
+    }
+
+    /**
+     * Skips all characters up to and including the next record mark.
+     *
+     * @return true if a record mark has been found, false if the chunk has been consumed.
+     */
+    private boolean seekRecord(ByteBuffer chunk) {
+        int position = chunk.position();
+        int limit = chunk.limit();
+        while (position < limit && chunk.get(position) != ':') {
+            position++;
+        }
+        if (position == limit) {
+            chunk.position(limit);
+            return false;
+        }
+        chunk.position(position + 1);
+        inRecord = true;
+        count = 0;
+        expected = 2;
+        return true;
+    }
+
+    /**
+     * Decodes the complete record, verifying the checksum.
+     */
+    private HexRecord decodeRecord() {
+        int length = (expected - 10) / 2;
+        int addressHigh = nextByte(2);
+        int addressLow = nextByte(4);
+        int type = nextByte(6);
+        int sum = length + addressHigh + addressLow + type;
+
+        byte[] data = new byte[length];
+        int dataSum = HexDigits.decoder().decode(chars, 8, data, 0, length);
+        if (dataSum < 0) {
+            // the data block contains invalid digits, locate them for the error message
+            for (int i = 0; i < length; i++) {
+                nextByte(8 + 2 * i);
+            }
+        }
+        sum += dataSum + nextByte(8 + 2 * length);
+        if ((sum & 0xff) != 0) {
+            throw new HexRecordParsingException("bad checksum in block");
+        }
+        return new HexRecord(type, (addressHigh << 8) | addressLow, data, false);
+    }
+
+    /**
+     * decodes two characters of the current record into a byte value.
+     */
+    private int nextByte(int offset) {
+        int value = HexDigits.decode(chars[offset], chars[offset + 1]);
+        if (value < 0) {
+            throw new HexRecordParsingException("parsing error: invalid hex digits '"
+                    + (char) (chars[offset] & 0xff) + (char) (chars[offset + 1] & 0xff) + "'");
+        }
+        return value;
+    }
+
+}
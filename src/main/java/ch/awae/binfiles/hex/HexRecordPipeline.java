@@ -0,0 +1,108 @@
+package ch.awae.binfiles.hex;
+
+import ch.awae.binfiles.BinaryFile;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Streaming transformation of hex records from a {@link HexRecordReader} to a {@link HexRecordWriter}.
+ * <p>
+ * The records are decoded into fragments with absolute positions (resolving extended segment and linear address
+ * records), passed through a chain of {@link HexRecordStage}s and then written again, using extended linear address
+ * records where necessary. In contrast to reading the input with a {@link HexFileReader}, no {@link BinaryFile} is
+ * ever created. The memory used is therefore independent of the size of the input.
+ * <p>
+ * The input may contain multiple files. The stages are notified at the end of each file, and every file is
+ * terminated with an "EOF" record in the output. Start address records (types 3 and 5) are dropped.
+ * <p>
+ * As the data is never collected, overlapping data records are not detected. The separator between the records
+ * is defined by the provided {@link HexRecordWriter}.
+ *
+ * @author Andreas Wälchli
+ * @since 0.1.0
+ */
+public class HexRecordPipeline {
+
+    private final List<HexRecordStage> stages;
+
+    /**
+     * Creates a new pipeline.
+     *
+     * @param stages the stages to pass the data through, in order. may not be null or contain null elements.
+     */
+    public HexRecordPipeline(@NotNull HexRecordStage @NotNull ... stages) {
+        this(List.of(stages));
+    }
+
+    /**
+     * Creates a new pipeline.
+     *
+     * @param stages the stages to pass the data through, in order. may not be null or contain null elements.
+     */
+    public HexRecordPipeline(@NotNull List<? extends @NotNull HexRecordStage> stages) {
+        this.stages = List.copyOf(Objects.requireNonNull(stages, "stages may not be null"));
+    }
+
+    /**
+     * Transfers all records from the reader to the writer.
+     * <p>
+     * If any parsing error occurs, a {@link HexFileParsingException} is thrown. Parsing errors can be:
+     * <ul>
+     *     <li>The reader throws a {@link HexRecordParsingException}</li>
+     *     <li>An unsupported record type is encountered</li>
+     *     <li>The end of the stream is reached unexpectedly</li>
+     * </ul>
+     * Neither the reader nor the writer are closed. The writer is flushed after the last file.
+     *
+     * @param reader the reader to read from. may not be null.
+     * @param writer the writer to write to. may not be null.
+     * @return the number of files transferred
+     * @throws IOException             if any I/O exception occurs in the reader or the writer.
+     * @throws HexFileParsingException if any parsing error occurs
+     */
+    public long run(@NotNull HexRecordReader reader, @NotNull HexRecordWriter writer) throws IOException {
+        Objects.requireNonNull(reader, "reader may not be null");
+        HexFileWriter fileWriter = new HexFileWriter(Objects.requireNonNull(writer, "writer may not be null"));
+
+        // sinks[i] feeds stage i, the last sink writes the records
+        FragmentSink[] sinks = new FragmentSink[stages.size() + 1];
+        sinks[stages.size()] = fileWriter::writeFragment;
+        for (int i = stages.size() - 1; i >= 0; i--) {
+            HexRecordStage stage = stages.get(i);
+            FragmentSink downstream = sinks[i + 1];
+            sinks[i] = fragment -> stage.process(fragment, downstream);
+        }
+
+        RecordDecoder decoder = new RecordDecoder();
+        long files = 0;
+        boolean dataPending = false;
+        try {
+            HexRecord record;
+            while ((record = reader.readNext()) != null) {
+                if (record.type() == 0) {
+                    dataPending = true;
+                }
+                if (decoder.decode(record, sinks[0])) {
+                    for (int i = 0; i < stages.size(); i++) {
+                        stages.get(i).endOfFile(sinks[i + 1]);
+                    }
+                    fileWriter.writeEndOfFile();
+                    dataPending = false;
+                    files++;
+                }
+            }
+        } catch (HexRecordParsingException e) {
+            throw new HexFileParsingException(e.getMessage(), e);
+        }
+        if (dataPending) {
+            // end of stream before file end -> ERROR
+            throw new HexFileParsingException("unexpected end of stream");
+        }
+        writer.flush();
+        return files;
+    }
+
+}
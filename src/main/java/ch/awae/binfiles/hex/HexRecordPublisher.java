@@ -0,0 +1,354 @@
+package ch.awae.binfiles.hex;
+
+import ch.awae.binfiles.BinaryFile;
+import ch.awae.binfiles.DataFragment;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publisher of the {@link HexRecord}s of a file, read asynchronously from an {@link AsynchronousFileChannel}.
+ * <p>
+ * The file is read in chunks of up to {@code bufferSize} bytes, and only while the subscriber has outstanding demand,
+ * so no thread is ever blocked waiting for I/O. Records are parsed exactly like by a {@link HexRecordReader} and
+ * delivered on the threads completing the reads (or the thread requesting more records, if records are already
+ * buffered). Parsing errors are signalled with {@link Flow.Subscriber#onError(Throwable)} as a
+ * {@link HexRecordParsingException}.
+ * <p>
+ * The publisher supports a single subscriber. Any further subscribers are rejected with an
+ * {@link IllegalStateException}.
+ *
+ * @author Andreas Wälchli
+ * @since 0.1.0
+ */
+public class HexRecordPublisher implements Flow.Publisher<HexRecord> {
+
+    /**
+     * The default size of the read buffer.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final AsynchronousFileChannel channel;
+    private final boolean ownsChannel;
+    private final int bufferSize;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    /**
+     * Creates a new publisher reading a channel from position 0.
+     * <p>
+     * The channel is not closed by the publisher.
+     *
+     * @param channel    the channel to read. may not be null.
+     * @param bufferSize the size of the read buffer. must be at least 1024.
+     * @see #DEFAULT_BUFFER_SIZE
+     */
+    public HexRecordPublisher(@NotNull AsynchronousFileChannel channel, int bufferSize) {
+        this(Objects.requireNonNull(channel, "channel may not be null"), false, bufferSize);
+    }
+
+    private HexRecordPublisher(AsynchronousFileChannel channel, boolean ownsChannel, int bufferSize) {
+        if (bufferSize < 1024) {
+            throw new IllegalArgumentException("bufferSize must be at least 1024");
+        }
+        this.channel = channel;
+        this.ownsChannel = ownsChannel;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Creates a new publisher reading a file.
+     * <p>
+     * The file is closed as soon as the subscription terminates, i.e. after all records have been published, an error
+     * has occurred or the subscription has been cancelled.
+     *
+     * @param path the file to read. may not be null.
+     * @return a new publisher instance
+     * @throws IOException if the file cannot be opened.
+     */
+    public static @NotNull HexRecordPublisher open(@NotNull Path path) throws IOException {
+        Objects.requireNonNull(path, "path may not be null");
+        return new HexRecordPublisher(AsynchronousFileChannel.open(path, StandardOpenOption.READ), true,
+                DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Reads the first hex file of a file asynchronously.
+     * <p>
+     * The result is identical to reading the first file with {@link HexFileReader#open(Path)}. The file is closed once
+     * the returned future is completed.
+     *
+     * @param path the file to read. may not be null.
+     * @return a future completed with the first hex file or null, if the file does not contain any records. The
+     * future is completed exceptionally with a {@link HexFileParsingException} if any parsing error occurs, an
+     * {@link IllegalStateException} if any data is colliding or an {@link IOException} if the file cannot be read.
+     * @throws IOException if the file cannot be opened.
+     */
+    public static @NotNull CompletableFuture<@Nullable BinaryFile> readFile(@NotNull Path path) throws IOException {
+        FileSubscriber subscriber = new FileSubscriber();
+        open(path).subscribe(subscriber);
+        return subscriber.result;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super HexRecord> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber may not be null");
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("publisher supports only a single subscriber"));
+            return;
+        }
+        RecordSubscription subscription = new RecordSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        subscription.drain();
+    }
+
+    /**
+     * Returns the length of the leading part of the buffered input that only consists of complete records and the
+     * characters between them, i.e. the part that can be parsed without any further input.
+     */
+    static int completeLength(ByteBuffer input) {
+        int complete = 0;
+        int position = input.position();
+        int limit = input.limit();
+        while (true) {
+            int start = position;
+            while (start < limit && input.get(start) != ':') {
+                start++;
+            }
+            if (start == limit) {
+                // no further record start, the characters can be skipped
+                return limit - input.position();
+            }
+            complete = start - input.position();
+            if (start + 3 > limit) {
+                return complete;
+            }
+            int high = Character.digit(input.get(start + 1), 16);
+            int low = Character.digit(input.get(start + 2), 16);
+            if (high < 0 || low < 0) {
+                // invalid length field, let the parser report it
+                return start + 3 - input.position();
+            }
+            int end = start + 3 + 2 * ((high << 4) | low) + 8;
+            if (end > limit) {
+                return complete;
+            }
+            position = end;
+        }
+    }
+
+    private final class RecordSubscription implements Flow.Subscription, CompletionHandler<Integer, Void> {
+
+        private final Flow.Subscriber<? super HexRecord> subscriber;
+        private final ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+        private final AtomicLong demand = new AtomicLong();
+        // serializes the drain loop: only the thread incrementing from 0 drains
+        private final AtomicInteger wip = new AtomicInteger();
+
+        // only accessed within the drain loop or by the single pending read. the buffer is always in write mode
+        private @Nullable HexRecordReader batch;
+        private long filePosition = 0;
+        private boolean endOfFile = false;
+        private volatile boolean reading = false;
+        private volatile @Nullable Throwable error;
+        private volatile boolean cancelled = false;
+        private boolean terminated = false;
+
+        RecordSubscription(Flow.Subscriber<? super HexRecord> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                error = new IllegalArgumentException("non-positive subscription request: " + n);
+            } else {
+                demand.accumulateAndGet(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            drain();
+        }
+
+        @Override
+        public void completed(Integer result, Void attachment) {
+            if (result < 0) {
+                endOfFile = true;
+            } else {
+                filePosition += result;
+            }
+            reading = false;
+            drain();
+        }
+
+        @Override
+        public void failed(Throwable exc, Void attachment) {
+            error = exc;
+            reading = false;
+            drain();
+        }
+
+        void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                if (!terminated) {
+                    drainLoop();
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void drainLoop() {
+            while (true) {
+                if (cancelled) {
+                    terminate();
+                    return;
+                }
+                Throwable failure = error;
+                if (failure != null && !reading) {
+                    terminate();
+                    subscriber.onError(failure);
+                    return;
+                }
+                if (batch != null) {
+                    if (demand.get() == 0) {
+                        return;
+                    }
+                    HexRecord record;
+                    try {
+                        record = batch.readNext();
+                    } catch (IOException | HexRecordParsingException e) {
+                        error = e;
+                        continue;
+                    }
+                    if (record != null) {
+                        demand.decrementAndGet();
+                        subscriber.onNext(record);
+                        continue;
+                    }
+                    batch = null;
+                }
+                if (reading) {
+                    return;
+                }
+                buffer.flip();
+                int complete = endOfFile ? buffer.remaining() : completeLength(buffer);
+                if (complete > 0) {
+                    // copy the complete records, so the buffer can be refilled while they are being published
+                    byte[] chunk = new byte[complete];
+                    buffer.get(chunk);
+                    buffer.compact();
+                    batch = HexRecordReader.wrap(ByteBuffer.wrap(chunk));
+                    continue;
+                }
+                buffer.compact();
+                if (endOfFile) {
+                    terminate();
+                    subscriber.onComplete();
+                    return;
+                }
+                if (demand.get() == 0) {
+                    return;
+                }
+                reading = true;
+                channel.read(buffer, filePosition, null, this);
+                return;
+            }
+        }
+
+        private void terminate() {
+            terminated = true;
+            batch = null;
+            if (ownsChannel) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    // nothing left to report the failure to
+                }
+            }
+        }
+    }
+
+    /**
+     * Collects the records of the first file into a {@link BinaryFile}.
+     */
+    private static final class FileSubscriber implements Flow.Subscriber<HexRecord> {
+
+        final CompletableFuture<BinaryFile> result = new CompletableFuture<>();
+        private final List<DataFragment> fragments = new ArrayList<>();
+        private final RecordDecoder decoder = new RecordDecoder();
+        private Flow.Subscription subscription;
+        private boolean started = false;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(HexRecord record) {
+            if (result.isDone()) {
+                return;
+            }
+            started = true;
+            try {
+                if (decoder.decode(record, fragments::add)) {
+                    subscription.cancel();
+                    result.complete(HexFileReader.toFile(fragments));
+                }
+            } catch (IOException | RuntimeException e) {
+                subscription.cancel();
+                result.completeExceptionally(e);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            result.completeExceptionally(throwable instanceof HexRecordParsingException
+                    ? new HexFileParsingException(throwable.getMessage(), throwable)
+                    : throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            if (started) {
+                // end of stream before file end -> ERROR
+                result.completeExceptionally(new HexFileParsingException("unexpected end of stream"));
+            } else {
+                // end of stream before file starts
+                result.complete(null);
+            }
+        }
+    }
+
+}
@@ -1,17 +1,24 @@
 package ch.awae.binfiles.hex;
 
+import ch.awae.binfiles.internal.RecordInput;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
-import java.util.HexFormat;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
- * Reader for reading {@link HexRecord}s from an {@link InputStream}.
+ * Reader for reading {@link HexRecord}s from an {@link InputStream}, a {@link ByteBuffer} or a file.
  * <p>
  * The reader follows the <a href="https://archive.org/details/IntelHEXStandard">Intel Hexadecimal Object File Format Specification</a>.
  *
@@ -22,23 +29,144 @@ public class HexRecordReader implements Closeable {
 
     enum State {VALID, COMPLETED, CLOSED, IO_ERROR, PARSING_ERROR}
 
-    private static final HexFormat HEX_FORMAT = HexFormat.of();
+    /**
+     * The default buffer size for readers with read-ahead.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    /**
+     * The maximum length of a single record in characters, excluding the record mark.
+     */
+    private static final int MAX_RECORD_LENGTH = 2 + 2 * 255 + 8;
 
-    private final InputStream stream;
+    private final RecordInput input;
     private State state = State.VALID;
+    private @Nullable HexListener listener;
 
     /**
      * Creates a new reader instance
+     * <p>
+     * The reader does not read ahead, i.e. the stream is never consumed past the last byte of the last returned record.
+     * If this guarantee is not required, {@link #HexRecordReader(InputStream, int)} should be preferred, as it performs
+     * significantly fewer read operations on the stream.
      *
      * @param stream the input stream to read from. may not be null.
      */
     public HexRecordReader(@NotNull InputStream stream) {
         Objects.requireNonNull(stream, "stream may not be null");
-        this.stream = stream;
+        this.input = new RecordInput(stream, MAX_RECORD_LENGTH, false);
+    }
+
+    /**
+     * Creates a new reader instance reading ahead in chunks of up to {@code bufferSize} bytes.
+     * <p>
+     * Reading ahead means that the stream may be consumed past the last byte of the last returned record.
+     * The stream should therefore not be used outside this reader.
+     *
+     * @param stream     the input stream to read from. may not be null.
+     * @param bufferSize the size of the internal buffer. must be at least 1024.
+     * @see #DEFAULT_BUFFER_SIZE
+     */
+    public HexRecordReader(@NotNull InputStream stream, int bufferSize) {
+        Objects.requireNonNull(stream, "stream may not be null");
+        if (bufferSize < 1024) {
+            throw new IllegalArgumentException("bufferSize must be at least 1024");
+        }
+        this.input = new RecordInput(stream, bufferSize, true);
+    }
+
+    private HexRecordReader(@NotNull ByteBuffer buffer) {
+        this.input = new RecordInput(buffer);
+    }
+
+    /**
+     * Creates a new reader instance reading the remaining content of a buffer.
+     * <p>
+     * The records are decoded directly from the buffer, without any intermediate copies.
+     * The position of the provided buffer is not modified.
+     *
+     * @param buffer the buffer to read from. may not be null.
+     * @return a new reader instance
+     */
+    public static @NotNull HexRecordReader wrap(@NotNull ByteBuffer buffer) {
+        return new HexRecordReader(Objects.requireNonNull(buffer, "buffer may not be null"));
+    }
+
+    /**
+     * Creates a new reader instance reading a file.
+     * <p>
+     * The file is mapped into memory and the records are decoded directly from the mapped buffer.
+     *
+     * @param path the file to read. may not be null.
+     * @return a new reader instance
+     * @throws IOException if the file cannot be opened or mapped, or if it is larger than 2 GiB.
+     */
+    public static @NotNull HexRecordReader open(@NotNull Path path) throws IOException {
+        return new HexRecordReader(RecordInput.map(path));
+    }
+
+    /**
+     * Returns a stream over all records in a buffer.
+     * <p>
+     * The stream can be split at record boundaries, so parallel streams decode separate parts of the buffer on
+     * separate threads. The records and their order are the same for sequential and parallel streams. The position of
+     * the provided buffer is not modified, and the buffer must not be modified while the stream is being processed.
+     * <p>
+     * A parsing error is thrown as a {@link HexRecordParsingException} from the terminal operation of the stream.
+     *
+     * @param buffer the buffer to read from. may not be null.
+     * @return a new sequential stream
+     */
+    public static @NotNull Stream<@NotNull HexRecord> stream(@NotNull ByteBuffer buffer) {
+        ByteBuffer input = Objects.requireNonNull(buffer, "buffer may not be null").slice();
+        return StreamSupport.stream(new HexRecordSpliterator(input, 0, input.limit()), false);
+    }
+
+    /**
+     * Returns a stream over the remaining records of this reader.
+     * <p>
+     * The stream reads the records with {@link #readNext()}, so the reader must not be used otherwise while the stream
+     * is being processed. Closing the stream does not close the reader. The stream is not split for parallel
+     * processing beyond handing out batches of records that have already been read, use {@link #stream(ByteBuffer)} to
+     * decode records in parallel.
+     * <p>
+     * A parsing error is thrown as a {@link HexRecordParsingException} and an {@link IOException} as an
+     * {@link UncheckedIOException} from the terminal operation of the stream.
+     *
+     * @return a new sequential stream
+     */
+    public @NotNull Stream<@NotNull HexRecord> stream() {
+        Spliterator<HexRecord> spliterator = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super HexRecord> action) {
+                HexRecord record;
+                try {
+                    record = readNext();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (record == null) {
+                    return false;
+                }
+                action.accept(record);
+                return true;
+            }
+        };
+        return StreamSupport.stream(spliterator, false);
     }
 
     /**
-     * closes the underlying InputStream
+     * Sets the listener receiving instrumentation events from this reader.
+     *
+     * @param listener the listener or null to disable instrumentation.
+     */
+    public void setListener(@Nullable HexListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * closes the underlying InputStream, if there is one
      *
      * @throws IOException if any I/O exception occurs
      */
@@ -46,7 +174,7 @@ public class HexRecordReader implements Closeable {
     public void close() throws IOException {
         if (state != State.CLOSED) {
             state = State.CLOSED;
-            stream.close();
+            input.close();
         }
     }
 
@@ -54,8 +182,8 @@ public class HexRecordReader implements Closeable {
      * Read the next hex record from the underlying stream.
      * <p>
      * While "looking" for the next record, any characters will be ignored until a record start (':') is found.
-     * It is guaranteed that - after returning a record - the input stream has been consumed <i>exactly</i> up to and
-     * including the last byte of that record.
+     * Unless the reader has been created with read-ahead, it is guaranteed that - after returning a record - the input
+     * stream has been consumed <i>exactly</i> up to and including the last byte of that record.
      * <p>
      * If any parsing error occurs while reading a record, a {@link HexRecordParsingException} is thrown.
      * Parsing errors can be:
@@ -89,6 +217,8 @@ public class HexRecordReader implements Closeable {
             HexRecord result = doRead();
             if (result == null) {
                 state = State.COMPLETED;
+            } else if (listener != null) {
+                listener.recordRead(result.type(), result.length());
             }
             return result;
         } catch (IOException e) {
@@ -101,55 +231,97 @@ public class HexRecordReader implements Closeable {
     }
 
     private HexRecord doRead() throws IOException {
-        // step 1: seek forward to next "record start marker" (:)
-        while (true) {
-            int c = stream.read();
-            if (c == -1) {
-                // normal stream termination -> no more blocks
-                return null;
-            }
-            if (c == ':') {
-                break;
-            }
+        int length = seekRecord();
+        if (length < 0) {
+            return null;
         }
-        try {
-            // step 2: read block data
-            int length = HEX_FORMAT.parseHex(readChars(2))[0] & 0xff;
-            byte[] rawData = HEX_FORMAT.parseHex(readChars(2 * length + 8));
-
-            // step 3: validate and block
-            return validateAndBuildBlock(length, rawData);
-        } catch (NumberFormatException e) {
-            throw new HexRecordParsingException("parsing error: " + e.getMessage());
+        byte[] data = new byte[length];
+        int header = decodeRecord(length, data, 0);
+        return new HexRecord(header >>> 16, header & 0xffff, data, false);
+    }
+
+    /**
+     * Decodes the next record into a block instead of creating a {@link HexRecord}.
+     * <p>
+     * In contrast to {@link #readNext()}, the state of the reader is neither checked nor updated. This method is
+     * intended for internal readers used for bulk decoding only.
+     *
+     * @return false if the end of the input has been reached
+     */
+    boolean readNextInto(RecordBlock block) throws IOException {
+        int length = seekRecord();
+        if (length < 0) {
+            return false;
         }
+        int header = decodeRecord(length, block.reserve(length), block.dataSize());
+        block.add(header >>> 16, header & 0xffff, length);
+        return true;
+    }
 
+    /**
+     * Seeks the start of the next record and makes sure the full record is buffered.
+     *
+     * @return the length of the data block of the record or -1 if the end of the stream has been reached.
+     */
+    private int seekRecord() throws IOException {
+        // step 1: seek forward to next "record start marker" (:)
+        if (!input.seek((byte) ':')) {
+            // normal stream termination -> no more blocks
+            return -1;
+        }
+
+        // step 2: read length field and make sure the full record is buffered
+        if (!input.fill(2)) {
+            throw new HexRecordParsingException("unexpected end of stream");
+        }
+        int length = nextByte();
+        if (!input.fill(2 * length + 8)) {
+            throw new HexRecordParsingException("unexpected end of stream");
+        }
+        return length;
     }
 
-    private static HexRecord validateAndBuildBlock(int length, byte[] rawData) {
-        // verify checksum
-        int sum = length;
-        for (int x : rawData) {
-            sum += x;
+    /**
+     * Decodes the buffered record following the length field, verifying the checksum on the fly.
+     *
+     * @param length the length of the data block
+     * @param target the array to decode the data block into
+     * @param offset the offset in the target array
+     * @return the type (bits 16-23) and address (bits 0-15) of the record
+     */
+    private int decodeRecord(int length, byte[] target, int offset) {
+        int addressHigh = nextByte();
+        int addressLow = nextByte();
+        int type = nextByte();
+        int sum = length + addressHigh + addressLow + type;
+
+        int data = input.decode(target, offset, length);
+        if (data < 0) {
+            // the data block contains invalid digits, locate them for the error message
+            for (int i = 0; i < length; i++) {
+                nextByte();
+            }
         }
-        sum &= 0x0000_00ff;
-        if (sum != 0) {
+        sum += data + nextByte();
+        if ((sum & 0xff) != 0) {
+            if (listener != null) {
+                listener.checksumFailure();
+            }
             throw new HexRecordParsingException("bad checksum in block");
         }
 
-        // checksum ok, construct block
-        int address = ((rawData[0] & 0xff) << 8) | (rawData[1] & 0xff);
-        int type = rawData[2] & 0xff;
-
-        byte[] data = new byte[length];
-        System.arraycopy(rawData, 3, data, 0, length);
-        return new HexRecord(type, address, data);
+        return (type << 16) | (addressHigh << 8) | addressLow;
     }
 
-    private String readChars(int n) throws IOException {
-        byte[] bytes = stream.readNBytes(n);
-        if (bytes.length != n) {
-            throw new HexRecordParsingException("unexpected end of stream");
+    /**
+     * decodes the next two buffered characters into a byte value.
+     * The caller must ensure the characters are available in the buffer.
+     */
+    private int nextByte() {
+        int value = input.nextByte();
+        if (value < 0) {
+            throw new HexRecordParsingException("parsing error: invalid hex digits '" + input.peek(2) + "'");
         }
-        return new String(bytes, StandardCharsets.US_ASCII);
+        return value;
     }
 }
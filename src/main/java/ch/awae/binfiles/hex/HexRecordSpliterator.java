@@ -0,0 +1,80 @@
+package ch.awae.binfiles.hex;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator over the records in a buffer, see {@link HexRecordReader#stream(ByteBuffer)}.
+ * <p>
+ * The buffer is split in halves at record boundaries (':'), just like the chunks of the {@link ParallelHexFileReader}.
+ * Each part is then decoded by a separate {@link HexRecordReader}.
+ */
+final class HexRecordSpliterator implements Spliterator<HexRecord> {
+
+    // parts shorter than this are not split any further
+    private static final int MIN_SPLIT_LENGTH = 4096;
+    // the length of a record with 16 data bytes, including a line break
+    private static final int TYPICAL_RECORD_LENGTH = 44;
+
+    private final ByteBuffer buffer;
+    private int start;
+    private final int end;
+    // created on the first traversal, the part can no longer be split afterward
+    private HexRecordReader reader;
+
+    /**
+     * Creates a spliterator over the range [start, end) of a buffer. The range must start at a record boundary.
+     */
+    HexRecordSpliterator(ByteBuffer buffer, int start, int end) {
+        this.buffer = buffer;
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super HexRecord> action) {
+        if (reader == null) {
+            reader = HexRecordReader.wrap(buffer.slice(start, end - start));
+        }
+        HexRecord record;
+        try {
+            record = reader.readNext();
+        } catch (IOException e) {
+            // readers without a stream never perform any I/O
+            throw new UncheckedIOException(e);
+        }
+        if (record == null) {
+            return false;
+        }
+        action.accept(record);
+        return true;
+    }
+
+    @Override
+    public Spliterator<HexRecord> trySplit() {
+        if (reader != null || end - start < MIN_SPLIT_LENGTH) {
+            return null;
+        }
+        int middle = ParallelHexFileReader.nextRecordStart(buffer.slice(0, end), start + (end - start) / 2);
+        if (middle <= start || middle >= end) {
+            return null;
+        }
+        HexRecordSpliterator prefix = new HexRecordSpliterator(buffer, start, middle);
+        start = middle;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return (end - start) / TYPICAL_RECORD_LENGTH + 1;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+
+}
@@ -0,0 +1,104 @@
+package ch.awae.binfiles.hex;
+
+import ch.awae.binfiles.BinaryFile;
+import ch.awae.binfiles.DataFragment;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * A single transformation step of a {@link HexRecordPipeline}.
+ * <p>
+ * Stages operate on {@link DataFragment}s with absolute positions, i.e. the extended address records of the input
+ * have already been resolved. A stage may forward, modify, split, merge or drop fragments. Stages may buffer data
+ * between invocations, but must pass all buffered data on when the end of a file is reached.
+ * <p>
+ * Stages are invoked from a single thread, but may be stateful and should therefore not be shared between pipelines
+ * running concurrently.
+ *
+ * @author Andreas Wälchli
+ * @since 0.1.0
+ */
+@FunctionalInterface
+public interface HexRecordStage {
+
+    /**
+     * Processes a single fragment.
+     *
+     * @param fragment   the fragment to process. never null.
+     * @param downstream the sink receiving the output of this stage. never null.
+     * @throws IOException if any I/O exception occurs downstream.
+     */
+    void process(@NotNull DataFragment fragment, @NotNull FragmentSink downstream) throws IOException;
+
+    /**
+     * Signals the end of the current file. Any buffered data must be passed on to the downstream sink.
+     * <p>
+     * The default implementation does nothing.
+     *
+     * @param downstream the sink receiving the output of this stage. never null.
+     * @throws IOException if any I/O exception occurs downstream.
+     */
+    default void endOfFile(@NotNull FragmentSink downstream) throws IOException {
+    }
+
+    /**
+     * Creates a stage merging adjacent fragments and re-splitting them into records of a given length.
+     * <p>
+     * Records are aligned to multiples of {@code recordLength}, i.e. a record never crosses an address that is a
+     * multiple of the record length. For input with ascending addresses the output is therefore identical to the
+     * output of {@link HexFileWriter#write(BinaryFile, int)}. At most {@code recordLength} bytes are buffered.
+     *
+     * @param recordLength the maximum length of a single data record. Range: 1-255.
+     * @return a new stage
+     */
+    @Contract("_ -> new")
+    static @NotNull HexRecordStage rechunk(int recordLength) {
+        return new RechunkStage(recordLength);
+    }
+
+    /**
+     * Creates a stage only retaining the data within a given address range. Fragments partially covering the range
+     * are trimmed.
+     *
+     * @param start the start of the range (inclusive)
+     * @param end   the end of the range (exclusive)
+     * @return a new stage
+     */
+    @Contract("_, _ -> new")
+    static @NotNull HexRecordStage filter(long start, long end) {
+        if (start < 0 || start > end || end > BinaryFile.MAX_SIZE) {
+            throw new IllegalArgumentException("invalid range [" + start + ", " + end + ")");
+        }
+        return (fragment, downstream) -> {
+            long position = fragment.getPosition();
+            long from = Math.max(position, start);
+            long to = Math.min(position + fragment.getLength(), end);
+            if (from >= to) {
+                return;
+            }
+            if (to - from == fragment.getLength()) {
+                downstream.accept(fragment);
+            } else {
+                byte[] data = new byte[(int) (to - from)];
+                fragment.getDataBuffer().get((int) (from - position), data);
+                downstream.accept(new DataFragment(from, data));
+            }
+        };
+    }
+
+    /**
+     * Creates a stage moving all data by a fixed offset.
+     *
+     * @param offset the offset to add to every address. may be negative.
+     * @return a new stage
+     * @implNote If any data is moved outside the 32-bit address space, an {@link IllegalArgumentException} is thrown
+     * while processing.
+     */
+    @Contract("_ -> new")
+    static @NotNull HexRecordStage shift(long offset) {
+        return (fragment, downstream) -> downstream.accept(fragment.withPosition(fragment.getPosition() + offset));
+    }
+
+}
@@ -1,14 +1,16 @@
 package ch.awae.binfiles.hex;
 
+import ch.awae.binfiles.internal.HexDigits;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
-import java.util.HexFormat;
 import java.util.Objects;
 
 /**
@@ -22,9 +24,22 @@ import java.util.Objects;
  */
 public class HexRecordWriter implements Closeable {
 
-    private final static HexFormat HEX_FORMAT = HexFormat.of().withUpperCase();
+    /**
+     * The maximum length of a single encoded record, including the record mark.
+     */
+    private static final int MAX_RECORD_LENGTH = 1 + 2 * (1 + 2 + 1 + 255 + 1);
+
+    /**
+     * The default buffer size for buffering writers.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
     private final OutputStream stream;
     private final byte[] separator;
+    private final boolean buffered;
+    private final byte[] buffer;
+    private int count = 0;
+    private @Nullable HexListener listener;
 
     /**
      * Creates a new Writer instance writing to the provided OutputStream.
@@ -41,18 +56,44 @@ public class HexRecordWriter implements Closeable {
      */
     public HexRecordWriter(@NotNull OutputStream stream, byte @Nullable [] separator) {
         this.stream = Objects.requireNonNull(stream);
+        this.separator = validateSeparator(separator);
+        this.buffered = false;
+        this.buffer = new byte[MAX_RECORD_LENGTH + (this.separator != null ? this.separator.length : 0)];
+    }
 
-        if (separator != null && separator.length > 0) {
-            this.separator = Arrays.copyOf(separator, separator.length);
-            for (int i = 0; i < separator.length; i++) {
-                if (separator[i] == 58) {
-                    throw new IllegalArgumentException("separator may not contain byte value 58. encountered value at position " + i);
-                }
-            }
-        } else {
-            this.separator = null;
+    /**
+     * Creates a new buffering Writer instance writing to the provided OutputStream.
+     * <p>
+     * Records are encoded into an internal buffer of the given size, which is only written to the stream once it is
+     * full, or when the writer is flushed or closed. Apart from that, this writer behaves like one created with
+     * {@link #HexRecordWriter(OutputStream, byte[])}.
+     *
+     * @param stream     The stream to write to. May not be null.
+     * @param separator  The separator byte sequence to be written at the end of every record.
+     *                   May not contain the byte value 58 (0x3A / ':'). May be null.
+     * @param bufferSize The size of the internal buffer. Must be at least 1024.
+     * @see #DEFAULT_BUFFER_SIZE
+     */
+    public HexRecordWriter(@NotNull OutputStream stream, byte @Nullable [] separator, int bufferSize) {
+        this.stream = Objects.requireNonNull(stream);
+        if (bufferSize < 1024) {
+            throw new IllegalArgumentException("bufferSize must be at least 1024");
         }
+        this.separator = validateSeparator(separator);
+        this.buffered = true;
+        this.buffer = new byte[bufferSize];
+    }
 
+    private static byte @Nullable [] validateSeparator(byte @Nullable [] separator) {
+        if (separator == null || separator.length == 0) {
+            return null;
+        }
+        for (int i = 0; i < separator.length; i++) {
+            if (separator[i] == 58) {
+                throw new IllegalArgumentException("separator may not contain byte value 58. encountered value at position " + i);
+            }
+        }
+        return Arrays.copyOf(separator, separator.length);
     }
 
     /**
@@ -79,6 +120,8 @@ public class HexRecordWriter implements Closeable {
         } else {
             this.separator = null;
         }
+        this.buffered = false;
+        this.buffer = new byte[MAX_RECORD_LENGTH + (this.separator != null ? this.separator.length : 0)];
     }
 
     /**
@@ -92,6 +135,15 @@ public class HexRecordWriter implements Closeable {
         this(stream, "\n");
     }
 
+    /**
+     * Sets the listener receiving instrumentation events from this writer.
+     *
+     * @param listener the listener or null to disable instrumentation.
+     */
+    public void setListener(@Nullable HexListener listener) {
+        this.listener = listener;
+    }
+
     /**
      * Writes a {@link HexRecord} to the stream, followed by the configured separator sequence.
      *
@@ -100,18 +152,112 @@ public class HexRecordWriter implements Closeable {
      */
     public void write(@NotNull HexRecord record) throws IOException {
         Objects.requireNonNull(record, "record must not be null");
-        byte[] data = record.data();
+        byte[] data = record.internalData();
 
-        String output = ":"
-                + HEX_FORMAT.toHexDigits((byte) data.length)
-                + HEX_FORMAT.toHexDigits((short) record.address())
-                + HEX_FORMAT.toHexDigits((byte) record.type())
-                + HEX_FORMAT.formatHex(data)
-                + HEX_FORMAT.toHexDigits((byte) record.calculateChecksum());
+        int sum = beginRecord(record.type(), record.address(), data.length);
+        int position = count + 9;
+        for (byte b : data) {
+            HexDigits.encode(b, buffer, position);
+            sum += b & 0xff;
+            position += 2;
+        }
+        endRecord(position, sum);
+        if (listener != null) {
+            listener.recordWritten(record.type(), data.length);
+        }
+    }
+
+    /**
+     * Writes a record with data taken from a range of a buffer, without creating a {@link HexRecord} instance.
+     * The arguments are not validated, the caller must ensure they are valid for a record.
+     *
+     * @param type    the type field
+     * @param address the address field
+     * @param data    the buffer holding the data. its position is ignored and not modified.
+     * @param offset  the absolute index of the first data byte in the buffer
+     * @param length  the number of data bytes
+     */
+    void write(int type, int address, @NotNull ByteBuffer data, int offset, int length) throws IOException {
+        int sum = beginRecord(type, address, length);
+        int position = count + 9;
+        for (int i = offset; i < offset + length; i++) {
+            byte b = data.get(i);
+            HexDigits.encode(b, buffer, position);
+            sum += b & 0xff;
+            position += 2;
+        }
+        endRecord(position, sum);
+        if (listener != null) {
+            listener.recordWritten(type, length);
+        }
+    }
+
+    /**
+     * writes the record mark, length, address and type fields to the buffer.
+     *
+     * @return the checksum of the header fields
+     */
+    private int beginRecord(int type, int address, int length) throws IOException {
+        if (buffer.length - count < MAX_RECORD_LENGTH) {
+            flushBuffer();
+        }
+        buffer[count] = ':';
+        HexDigits.encode(length, buffer, count + 1);
+        HexDigits.encode(address >>> 8, buffer, count + 3);
+        HexDigits.encode(address, buffer, count + 5);
+        HexDigits.encode(type, buffer, count + 7);
+        return length + (address >>> 8) + (address & 0xff) + type;
+    }
+
+    /**
+     * writes the checksum and separator to the buffer.
+     *
+     * @param position the position behind the last data byte in the buffer
+     * @param sum      the checksum of all previous fields
+     */
+    private void endRecord(int position, int sum) throws IOException {
+        HexDigits.encode(0x100 - (sum & 0xff), buffer, position);
+        count = position + 2;
 
-        stream.write(output.getBytes(StandardCharsets.US_ASCII));
         if (separator != null) {
-            stream.write(separator);
+            if (buffer.length - count < separator.length) {
+                // only possible for buffering writers with very long separators
+                flushBuffer();
+                stream.write(separator);
+            } else {
+                System.arraycopy(separator, 0, buffer, count, separator.length);
+                count += separator.length;
+            }
+        }
+        if (!buffered) {
+            flushBuffer();
+        }
+    }
+
+    /**
+     * Creates a buffering writer with the same separator as this writer, writing to a different stream.
+     */
+    HexRecordWriter withStream(@NotNull OutputStream stream) {
+        HexRecordWriter writer = new HexRecordWriter(stream, separator, DEFAULT_BUFFER_SIZE);
+        writer.listener = listener;
+        return writer;
+    }
+
+    /**
+     * Writes records that have already been encoded by another writer to the stream, behind any buffered records.
+     */
+    void writeEncoded(@NotNull ByteArrayOutputStream encoded) throws IOException {
+        flushBuffer();
+        encoded.writeTo(stream);
+    }
+
+    /**
+     * Writes any buffered records to the stream, without flushing the stream itself.
+     */
+    void flushBuffer() throws IOException {
+        if (count > 0) {
+            stream.write(buffer, 0, count);
+            count = 0;
         }
     }
 
@@ -123,6 +269,7 @@ public class HexRecordWriter implements Closeable {
     @Override
     public void close() throws IOException {
         try {
+            flushBuffer();
             stream.flush();
         } finally {
             // try to close the stream no matter what
@@ -136,6 +283,7 @@ public class HexRecordWriter implements Closeable {
      * @throws IOException if any I/O exception occurs in the underlying stream.
      */
     public void flush() throws IOException {
+        flushBuffer();
         this.stream.flush();
     }
 
@@ -0,0 +1,250 @@
+package ch.awae.binfiles.hex;
+
+import ch.awae.binfiles.BinaryFile;
+import ch.awae.binfiles.internal.RecordInput;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Reader for reading {@link BinaryFile}s from an in-memory buffer or a file using multiple threads.
+ * <p>
+ * The input is split into chunks at record boundaries (':'). The chunks are decoded and checksum-verified in parallel
+ * on a {@link ForkJoinPool}. The decoded records are then interpreted in order and merged into the resulting files.
+ * The result is identical to reading the same input with a {@link HexFileReader} until the end of the stream:
+ * extended address records are interpreted across chunk boundaries, every "EOF" record terminates a file and
+ * colliding data is rejected.
+ * <p>
+ * Instances hold no state besides their configuration and can therefore be used by multiple threads at once.
+ *
+ * @author Andreas Wälchli
+ * @since 0.1.0
+ */
+public class ParallelHexFileReader {
+
+    /**
+     * The default size of the chunks decoded by a single task, in bytes of input.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    /**
+     * Creates a new reader instance decoding on the common pool.
+     */
+    public ParallelHexFileReader() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a new reader instance.
+     *
+     * @param pool the pool to decode on. may not be null.
+     */
+    public ParallelHexFileReader(@NotNull ForkJoinPool pool) {
+        this(pool, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates a new reader instance.
+     *
+     * @param pool      the pool to decode on. may not be null.
+     * @param chunkSize the size of the chunks decoded by a single task. must be at least 1024.
+     * @see #DEFAULT_CHUNK_SIZE
+     */
+    public ParallelHexFileReader(@NotNull ForkJoinPool pool, int chunkSize) {
+        if (chunkSize < 1024) {
+            throw new IllegalArgumentException("chunkSize must be at least 1024");
+        }
+        this.pool = Objects.requireNonNull(pool, "pool may not be null");
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Reads all files from a file.
+     *
+     * @param path the file to read. may not be null.
+     * @return the files in the order they appear in the input. may be empty.
+     * @throws IOException             if the file cannot be opened or mapped, or if it is larger than 2 GiB.
+     * @throws HexFileParsingException if any parsing error occurs.
+     * @throws IllegalStateException   if any data of a file is colliding.
+     * @implNote The file is mapped into memory and decoded directly from the mapped buffer.
+     */
+    public @NotNull List<@NotNull BinaryFile> read(@NotNull Path path) throws IOException {
+        return read(RecordInput.map(path));
+    }
+
+    /**
+     * Reads all files from an array.
+     *
+     * @param data the array holding the input. may not be null.
+     * @return the files in the order they appear in the input. may be empty.
+     * @throws HexFileParsingException if any parsing error occurs.
+     * @throws IllegalStateException   if any data of a file is colliding.
+     */
+    public @NotNull List<@NotNull BinaryFile> read(byte @NotNull [] data) {
+        return read(ByteBuffer.wrap(Objects.requireNonNull(data, "data may not be null")));
+    }
+
+    /**
+     * Reads all files from the remaining content of a buffer. The position of the buffer is not modified.
+     *
+     * @param buffer the buffer holding the input. may not be null.
+     * @return the files in the order they appear in the input. may be empty.
+     * @throws HexFileParsingException if any parsing error occurs. Parsing errors can be:
+     *                                 <ul>
+     *                                     <li>Any record is invalid (see {@link HexRecordReader#readNext()})</li>
+     *                                     <li>An unsupported record type is encountered</li>
+     *                                     <li>The end of the input is reached in the middle of a file</li>
+     *                                 </ul>
+     * @throws IllegalStateException   if any data of a file is colliding.
+     */
+    public @NotNull List<@NotNull BinaryFile> read(@NotNull ByteBuffer buffer) {
+        ByteBuffer input = Objects.requireNonNull(buffer, "buffer may not be null").slice();
+
+        // step 1: split the input and decode the chunks in parallel
+        List<ForkJoinTask<RecordBlock>> tasks = new ArrayList<>();
+        int start = 0;
+        while (start < input.limit()) {
+            int end = nextRecordStart(input, (int) Math.min((long) start + chunkSize, input.limit()));
+            ByteBuffer chunk = input.slice(start, end - start);
+            tasks.add(pool.submit(() -> decodeChunk(chunk)));
+            start = end;
+        }
+        List<RecordBlock> blocks = new ArrayList<>(tasks.size());
+        for (ForkJoinTask<RecordBlock> task : tasks) {
+            blocks.add(task.join());
+        }
+
+        // step 2: interpret the records in order. Each file is scanned twice: once to determine its size and once to
+        // fill in the data
+        List<BinaryFile> files = new ArrayList<>();
+        Cursor cursor = new Cursor();
+        while (true) {
+            Cursor fileStart = cursor.copy();
+            FileExtent extent = new FileExtent();
+            boolean complete = replayFile(blocks, cursor, (position, data, offset, length) -> extent.add(position, length));
+            if (!complete) {
+                if (extent.hasData) {
+                    // end of stream before file end -> ERROR
+                    throw new HexFileParsingException("unexpected end of stream");
+                }
+                // end of stream before file starts
+                return files;
+            }
+
+            // calculate the smallest power of 2 to fit everything
+            long fileSize = 1;
+            while (fileSize < extent.end) {
+                fileSize *= 2;
+            }
+            BinaryFile file = new BinaryFile(fileSize, extent.length);
+            replayFile(blocks, fileStart, (position, data, offset, length) -> file.addBytes(position, data, offset, length));
+            files.add(file);
+        }
+    }
+
+    /**
+     * @return the index of the first record mark (':') at or after {@code from}, or the limit of the buffer.
+     */
+    static int nextRecordStart(ByteBuffer buffer, int from) {
+        int limit = buffer.limit();
+        for (int i = from; i < limit; i++) {
+            if (buffer.get(i) == ':') {
+                return i;
+            }
+        }
+        return limit;
+    }
+
+    private static RecordBlock decodeChunk(ByteBuffer chunk) {
+        RecordBlock block = new RecordBlock(chunk.limit() / 2);
+        HexRecordReader reader = HexRecordReader.wrap(chunk);
+        try {
+            while (reader.readNextInto(block)) {
+                // keep decoding
+            }
+        } catch (HexRecordParsingException e) {
+            // the error is only raised once the block is reached in order
+            block.setError(e);
+        } catch (IOException e) {
+            // readers without a stream never perform any I/O
+            throw new IllegalStateException(e);
+        }
+        return block;
+    }
+
+    /**
+     * Interprets the records of a single file, starting at the cursor and advancing it past the "EOF" record.
+     *
+     * @return true if the file has been terminated by an "EOF" record, false if the end of the input has been reached.
+     */
+    private static boolean replayFile(List<RecordBlock> blocks, Cursor cursor, RecordDecoder.DataSink sink) {
+        RecordDecoder decoder = new RecordDecoder();
+        try {
+            while (cursor.block < blocks.size()) {
+                RecordBlock block = blocks.get(cursor.block);
+                while (cursor.record < block.count()) {
+                    int record = cursor.record++;
+                    int offset = cursor.dataOffset;
+                    cursor.dataOffset += block.length(record);
+                    if (decoder.decode(block.type(record), block.address(record), block.data(), offset,
+                            block.length(record), sink)) {
+                        return true;
+                    }
+                }
+                if (block.error() != null) {
+                    throw new HexFileParsingException(block.error().getMessage(), block.error());
+                }
+                cursor.block++;
+                cursor.record = 0;
+                cursor.dataOffset = 0;
+            }
+            return false;
+        } catch (IOException e) {
+            // the sinks never perform any I/O
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Position of the next record to interpret.
+     */
+    private static final class Cursor {
+        int block = 0;
+        int record = 0;
+        int dataOffset = 0;
+
+        Cursor copy() {
+            Cursor copy = new Cursor();
+            copy.block = block;
+            copy.record = record;
+            copy.dataOffset = dataOffset;
+            return copy;
+        }
+    }
+
+    /**
+     * Collects the size of a file.
+     */
+    private static final class FileExtent {
+        boolean hasData = false;
+        long end = 0;
+        long length = 0;
+
+        void add(long position, int length) {
+            this.hasData = true;
+            this.end = Math.max(this.end, position + length);
+            this.length += length;
+        }
+    }
+
+}
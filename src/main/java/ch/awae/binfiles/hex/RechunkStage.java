@@ -0,0 +1,69 @@
+package ch.awae.binfiles.hex;
+
+import ch.awae.binfiles.DataFragment;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Stage collecting adjacent data into aligned chunks of a fixed maximum length.
+ *
+ * @see HexRecordStage#rechunk(int)
+ */
+final class RechunkStage implements HexRecordStage {
+
+    private final int recordLength;
+    private final byte[] buffer;
+    // position of the first buffered byte
+    private long bufferStart = 0;
+    private int count = 0;
+
+    RechunkStage(int recordLength) {
+        if (recordLength < 1 || recordLength > 255) {
+            throw new IllegalArgumentException("record length must be between 1 and 255");
+        }
+        this.recordLength = recordLength;
+        this.buffer = new byte[recordLength];
+    }
+
+    @Override
+    public void process(@NotNull DataFragment fragment, @NotNull FragmentSink downstream) throws IOException {
+        long position = fragment.getPosition();
+        if (count > 0 && position != bufferStart + count) {
+            // not adjacent to the buffered data
+            flush(downstream);
+        }
+        ByteBuffer data = fragment.getDataBuffer();
+        int offset = 0;
+        while (offset < data.limit()) {
+            if (count == 0) {
+                bufferStart = position + offset;
+            }
+            // the current chunk ends at the next multiple of the record length
+            long chunkEnd = (bufferStart / recordLength + 1) * recordLength;
+            int length = (int) Math.min(data.limit() - offset, chunkEnd - bufferStart - count);
+            data.get(offset, buffer, count, length);
+            count += length;
+            offset += length;
+            if (bufferStart + count == chunkEnd) {
+                flush(downstream);
+            }
+        }
+    }
+
+    @Override
+    public void endOfFile(@NotNull FragmentSink downstream) throws IOException {
+        flush(downstream);
+    }
+
+    private void flush(FragmentSink downstream) throws IOException {
+        if (count > 0) {
+            byte[] data = count == buffer.length ? buffer : Arrays.copyOf(buffer, count);
+            downstream.accept(new DataFragment(bufferStart, data));
+            count = 0;
+        }
+    }
+
+}
@@ -0,0 +1,94 @@
+package ch.awae.binfiles.hex;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * A compact sequence of decoded records.
+ * <p>
+ * The data blocks of all records are stored back to back in a single array, while type, length and address of each
+ * record are packed into a single int. This avoids creating a {@link HexRecord} instance per record when decoding
+ * large inputs in bulk.
+ */
+final class RecordBlock {
+
+    private byte[] data;
+    private int dataSize = 0;
+    private int[] headers = new int[64];
+    private int count = 0;
+    // the parsing error that terminated the block, if any
+    private @Nullable RuntimeException error;
+
+    /**
+     * @param expectedDataSize the expected total length of all data blocks
+     */
+    RecordBlock(int expectedDataSize) {
+        this.data = new byte[Math.max(expectedDataSize, 255)];
+    }
+
+    /**
+     * Ensures there is room for a data block of a given length behind the current data.
+     *
+     * @return the data array to decode into, starting at {@link #dataSize()}
+     */
+    byte[] reserve(int length) {
+        if (dataSize + length > data.length) {
+            data = Arrays.copyOf(data, Math.max(dataSize + length, data.length * 2));
+        }
+        return data;
+    }
+
+    /**
+     * Appends a record whose data has already been decoded into the reserved space.
+     */
+    void add(int type, int address, int length) {
+        if (count == headers.length) {
+            headers = Arrays.copyOf(headers, count * 2);
+        }
+        headers[count++] = (type << 24) | (length << 16) | address;
+        dataSize += length;
+    }
+
+    /**
+     * Removes all records from this block, keeping the allocated arrays for reuse.
+     */
+    void clear() {
+        dataSize = 0;
+        count = 0;
+        error = null;
+    }
+
+    int dataSize() {
+        return dataSize;
+    }
+
+    byte[] data() {
+        return data;
+    }
+
+    int count() {
+        return count;
+    }
+
+    int type(int record) {
+        return headers[record] >>> 24;
+    }
+
+    int length(int record) {
+        return (headers[record] >>> 16) & 0xff;
+    }
+
+    int address(int record) {
+        return headers[record] & 0xffff;
+    }
+
+    @Nullable RuntimeException error() {
+        return error;
+    }
+
+    void setError(@Nullable RuntimeException error) {
+        this.error = error;
+    }
+
+}
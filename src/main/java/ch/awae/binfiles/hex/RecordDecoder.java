@@ -0,0 +1,141 @@
+package ch.awae.binfiles.hex;
+
+import ch.awae.binfiles.BinaryFile;
+import ch.awae.binfiles.DataFragment;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Interprets a sequence of {@link HexRecord}s, resolving the extended address records into absolute positions.
+ * <p>
+ * Data records are converted to absolute ranges and passed to a {@link DataSink} (or as {@link DataFragment}s to a
+ * {@link FragmentSink}). All other supported records only update the state of the decoder. Every file starts with a
+ * base address of 0.
+ */
+final class RecordDecoder {
+
+    /**
+     * Receiver of the data decoded from data records.
+     */
+    @FunctionalInterface
+    interface DataSink {
+        /**
+         * Accepts a range of data. The array must not be modified or retained.
+         */
+        void accept(long position, byte[] data, int offset, int length) throws IOException;
+    }
+
+    // base address set by the last extended address record.
+    private long baseAddress = 0;
+    private boolean segmented = false;
+    private final @Nullable HexListener listener;
+
+    RecordDecoder() {
+        this(null);
+    }
+
+    /**
+     * @param listener the listener to report unsupported record types to. may be null.
+     */
+    RecordDecoder(@Nullable HexListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Decodes a single record.
+     *
+     * @param record the record to decode
+     * @param sink   the sink receiving the fragment(s) of a data record
+     * @return true if the record marks the end of the file. The decoder is reset for the next file.
+     * @throws HexFileParsingException if the record is invalid or of an unsupported type
+     */
+    boolean decode(HexRecord record, FragmentSink sink) throws IOException {
+        byte[] data = record.internalData();
+        return decode(record.type(), record.address(), data, 0, data.length, (position, array, offset, length) -> {
+            if (offset == 0 && length == array.length) {
+                sink.accept(new DataFragment(position, array));
+            } else {
+                sink.accept(new DataFragment(position, Arrays.copyOfRange(array, offset, offset + length)));
+            }
+        });
+    }
+
+    /**
+     * Decodes a single record given by its individual fields.
+     *
+     * @param type    the type of the record
+     * @param address the address field of the record
+     * @param data    the array holding the data block
+     * @param offset  the offset of the data block in the array
+     * @param length  the length of the data block
+     * @param sink    the sink receiving the range(s) of a data record
+     * @return true if the record marks the end of the file. The decoder is reset for the next file.
+     * @throws HexFileParsingException if the record is invalid or of an unsupported type
+     */
+    boolean decode(int type, int address, byte[] data, int offset, int length, DataSink sink) throws IOException {
+        switch (type) {
+            // data record. convert to range(s).
+            case 0 -> decodeData(address, data, offset, length, sink);
+            // EOF marker
+            case 1 -> {
+                baseAddress = 0;
+                segmented = false;
+                return true;
+            }
+            // extended segment address: bits 4-19 of the base address
+            case 2 -> {
+                baseAddress = readExtendedAddress(data, offset, length) << 4;
+                segmented = true;
+            }
+            // extended linear address: bits 16-31 of the base address
+            case 4 -> {
+                baseAddress = readExtendedAddress(data, offset, length) << 16;
+                segmented = false;
+            }
+            // start segment / linear address: execution start address, not part of the file contents
+            case 3, 5 -> {
+                if (length != 4) {
+                    throw new HexFileParsingException("invalid start address record: expected 4 bytes of data");
+                }
+            }
+            // unsupported record type
+            default -> {
+                if (listener != null) {
+                    listener.unsupportedRecordType(type);
+                }
+                throw new HexFileParsingException("unsupported record type: " + type);
+            }
+        }
+        return false;
+    }
+
+    private static long readExtendedAddress(byte[] data, int offset, int length) {
+        if (length != 2) {
+            throw new HexFileParsingException("invalid extended address record: expected 2 bytes of data");
+        }
+        return ((data[offset] & 0xff) << 8) | (data[offset + 1] & 0xff);
+    }
+
+    private void decodeData(int address, byte[] data, int offset, int length, DataSink sink) throws IOException {
+        if (length == 0) {
+            throw new HexFileParsingException("invalid data record: expected at least 1 byte of data");
+        }
+        long position = baseAddress + address;
+
+        // records wrap around at the end of the 64K segment (segment addressing)
+        // or at the end of the 32-bit address space (linear addressing)
+        long wrapLimit = segmented ? baseAddress + 0x10000 : BinaryFile.MAX_SIZE;
+        long wrapPosition = segmented ? baseAddress : 0;
+        if (position + length <= wrapLimit) {
+            sink.accept(position, data, offset, length);
+        } else {
+            int split = (int) (wrapLimit - position);
+            sink.accept(position, data, offset, split);
+            sink.accept(wrapPosition, data, offset + split, length - split);
+        }
+    }
+
+}
@@ -0,0 +1,36 @@
+package ch.awae.binfiles.internal;
+
+import org.jetbrains.annotations.ApiStatus;
+
+/**
+ * Bulk decoder for ASCII hex digits, with a byte sum for checksum validation.
+ * <p>
+ * Obtain the best available implementation with {@link HexDigits#decoder()}.
+ */
+@ApiStatus.Internal
+public interface HexDecoder {
+
+    /**
+     * Decodes {@code 2 * length} ASCII hex digits into {@code length} bytes.
+     *
+     * @param source       the array holding the digits
+     * @param sourceOffset the index of the first digit in the source array
+     * @param target       the array to decode the bytes into
+     * @param targetOffset the index of the first byte in the target array
+     * @param length       the number of bytes to decode
+     * @return the sum of all decoded byte values (0-255 each), or a negative value if any of the characters is not a
+     * hex digit. The content of the target range is undefined in that case.
+     */
+    int decode(byte[] source, int sourceOffset, byte[] target, int targetOffset, int length);
+
+    /**
+     * Sums up a range of byte values, each interpreted as unsigned (0-255).
+     *
+     * @param data   the array holding the bytes
+     * @param offset the index of the first byte
+     * @param length the number of bytes
+     * @return the sum of all byte values
+     */
+    int sum(byte[] data, int offset, int length);
+
+}
@@ -0,0 +1,108 @@
+package ch.awae.binfiles.internal;
+
+import org.jetbrains.annotations.ApiStatus;
+
+import java.util.Arrays;
+
+/**
+ * Lookup tables for converting between ASCII hex digits and their numerical values.
+ * <p>
+ * Shared by all text-based record formats.
+ */
+@ApiStatus.Internal
+public final class HexDigits {
+
+    /**
+     * Maps an ASCII character to its nibble value (0-15). Any character that is not a hex digit maps to -1.
+     * Both upper and lower case digits are accepted.
+     */
+    private static final byte[] NIBBLES = new byte[256];
+
+    /**
+     * Maps every byte value to its two upper case ASCII hex digits: {@code DIGITS[2*b]} is the high digit,
+     * {@code DIGITS[2*b+1]} the low digit.
+     */
+    private static final byte[] DIGITS = new byte[512];
+
+    /**
+     * The bulk decoder used by all readers.
+     */
+    private static final HexDecoder DECODER = loadDecoder();
+
+    static {
+        byte[] alphabet = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F'};
+        for (int i = 0; i < 256; i++) {
+            DIGITS[2 * i] = alphabet[i >>> 4];
+            DIGITS[2 * i + 1] = alphabet[i & 0x0f];
+        }
+
+        Arrays.fill(NIBBLES, (byte) -1);
+        for (int i = 0; i < 10; i++) {
+            NIBBLES['0' + i] = (byte) i;
+        }
+        for (int i = 0; i < 6; i++) {
+            NIBBLES['A' + i] = (byte) (10 + i);
+            NIBBLES['a' + i] = (byte) (10 + i);
+        }
+    }
+
+    private HexDigits() {
+    }
+
+    /**
+     * Returns the best available bulk decoder.
+     * <p>
+     * A decoder based on the Vector API is used if the {@code jdk.incubator.vector} module has been added to the
+     * module graph (e.g. with {@code --add-modules jdk.incubator.vector}), unless the system property
+     * {@code ch.awae.binfiles.vector} is set to {@code false}. Otherwise, a scalar decoder is used.
+     *
+     * @return the decoder
+     */
+    public static HexDecoder decoder() {
+        return DECODER;
+    }
+
+    private static HexDecoder loadDecoder() {
+        if (!"false".equals(System.getProperty("ch.awae.binfiles.vector"))
+                && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                // VectorHexDecoder is compiled separately, see the compiler configuration in the pom
+                return Class.forName("ch.awae.binfiles.internal.VectorHexDecoder")
+                        .asSubclass(HexDecoder.class)
+                        .getDeclaredConstructor()
+                        .newInstance();
+            } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+                // the module is present but unusable, use the scalar decoder instead
+            }
+        }
+        return new ScalarHexDecoder();
+    }
+
+    /**
+     * Decodes two ASCII hex digits into a byte value.
+     *
+     * @param high the character of the high nibble
+     * @param low  the character of the low nibble
+     * @return the byte value (0-255) or a negative value if any of the characters is not a hex digit
+     */
+    public static int decode(byte high, byte low) {
+        int h = NIBBLES[high & 0xff];
+        int l = NIBBLES[low & 0xff];
+        // invalid nibbles are -1 (all bits set), so they always propagate into the sign bit
+        return (h << 4) | l;
+    }
+
+    /**
+     * Encodes a byte value into two upper case ASCII hex digits.
+     *
+     * @param value  the value to encode. only the lowest 8 bits are considered.
+     * @param target the array to write the digits to
+     * @param offset the position of the high digit in the target array
+     */
+    public static void encode(int value, byte[] target, int offset) {
+        int index = (value & 0xff) << 1;
+        target[offset] = DIGITS[index];
+        target[offset + 1] = DIGITS[index + 1];
+    }
+
+}
@@ -0,0 +1,211 @@
+package ch.awae.binfiles.internal;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * Buffered character input for text-based record formats.
+ * <p>
+ * The input is either read from an {@link InputStream} into an internal buffer, or taken directly from a
+ * {@link ByteBuffer} (e.g. a mapped file). Record readers seek to the record mark, make sure the entire record is
+ * buffered and then decode it in place, without any intermediate copies.
+ */
+@ApiStatus.Internal
+public final class RecordInput {
+
+    // null for inputs reading directly from a buffer
+    private final @Nullable InputStream stream;
+    private final boolean readAhead;
+    private final ByteBuffer buffer;
+    private int position = 0;
+    private int limit = 0;
+    // copy of the digits for buffers without an accessible array, allocated on demand
+    private byte @Nullable [] scratch;
+
+    /**
+     * Creates an input reading from a stream.
+     *
+     * @param stream     the stream to read from
+     * @param bufferSize the size of the internal buffer. must fit the longest record.
+     * @param readAhead  if false, the stream is never consumed past the last byte requested by {@link #fill(int)}.
+     *                   if true, the buffer is filled as far as possible with every read.
+     */
+    public RecordInput(@NotNull InputStream stream, int bufferSize, boolean readAhead) {
+        this.stream = Objects.requireNonNull(stream, "stream may not be null");
+        this.readAhead = readAhead;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+    }
+
+    /**
+     * Creates an input reading the remaining content of a buffer. The position of the buffer is not modified.
+     *
+     * @param buffer the buffer to read from
+     */
+    public RecordInput(@NotNull ByteBuffer buffer) {
+        this.stream = null;
+        this.readAhead = true;
+        this.buffer = buffer.slice();
+        this.limit = this.buffer.limit();
+    }
+
+    /**
+     * Maps an entire file into memory.
+     *
+     * @param path the file to map
+     * @return a read-only buffer holding the file content
+     * @throws IOException if the file cannot be opened or mapped, or if it is larger than 2 GiB.
+     */
+    public static @NotNull ByteBuffer map(@NotNull Path path) throws IOException {
+        Objects.requireNonNull(path, "path may not be null");
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("file too large to be mapped: " + path);
+            }
+            // the mapping stays valid after the channel has been closed
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
+    /**
+     * Skips all characters up to and including the next record mark.
+     *
+     * @param mark the record mark
+     * @return true if a record mark has been found, false if the end of the input has been reached.
+     */
+    public boolean seek(byte mark) throws IOException {
+        while (true) {
+            if (position == limit && !fill(1)) {
+                return false;
+            }
+            if (buffer.get(position++) == mark) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Ensures at least {@code n} characters are available in the buffer.
+     * <p>
+     * Without read-ahead, exactly the missing number of bytes is read from the stream. With read-ahead, the buffer is
+     * filled as far as the stream allows. Inputs without a stream can not be filled at all.
+     *
+     * @return true if at least n characters are available, false if the input ended before that.
+     */
+    public boolean fill(int n) throws IOException {
+        int available = limit - position;
+        if (available >= n) {
+            return true;
+        }
+        if (stream == null) {
+            return false;
+        }
+        byte[] array = buffer.array();
+        if (array.length - position < n) {
+            // not enough room left behind the current position, compact the buffer
+            System.arraycopy(array, position, array, 0, available);
+            position = 0;
+            limit = available;
+        }
+        if (!readAhead) {
+            int read = stream.readNBytes(array, limit, n - available);
+            limit += read;
+            return read == n - available;
+        }
+        while (limit - position < n) {
+            int read = stream.read(array, limit, array.length - limit);
+            if (read < 0) {
+                return false;
+            }
+            limit += read;
+        }
+        return true;
+    }
+
+    /**
+     * Decodes the next two buffered characters into a byte value.
+     * The caller must ensure the characters are available in the buffer.
+     *
+     * @return the byte value (0-255), or a negative value if any of the characters is not a hex digit. The
+     * characters are only consumed if they are valid.
+     */
+    public int nextByte() {
+        int value = HexDigits.decode(buffer.get(position), buffer.get(position + 1));
+        if (value >= 0) {
+            position += 2;
+        }
+        return value;
+    }
+
+    /**
+     * Decodes the next {@code 2 * length} buffered characters into bytes, using the {@link HexDigits#decoder() bulk
+     * decoder}. The caller must ensure the characters are available in the buffer.
+     *
+     * @param target the array to decode the bytes into
+     * @param offset the index of the first byte in the target array
+     * @param length the number of bytes to decode
+     * @return the sum of all decoded byte values, or a negative value if any of the characters is not a hex digit.
+     * The characters are only consumed if they are all valid.
+     */
+    public int decode(byte[] target, int offset, int length) {
+        int sum;
+        if (buffer.hasArray()) {
+            sum = HexDigits.decoder().decode(buffer.array(), buffer.arrayOffset() + position, target, offset, length);
+        } else {
+            // direct or mapped buffers: copy the digits in bulk first
+            if (scratch == null) {
+                scratch = new byte[2 * 255];
+            }
+            buffer.get(position, scratch, 0, 2 * length);
+            sum = HexDigits.decoder().decode(scratch, 0, target, offset, length);
+        }
+        if (sum >= 0) {
+            position += 2 * length;
+        }
+        return sum;
+    }
+
+    /**
+     * Consumes the next buffered character. The caller must ensure the character is available in the buffer.
+     *
+     * @return the character
+     */
+    public byte nextChar() {
+        return buffer.get(position++);
+    }
+
+    /**
+     * Returns the next buffered characters without consuming them, e.g. for error messages.
+     *
+     * @param n the number of characters. The caller must ensure the characters are available in the buffer.
+     * @return the characters as a string
+     */
+    public @NotNull String peek(int n) {
+        StringBuilder builder = new StringBuilder(n);
+        for (int i = 0; i < n; i++) {
+            builder.append((char) (buffer.get(position + i) & 0xff));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Closes the underlying stream, if there is one.
+     *
+     * @throws IOException if any I/O exception occurs
+     */
+    public void close() throws IOException {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+}
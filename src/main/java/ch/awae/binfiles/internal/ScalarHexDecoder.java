@@ -0,0 +1,31 @@
+package ch.awae.binfiles.internal;
+
+/**
+ * {@link HexDecoder} processing one byte at a time. Used if the Vector API is not available.
+ */
+final class ScalarHexDecoder implements HexDecoder {
+
+    @Override
+    public int decode(byte[] source, int sourceOffset, byte[] target, int targetOffset, int length) {
+        int sum = 0;
+        int invalid = 0;
+        for (int i = 0; i < length; i++) {
+            int value = HexDigits.decode(source[sourceOffset + 2 * i], source[sourceOffset + 2 * i + 1]);
+            // invalid values are negative, collect the sign bits and check once at the end
+            invalid |= value;
+            target[targetOffset + i] = (byte) value;
+            sum += value;
+        }
+        return invalid < 0 ? -1 : sum;
+    }
+
+    @Override
+    public int sum(byte[] data, int offset, int length) {
+        int sum = 0;
+        for (int i = offset; i < offset + length; i++) {
+            sum += data[i] & 0xff;
+        }
+        return sum;
+    }
+
+}
@@ -0,0 +1,91 @@
+package ch.awae.binfiles.internal;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link HexDecoder} backed by the incubating Vector API ({@code jdk.incubator.vector}).
+ * <p>
+ * Digits are decoded 32 at a time on hardware with 256-bit vectors and 16 at a time otherwise. Remainders shorter
+ * than a full vector are handled by the {@link ScalarHexDecoder}.
+ * <p>
+ * The species are picked once and held in constants, as the vector operations are only compiled to vector
+ * instructions if their species is a constant.
+ * <p>
+ * This class must only be loaded if the {@code jdk.incubator.vector} module is present, see
+ * {@link HexDigits#decoder()}. It is compiled in a separate step with the module added, so the other classes only
+ * load it reflectively.
+ */
+final class VectorHexDecoder implements HexDecoder {
+
+    // the species of the vectors holding the digits, and of the vectors holding the decoded bytes (half as wide)
+    private static final VectorSpecies<Byte> DIGITS;
+    private static final VectorSpecies<Byte> BYTES;
+
+    static {
+        if (ByteVector.SPECIES_PREFERRED.vectorBitSize() >= 256) {
+            DIGITS = ByteVector.SPECIES_256;
+            BYTES = ByteVector.SPECIES_128;
+        } else {
+            DIGITS = ByteVector.SPECIES_128;
+            BYTES = ByteVector.SPECIES_64;
+        }
+    }
+
+    private final ScalarHexDecoder scalar = new ScalarHexDecoder();
+
+    @Override
+    public int decode(byte[] source, int sourceOffset, byte[] target, int targetOffset, int length) {
+        int step = BYTES.length();
+        int sum = 0;
+        int i = 0;
+        for (; i <= length - step; i += step) {
+            ByteVector chars = ByteVector.fromArray(DIGITS, source, sourceOffset + 2 * i);
+
+            // '0'-'9' map to 0-9, 'A'-'F' and 'a'-'f' to 10-15 (lower-casing by setting bit 5)
+            ByteVector decimal = chars.sub((byte) '0');
+            ByteVector alpha = chars.or((byte) 0x20).sub((byte) 'a');
+            VectorMask<Byte> isDecimal = decimal.compare(VectorOperators.GE, (byte) 0)
+                    .and(decimal.compare(VectorOperators.LT, (byte) 10));
+            VectorMask<Byte> isAlpha = alpha.compare(VectorOperators.GE, (byte) 0)
+                    .and(alpha.compare(VectorOperators.LT, (byte) 6));
+            if (!isDecimal.or(isAlpha).allTrue()) {
+                return -1;
+            }
+            ByteVector nibbles = alpha.add((byte) 10).blend(decimal, isDecimal);
+
+            // every pair of nibbles forms a little-endian short: the high nibble in the low byte and vice versa
+            ShortVector pairs = nibbles.reinterpretAsShorts();
+            ShortVector values = pairs.and((short) 0x0f).lanewise(VectorOperators.LSHL, 4)
+                    .or(pairs.lanewise(VectorOperators.LSHR, 8));
+            values.castShape(BYTES, 0).reinterpretAsBytes().intoArray(target, targetOffset + i);
+            sum += (int) values.reduceLanesToLong(VectorOperators.ADD);
+        }
+        if (i < length) {
+            int rest = scalar.decode(source, sourceOffset + 2 * i, target, targetOffset + i, length - i);
+            if (rest < 0) {
+                return -1;
+            }
+            sum += rest;
+        }
+        return sum;
+    }
+
+    @Override
+    public int sum(byte[] data, int offset, int length) {
+        int step = DIGITS.length();
+        int sum = 0;
+        int i = 0;
+        for (; i <= length - step; i += step) {
+            // sum up pairs of unsigned bytes in short lanes to avoid overflows
+            ShortVector pairs = ByteVector.fromArray(DIGITS, data, offset + i).reinterpretAsShorts();
+            sum += (int) pairs.and((short) 0xff).add(pairs.lanewise(VectorOperators.LSHR, 8))
+                    .reduceLanesToLong(VectorOperators.ADD);
+        }
+        return sum + scalar.sum(data, offset + i, length - i);
+    }
+
+}
@@ -0,0 +1,9 @@
+/**
+ * Support classes shared by the record format packages.
+ * <p>
+ * The classes in this package are not part of the public API and may change at any time.
+ */
+@ApiStatus.Internal
+package ch.awae.binfiles.internal;
+
+import org.jetbrains.annotations.ApiStatus;
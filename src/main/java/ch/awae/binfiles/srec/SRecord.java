@@ -0,0 +1,188 @@
+package ch.awae.binfiles.srec;
+
+import ch.awae.binfiles.internal.HexDigits;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * represents a single Motorola S-record.
+ * <p>
+ * This class holds raw records without any knowledge of their semantics. The width of the address field is determined
+ * by the record type (see {@link #addressLength(int)}). The byte count field is not stored, it is derived from the
+ * address width and the length of the data block.
+ * <p>
+ * Instances are immutable. Two records are equal if their type, address and data are equal.
+ *
+ * @author Andreas Wälchli
+ * @see <a href="https://en.wikipedia.org/wiki/SREC_(file_format)">SREC file format</a>
+ * @since 0.1.0
+ */
+public final class SRecord {
+
+    private final int type;
+    private final long address;
+    private final byte @NotNull [] data;
+
+    /**
+     * Creates a new SRecord.
+     *
+     * @param type    The record type. Range: 0-9, except for the reserved type 4.
+     * @param address The address field. Must fit into the address width of the record type.
+     * @param data    The data block. May not be null. Length: 0 up to {@link #maxDataLength(int)}.
+     * @implNote The provided data array is copied to ensure immutability of the newly created instance.
+     */
+    public SRecord(int type, long address, byte @NotNull [] data) {
+        this(type, address, data, true);
+    }
+
+    /**
+     * Creates a new SRecord, optionally taking ownership of the data array.
+     *
+     * @param copy if false, the record takes ownership of the data array instead of copying it.
+     *             The caller must not modify the array afterward.
+     */
+    SRecord(int type, long address, byte @NotNull [] data, boolean copy) {
+        int addressLength = addressLength(type);
+        if (address < 0 || address >= 1L << (8 * addressLength)) {
+            throw new IllegalArgumentException("invalid value for address field, must fit into " + addressLength + " bytes");
+        }
+        Objects.requireNonNull(data, "data may not be null");
+        if (data.length > maxDataLength(type)) {
+            throw new IllegalArgumentException("data block too large");
+        }
+
+        this.type = type;
+        this.address = address;
+        this.data = copy ? Arrays.copyOf(data, data.length) : data;
+    }
+
+    /**
+     * Returns the width of the address field of a record type.
+     *
+     * @param type the record type. Range: 0-9, except for the reserved type 4.
+     * @return the width of the address field in bytes: 2 for S0, S1, S5 and S9, 3 for S2, S6 and S8, 4 for S3 and S7.
+     * @throws IllegalArgumentException if the type is invalid
+     */
+    public static int addressLength(int type) {
+        return switch (type) {
+            case 0, 1, 5, 9 -> 2;
+            case 2, 6, 8 -> 3;
+            case 3, 7 -> 4;
+            default -> throw new IllegalArgumentException("invalid value for type field, must be between 0 and 9, except 4");
+        };
+    }
+
+    /**
+     * Returns the maximum length of the data block of a record type.
+     * The byte count field limits a record to 255 bytes, including the address field and the checksum.
+     *
+     * @param type the record type. Range: 0-9, except for the reserved type 4.
+     * @return the maximum length of the data block
+     * @throws IllegalArgumentException if the type is invalid
+     */
+    public static int maxDataLength(int type) {
+        return 255 - 1 - addressLength(type);
+    }
+
+    /**
+     * Returns the type of the record.
+     *
+     * @return the record type
+     */
+    public int type() {
+        return type;
+    }
+
+    /**
+     * Returns the address field of the record.
+     *
+     * @return the address field
+     */
+    public long address() {
+        return address;
+    }
+
+    /**
+     * Returns a copy of the data block of this record.
+     *
+     * @return a <b>copy</b> of the data block.
+     * @implNote A new copy is provided to ensure immutability of this instance.
+     * It is therefore not recommended to call this method too frequently. Use {@link #dataBuffer()} to access the data
+     * without copying it.
+     */
+    @Contract(value = " -> new", pure = true)
+    public byte @NotNull [] data() {
+        return Arrays.copyOf(data, data.length);
+    }
+
+    /**
+     * Returns a read-only view of the data block of this record.
+     * <p>
+     * The data is not copied. Every invocation returns a new view, positioned at the start of the data block.
+     *
+     * @return a read-only buffer containing the data block
+     */
+    @Contract(value = " -> new", pure = true)
+    public @NotNull ByteBuffer dataBuffer() {
+        return ByteBuffer.wrap(data).asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns the length of the data block of this record.
+     *
+     * @return the length
+     */
+    public int length() {
+        return data.length;
+    }
+
+    /**
+     * Returns the data block of this record without copying it.
+     * The returned array must not be modified.
+     */
+    byte @NotNull [] internalData() {
+        return data;
+    }
+
+    /**
+     * Calculates the checksum for this record.
+     *
+     * @return the valid checksum
+     */
+    @Contract(pure = true)
+    public int calculateChecksum() {
+        int addressLength = addressLength(type);
+        int sum = addressLength + data.length + 1;
+        for (int i = 0; i < addressLength; i++) {
+            sum += (int) (address >>> (8 * i)) & 0xff;
+        }
+        sum += HexDigits.decoder().sum(data, 0, data.length);
+        return ~sum & 0xff;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SRecord other)) {
+            return false;
+        }
+        return type == other.type && address == other.address && Arrays.equals(data, other.data);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * type + Long.hashCode(address)) + Arrays.hashCode(data);
+    }
+
+    @Override
+    public String toString() {
+        return "SRecord(type=%d, address=%d, length=%d)".formatted(type, address, data.length);
+    }
+
+}
@@ -0,0 +1,17 @@
+package ch.awae.binfiles.srec;
+
+/**
+ * Exception class indicating a format-level processing error in the {@link SRecordFileReader}.
+ *
+ * @author Andreas Wälchli
+ * @since 0.1.0
+ */
+public class SRecordFileParsingException extends RuntimeException {
+    public SRecordFileParsingException(String message) {
+        super(message);
+    }
+
+    public SRecordFileParsingException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
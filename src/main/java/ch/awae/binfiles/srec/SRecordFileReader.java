@@ -0,0 +1,211 @@
+package ch.awae.binfiles.srec;
+
+import ch.awae.binfiles.BinaryFile;
+import ch.awae.binfiles.DataFragment;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Reader for reading {@link BinaryFile}s from S-record files (S19, S28 and S37).
+ * <p>
+ * Every file consists of an optional header record (S0), any number of data records (S1, S2 or S3) and count records
+ * (S5 or S6), and is terminated by a termination record (S7, S8 or S9). The content of the header record is available
+ * through {@link #getHeader()} after reading the file. Count records are validated against the number of data records
+ * read so far. The start address of the termination record is ignored.
+ *
+ * @author Andreas Wälchli
+ * @since 0.1.0
+ */
+public class SRecordFileReader implements Closeable {
+
+    private enum Status {ALIVE, COMPLETED, CLOSED, READER_ERROR, IO_ERROR}
+
+    private final SRecordReader recordReader;
+    private Status status = Status.ALIVE;
+    private byte @Nullable [] header;
+
+    /**
+     * Creates a new reader instance
+     *
+     * @param reader the record reader to read from. may not be null.
+     */
+    public SRecordFileReader(@NotNull SRecordReader reader) {
+        this.recordReader = Objects.requireNonNull(reader, "reader may not be null");
+    }
+
+    /**
+     * Creates a new reader instance
+     *
+     * @param stream the input stream to read from. may not be null.
+     * @implNote A {@link SRecordReader} with read-ahead is constructed internally. The stream may therefore be
+     * consumed past the end of the last file read.
+     */
+    public SRecordFileReader(@NotNull InputStream stream) {
+        this.recordReader = new SRecordReader(Objects.requireNonNull(stream, "stream may not be null"),
+                SRecordReader.DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a new reader instance reading a file.
+     *
+     * @param path the file to read. may not be null.
+     * @return a new reader instance
+     * @throws IOException if the file cannot be opened.
+     * @implNote The file is mapped into memory and parsed directly from the mapped buffer.
+     * See {@link SRecordReader#open(Path)}.
+     */
+    public static @NotNull SRecordFileReader open(@NotNull Path path) throws IOException {
+        return new SRecordFileReader(SRecordReader.open(path));
+    }
+
+    /**
+     * Returns the content of the header record (S0) of the file returned by the last call to {@link #read()}.
+     *
+     * @return a copy of the header data, or null if the file had no header record or no file has been read yet.
+     */
+    public byte @Nullable [] getHeader() {
+        return header != null ? header.clone() : null;
+    }
+
+    /**
+     * Read the next full file from the underlying reader / stream.
+     * <p>
+     * The returned file will have the smallest size that is a power of 2 that fits the entire contents.
+     * <p>
+     * If any parsing error occurs while reading a record, a {@link SRecordFileParsingException} is thrown.
+     * Parsing errors can be:
+     * <ul>
+     *     <li>The underlying reader throws a {@link SRecordParsingException}</li>
+     *     <li>A header record is encountered after other records of the same file</li>
+     *     <li>A count record does not match the number of data records</li>
+     *     <li>The end of the stream is reached unexpectedly</li>
+     * </ul>
+     * If a parsing error occurs, any further reads will also cause a {@link SRecordFileParsingException} to be thrown.
+     * <p>
+     * If an {@link IOException} is thrown at any time, any further reads will also throw an {@link IOException}.
+     *
+     * @return the next file or null, if the end of the stream has been reached.
+     * @throws IOException                 if any I/O exception occurs in the underlying stream, or if this reader has already been closed.
+     * @throws SRecordFileParsingException if any parsing error occurs
+     **/
+    public @Nullable BinaryFile read() throws IOException {
+        if (status == Status.COMPLETED) {
+            return null;
+        }
+        if (status == Status.CLOSED) {
+            throw new IOException("reader already closed");
+        }
+        if (status == Status.IO_ERROR) {
+            throw new IOException("reader invalid due to previous IOException");
+        }
+        if (status == Status.READER_ERROR) {
+            throw new SRecordFileParsingException("reader invalid due to previous exception");
+        }
+        try {
+            BinaryFile result = doRead();
+            if (result == null) {
+                status = Status.COMPLETED;
+            }
+            return result;
+        } catch (IOException e) {
+            status = Status.IO_ERROR;
+            throw e;
+        } catch (SRecordFileParsingException e) {
+            status = Status.READER_ERROR;
+            throw e;
+        } catch (SRecordParsingException e) {
+            status = Status.READER_ERROR;
+            throw new SRecordFileParsingException(e.getMessage(), e);
+        }
+    }
+
+    private BinaryFile doRead() throws IOException {
+        header = null;
+        List<DataFragment> fragments = collectFileFragments();
+        if (fragments == null) {
+            return null;
+        }
+
+        // determine the min file size necessary to fit everything
+        long minSize = 0;
+        for (DataFragment fragment : fragments) {
+            minSize = Math.max(minSize, fragment.getPosition() + fragment.getLength());
+        }
+
+        // calculate the smallest power of 2 to fit everything
+        long fileSize = 1;
+        while (fileSize < minSize) {
+            fileSize *= 2;
+        }
+
+        return new BinaryFile(fileSize, fragments);
+    }
+
+    private List<DataFragment> collectFileFragments() throws IOException {
+        List<DataFragment> fragments = new ArrayList<>();
+        boolean started = false;
+        long dataRecords = 0;
+
+        while (true) {
+            SRecord record = recordReader.readNext();
+            if (record == null && !started) {
+                // end of stream before file starts, simply close.
+                return null;
+            } else if (record == null) {
+                // end of stream before file end -> ERROR
+                throw new SRecordFileParsingException("unexpected end of stream");
+            }
+
+            switch (record.type()) {
+                case 0 -> {
+                    if (started) {
+                        throw new SRecordFileParsingException("unexpected header record");
+                    }
+                    header = record.internalData();
+                }
+                case 1, 2, 3 -> {
+                    dataRecords++;
+                    if (record.length() > 0) {
+                        if (record.address() + record.length() > BinaryFile.MAX_SIZE) {
+                            throw new SRecordFileParsingException("data record exceeds the 32-bit address space");
+                        }
+                        fragments.add(new DataFragment(record.address(), record.internalData()));
+                    }
+                }
+                case 5, 6 -> {
+                    if (record.address() != dataRecords) {
+                        throw new SRecordFileParsingException("record count mismatch: expected "
+                                + record.address() + " data records, found " + dataRecords);
+                    }
+                }
+                default -> {
+                    // termination records (S7, S8, S9), the start address is ignored
+                    return fragments;
+                }
+            }
+            started = true;
+        }
+    }
+
+    /**
+     * Closes the underlying stream.
+     *
+     * @throws IOException if any I/O exception occurs in the underlying stream.
+     */
+    @Override
+    public void close() throws IOException {
+        if (status != Status.CLOSED) {
+            status = Status.CLOSED;
+            recordReader.close();
+        }
+    }
+
+}
@@ -0,0 +1,142 @@
+package ch.awae.binfiles.srec;
+
+import ch.awae.binfiles.BinaryFile;
+import ch.awae.binfiles.DataFragment;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.Objects;
+
+/**
+ * Writer for writing {@link BinaryFile} instances as S-record files.
+ * <p>
+ * The address width is chosen by the {@link BinaryFile#getCurrentSize() current size} of the file: files fitting into
+ * 64 KiB are written as S19 (S1 data and S9 termination records), files fitting into 16 MiB as S28 (S2 / S8) and all
+ * larger files as S37 (S3 / S7). Every file is optionally preceded by a header record (S0), and the data records are
+ * followed by a count record (S5 or S6) unless there are too many data records to be counted in 24 bits.
+ * The termination record always holds a start address of 0.
+ *
+ * @author Andreas Wälchli
+ * @since 0.1.0
+ */
+public class SRecordFileWriter implements Closeable {
+
+    /**
+     * The maximum length of a single data record. This is the limit for S3 records, the widest data record type.
+     */
+    public static final int MAX_RECORD_LENGTH = 250;
+
+    private final SRecordWriter writer;
+
+    /**
+     * Creates a new writer instance.
+     * <p>
+     * Individual records will be terminated with a line break ('\n').
+     *
+     * @param stream The output stream to write to. May not be null.
+     * @implNote A buffering {@link SRecordWriter} is constructed internally. Its buffer is written to the stream
+     * after every file.
+     */
+    public SRecordFileWriter(@NotNull OutputStream stream) {
+        this.writer = new SRecordWriter(Objects.requireNonNull(stream, "stream must not be null"),
+                new byte[]{'\n'}, SRecordWriter.DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a new writer instance.
+     *
+     * @param writer the record writer to write to. May not be null.
+     */
+    public SRecordFileWriter(@NotNull SRecordWriter writer) {
+        this.writer = Objects.requireNonNull(writer, "writer must not be null");
+    }
+
+    /**
+     * Writes a {@link BinaryFile} without a header record and with a maximum record length of 16.
+     *
+     * @param file the file to write
+     * @throws IOException if an I/O exception occurs in the underlying stream.
+     */
+    public void write(@NotNull BinaryFile file) throws IOException {
+        write(file, 16, null);
+    }
+
+    /**
+     * Writes a {@link BinaryFile} without a header record and with a customizable recordLength.
+     *
+     * @param file         the file to write
+     * @param recordLength the maximum length of a single data record. Range: 1-250.
+     * @throws IOException if an I/O exception occurs in the underlying stream.
+     */
+    public void write(@NotNull BinaryFile file, int recordLength) throws IOException {
+        write(file, recordLength, null);
+    }
+
+    /**
+     * Writes a {@link BinaryFile} with an optional header record and a customizable recordLength.
+     *
+     * @param file         the file to write
+     * @param recordLength the maximum length of a single data record. Range: 1-250.
+     * @param header       the content of the header record, usually a module name. if null, no header record is
+     *                     written. Length: 0-252.
+     * @throws IOException if an I/O exception occurs in the underlying stream.
+     * @implNote The records that are written are calculated directly from the {@link DataFragment}s returned by
+     * iterating over the file with an iterator with the corresponding step size. (see {@link BinaryFile#iterator(int)})
+     */
+    public void write(@NotNull BinaryFile file, int recordLength, byte @Nullable [] header) throws IOException {
+        if (recordLength < 1 || recordLength > MAX_RECORD_LENGTH) {
+            throw new IllegalArgumentException("record length must be between 1 and " + MAX_RECORD_LENGTH);
+        }
+        if (header != null && header.length > SRecord.maxDataLength(0)) {
+            throw new IllegalArgumentException("header too long");
+        }
+
+        long size = file.getCurrentSize();
+        int dataType = size <= 0x10000 ? 1 : size <= 0x1000000 ? 2 : 3;
+
+        if (header != null) {
+            writer.write(0, 0, ByteBuffer.wrap(header), 0, header.length);
+        }
+        long records = 0;
+        Iterator<DataFragment> iterator = file.iterator(recordLength);
+        while (iterator.hasNext()) {
+            DataFragment fragment = iterator.next();
+            ByteBuffer data = fragment.getDataBuffer();
+            writer.write(dataType, fragment.getPosition(), data, 0, data.limit());
+            records++;
+        }
+        if (records <= 0xffff) {
+            writer.write(5, records, ByteBuffer.allocate(0), 0, 0);
+        } else if (records <= 0xffffff) {
+            writer.write(6, records, ByteBuffer.allocate(0), 0, 0);
+        }
+        // S7 for S3, S8 for S2, S9 for S1
+        writer.write(10 - dataType, 0, ByteBuffer.allocate(0), 0, 0);
+        writer.flushBuffer();
+    }
+
+    /**
+     * Flushes and closes the underlying stream.
+     *
+     * @throws IOException if any I/O exception occurs in the underlying stream.
+     */
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    /**
+     * Flushes the underlying stream.
+     *
+     * @throws IOException if any I/O exception occurs in the underlying stream.
+     */
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+}
@@ -0,0 +1,13 @@
+package ch.awae.binfiles.srec;
+
+/**
+ * Exception class indicating a format-level processing error in the {@link SRecordReader}.
+ *
+ * @author Andreas Wälchli
+ * @since 0.1.0
+ */
+public class SRecordParsingException extends RuntimeException {
+    public SRecordParsingException(String message) {
+        super(message);
+    }
+}
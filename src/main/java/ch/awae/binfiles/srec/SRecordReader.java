@@ -0,0 +1,226 @@
+package ch.awae.binfiles.srec;
+
+import ch.awae.binfiles.internal.RecordInput;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Reader for reading {@link SRecord}s from an {@link InputStream}, a {@link ByteBuffer} or a file.
+ * <p>
+ * The records are decoded with the same buffering and lookup tables as the Intel HEX
+ * {@link ch.awae.binfiles.hex.HexRecordReader}, i.e. directly from the input buffer without intermediate copies.
+ *
+ * @author Andreas Wälchli
+ * @since 0.1.0
+ */
+public class SRecordReader implements Closeable {
+
+    enum State {VALID, COMPLETED, CLOSED, IO_ERROR, PARSING_ERROR}
+
+    /**
+     * The default buffer size for readers with read-ahead.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    /**
+     * The maximum length of a single record in characters, excluding the record mark.
+     */
+    private static final int MAX_RECORD_LENGTH = 1 + 2 + 2 * 255;
+
+    private final RecordInput input;
+    private State state = State.VALID;
+
+    /**
+     * Creates a new reader instance
+     * <p>
+     * The reader does not read ahead, i.e. the stream is never consumed past the last byte of the last returned record.
+     * If this guarantee is not required, {@link #SRecordReader(InputStream, int)} should be preferred, as it performs
+     * significantly fewer read operations on the stream.
+     *
+     * @param stream the input stream to read from. may not be null.
+     */
+    public SRecordReader(@NotNull InputStream stream) {
+        Objects.requireNonNull(stream, "stream may not be null");
+        this.input = new RecordInput(stream, MAX_RECORD_LENGTH, false);
+    }
+
+    /**
+     * Creates a new reader instance reading ahead in chunks of up to {@code bufferSize} bytes.
+     * <p>
+     * Reading ahead means that the stream may be consumed past the last byte of the last returned record.
+     * The stream should therefore not be used outside this reader.
+     *
+     * @param stream     the input stream to read from. may not be null.
+     * @param bufferSize the size of the internal buffer. must be at least 1024.
+     * @see #DEFAULT_BUFFER_SIZE
+     */
+    public SRecordReader(@NotNull InputStream stream, int bufferSize) {
+        Objects.requireNonNull(stream, "stream may not be null");
+        if (bufferSize < 1024) {
+            throw new IllegalArgumentException("bufferSize must be at least 1024");
+        }
+        this.input = new RecordInput(stream, bufferSize, true);
+    }
+
+    private SRecordReader(@NotNull ByteBuffer buffer) {
+        this.input = new RecordInput(buffer);
+    }
+
+    /**
+     * Creates a new reader instance reading the remaining content of a buffer.
+     * <p>
+     * The records are decoded directly from the buffer, without any intermediate copies.
+     * The position of the provided buffer is not modified.
+     *
+     * @param buffer the buffer to read from. may not be null.
+     * @return a new reader instance
+     */
+    public static @NotNull SRecordReader wrap(@NotNull ByteBuffer buffer) {
+        return new SRecordReader(Objects.requireNonNull(buffer, "buffer may not be null"));
+    }
+
+    /**
+     * Creates a new reader instance reading a file.
+     * <p>
+     * The file is mapped into memory and the records are decoded directly from the mapped buffer.
+     *
+     * @param path the file to read. may not be null.
+     * @return a new reader instance
+     * @throws IOException if the file cannot be opened or mapped, or if it is larger than 2 GiB.
+     */
+    public static @NotNull SRecordReader open(@NotNull Path path) throws IOException {
+        return new SRecordReader(RecordInput.map(path));
+    }
+
+    /**
+     * closes the underlying InputStream, if there is one
+     *
+     * @throws IOException if any I/O exception occurs
+     */
+    @Override
+    public void close() throws IOException {
+        if (state != State.CLOSED) {
+            state = State.CLOSED;
+            input.close();
+        }
+    }
+
+    /**
+     * Read the next S-record from the underlying stream.
+     * <p>
+     * While "looking" for the next record, any characters will be ignored until a record start ('S') is found.
+     * Unless the reader has been created with read-ahead, it is guaranteed that - after returning a record - the input
+     * stream has been consumed <i>exactly</i> up to and including the last byte of that record.
+     * <p>
+     * If any parsing error occurs while reading a record, a {@link SRecordParsingException} is thrown.
+     * Parsing errors can be:
+     * <ul>
+     *     <li>InputStream ending unexpectedly in the middle of a record</li>
+     *     <li>A record has an invalid or reserved type</li>
+     *     <li>A record has a byte count too small for its address field</li>
+     *     <li>A record has an invalid checksum</li>
+     *     <li>Any characters within a record are invalid and cannot be parsed as hexadecimal numbers</li>
+     * </ul>
+     * If a parsing error occurs, any further reads will also cause a {@link SRecordParsingException} to be thrown.
+     * <p>
+     * If an {@link IOException} is thrown at any time, any further reads will also throw an {@link IOException}.
+     *
+     * @return the next record or null, if the end of the stream has been reached.
+     * @throws IOException             if any I/O exception occurs in the underlying stream, or if this reader has already been closed.
+     * @throws SRecordParsingException if any parsing error occurs
+     **/
+    public @Nullable SRecord readNext() throws IOException {
+        if (state == State.CLOSED) {
+            throw new IOException("reader already closed");
+        }
+        if (state == State.IO_ERROR) {
+            throw new IOException("reader invalid due to previous IOException");
+        }
+        if (state == State.PARSING_ERROR) {
+            throw new SRecordParsingException("reader invalid due to previous exception");
+        }
+        if (state == State.COMPLETED) {
+            return null;
+        }
+        try {
+            SRecord result = doRead();
+            if (result == null) {
+                state = State.COMPLETED;
+            }
+            return result;
+        } catch (IOException e) {
+            state = State.IO_ERROR;
+            throw e;
+        } catch (SRecordParsingException e) {
+            state = State.PARSING_ERROR;
+            throw e;
+        }
+    }
+
+    private SRecord doRead() throws IOException {
+        // step 1: seek forward to next "record start marker" (S)
+        if (!input.seek((byte) 'S')) {
+            // normal stream termination -> no more records
+            return null;
+        }
+
+        // step 2: read type and byte count fields and make sure the full record is buffered
+        if (!input.fill(3)) {
+            throw new SRecordParsingException("unexpected end of stream");
+        }
+        byte typeChar = input.nextChar();
+        int type = typeChar - '0';
+        if (type < 0 || type > 9 || type == 4) {
+            throw new SRecordParsingException("parsing error: invalid record type 'S" + (char) (typeChar & 0xff) + "'");
+        }
+        int count = nextByte();
+        int addressLength = SRecord.addressLength(type);
+        if (count < addressLength + 1) {
+            throw new SRecordParsingException("byte count too small for record type S" + type);
+        }
+        if (!input.fill(2 * count)) {
+            throw new SRecordParsingException("unexpected end of stream");
+        }
+
+        // step 3: decode the record, verifying the checksum on the fly
+        int sum = count;
+        long address = 0;
+        for (int i = 0; i < addressLength; i++) {
+            int value = nextByte();
+            address = (address << 8) | value;
+            sum += value;
+        }
+        byte[] data = new byte[count - addressLength - 1];
+        int dataSum = input.decode(data, 0, data.length);
+        if (dataSum < 0) {
+            // the data block contains invalid digits, locate them for the error message
+            for (int i = 0; i < data.length; i++) {
+                nextByte();
+            }
+        }
+        sum += dataSum + nextByte();
+        if ((sum & 0xff) != 0xff) {
+            throw new SRecordParsingException("bad checksum in record");
+        }
+        return new SRecord(type, address, data, false);
+    }
+
+    /**
+     * decodes the next two buffered characters into a byte value.
+     * The caller must ensure the characters are available in the buffer.
+     */
+    private int nextByte() {
+        int value = input.nextByte();
+        if (value < 0) {
+            throw new SRecordParsingException("parsing error: invalid hex digits '" + input.peek(2) + "'");
+        }
+        return value;
+    }
+}
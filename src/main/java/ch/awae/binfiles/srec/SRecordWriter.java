@@ -0,0 +1,250 @@
+package ch.awae.binfiles.srec;
+
+import ch.awae.binfiles.internal.HexDigits;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Writer for writing {@link SRecord} instances to an {@link OutputStream}.
+ * <p>
+ * After writing a single record, a customizable separator string (e.g. a line-break) can be written to the stream.
+ *
+ * @author Andreas Wälchli
+ * @since 0.1.0
+ */
+public class SRecordWriter implements Closeable {
+
+    /**
+     * The maximum length of a single encoded record, including the record mark.
+     */
+    private static final int MAX_RECORD_LENGTH = 2 + 2 + 2 * 255;
+
+    /**
+     * The default buffer size for buffering writers.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final OutputStream stream;
+    private final byte[] separator;
+    private final boolean buffered;
+    private final byte[] buffer;
+    private int count = 0;
+
+    /**
+     * Creates a new Writer instance writing to the provided OutputStream.
+     * <p>
+     * A separator sequence can be provided. This byte sequence will be written at the end of every record.
+     * If no separator sequence is provided, a subsequent record will immediately follow a preceding one.
+     *
+     * @param stream    The stream to write to. May not be null.
+     * @param separator The separator byte sequence to be written at the end of every record.
+     *                  May not contain the byte value 83 (0x53 / 'S'). May be null.
+     * @apiNote The byte value 83 is forbidden in the separator, as this is the <em>record mark</em>,
+     * i.e. the starting byte of a new record.
+     * @implNote Internally a <b>copy</b> of the provided separator is stored. This ensured immutability.
+     */
+    public SRecordWriter(@NotNull OutputStream stream, byte @Nullable [] separator) {
+        this.stream = Objects.requireNonNull(stream);
+        this.separator = validateSeparator(separator);
+        this.buffered = false;
+        this.buffer = new byte[MAX_RECORD_LENGTH + (this.separator != null ? this.separator.length : 0)];
+    }
+
+    /**
+     * Creates a new buffering Writer instance writing to the provided OutputStream.
+     * <p>
+     * Records are encoded into an internal buffer of the given size, which is only written to the stream once it is
+     * full, or when the writer is flushed or closed. Apart from that, this writer behaves like one created with
+     * {@link #SRecordWriter(OutputStream, byte[])}.
+     *
+     * @param stream     The stream to write to. May not be null.
+     * @param separator  The separator byte sequence to be written at the end of every record.
+     *                   May not contain the byte value 83 (0x53 / 'S'). May be null.
+     * @param bufferSize The size of the internal buffer. Must be at least 1024.
+     * @see #DEFAULT_BUFFER_SIZE
+     */
+    public SRecordWriter(@NotNull OutputStream stream, byte @Nullable [] separator, int bufferSize) {
+        this.stream = Objects.requireNonNull(stream);
+        if (bufferSize < 1024) {
+            throw new IllegalArgumentException("bufferSize must be at least 1024");
+        }
+        this.separator = validateSeparator(separator);
+        this.buffered = true;
+        this.buffer = new byte[bufferSize];
+    }
+
+    private static byte @Nullable [] validateSeparator(byte @Nullable [] separator) {
+        if (separator == null || separator.length == 0) {
+            return null;
+        }
+        for (int i = 0; i < separator.length; i++) {
+            if (separator[i] == 83) {
+                throw new IllegalArgumentException("separator may not contain byte value 83. encountered value at position " + i);
+            }
+        }
+        return Arrays.copyOf(separator, separator.length);
+    }
+
+    /**
+     * Creates a new Writer instance writing to the provided OutputStream.
+     * <p>
+     * A separator string can be provided. This string will be written at the end of every record.
+     * If no separator string is provided, a subsequent record will immediately follow a preceding one.
+     *
+     * @param stream    The stream to write to. May not be null.
+     * @param separator The separator string to be written at the end of every record.
+     *                  May not contain the character 'S'. May be null.
+     * @apiNote The character 'S' is forbidden in the separator as this is the <em>record mark</em>,
+     * i.e. the starting byte of a new record.
+     */
+    public SRecordWriter(@NotNull OutputStream stream, @Nullable String separator) {
+        this(stream, separator != null ? separator.getBytes(StandardCharsets.US_ASCII) : null);
+    }
+
+    /**
+     * Creates a new Writer instance writing to the provided OutputStream.
+     * <p>
+     * A single line-break character ('\n') is used as a separator.
+     *
+     * @param stream The stream to write to. May not be null.
+     */
+    public SRecordWriter(@NotNull OutputStream stream) {
+        this(stream, "\n");
+    }
+
+    /**
+     * Writes a {@link SRecord} to the stream, followed by the configured separator sequence.
+     *
+     * @param record The record to write. May not be null.
+     * @throws IOException Any I/O exception occurs in the underlying stream.
+     */
+    public void write(@NotNull SRecord record) throws IOException {
+        Objects.requireNonNull(record, "record must not be null");
+        byte[] data = record.internalData();
+
+        int addressLength = SRecord.addressLength(record.type());
+        int sum = beginRecord(record.type(), record.address(), addressLength, data.length);
+        int position = count + 4 + 2 * addressLength;
+        for (byte b : data) {
+            HexDigits.encode(b, buffer, position);
+            sum += b & 0xff;
+            position += 2;
+        }
+        endRecord(position, sum);
+    }
+
+    /**
+     * Writes a record with data taken from a range of a buffer, without creating a {@link SRecord} instance.
+     * The arguments are not validated, the caller must ensure they are valid for a record.
+     *
+     * @param type    the record type
+     * @param address the address field
+     * @param data    the buffer holding the data. its position is ignored and not modified.
+     * @param offset  the absolute index of the first data byte in the buffer
+     * @param length  the number of data bytes
+     */
+    void write(int type, long address, @NotNull ByteBuffer data, int offset, int length) throws IOException {
+        int addressLength = SRecord.addressLength(type);
+        int sum = beginRecord(type, address, addressLength, length);
+        int position = count + 4 + 2 * addressLength;
+        for (int i = offset; i < offset + length; i++) {
+            byte b = data.get(i);
+            HexDigits.encode(b, buffer, position);
+            sum += b & 0xff;
+            position += 2;
+        }
+        endRecord(position, sum);
+    }
+
+    /**
+     * writes the record mark, type, byte count and address fields to the buffer.
+     *
+     * @return the checksum of the byte count and address fields
+     */
+    private int beginRecord(int type, long address, int addressLength, int length) throws IOException {
+        if (buffer.length - count < MAX_RECORD_LENGTH) {
+            flushBuffer();
+        }
+        int byteCount = addressLength + length + 1;
+        buffer[count] = 'S';
+        buffer[count + 1] = (byte) ('0' + type);
+        HexDigits.encode(byteCount, buffer, count + 2);
+        int sum = byteCount;
+        for (int i = 0; i < addressLength; i++) {
+            int value = (int) (address >>> (8 * (addressLength - 1 - i))) & 0xff;
+            HexDigits.encode(value, buffer, count + 4 + 2 * i);
+            sum += value;
+        }
+        return sum;
+    }
+
+    /**
+     * writes the checksum and separator to the buffer.
+     *
+     * @param position the position behind the last data byte in the buffer
+     * @param sum      the checksum of all previous fields
+     */
+    private void endRecord(int position, int sum) throws IOException {
+        HexDigits.encode(~sum, buffer, position);
+        count = position + 2;
+
+        if (separator != null) {
+            if (buffer.length - count < separator.length) {
+                // only possible for buffering writers with very long separators
+                flushBuffer();
+                stream.write(separator);
+            } else {
+                System.arraycopy(separator, 0, buffer, count, separator.length);
+                count += separator.length;
+            }
+        }
+        if (!buffered) {
+            flushBuffer();
+        }
+    }
+
+    /**
+     * Writes any buffered records to the stream, without flushing the stream itself.
+     */
+    void flushBuffer() throws IOException {
+        if (count > 0) {
+            stream.write(buffer, 0, count);
+            count = 0;
+        }
+    }
+
+    /**
+     * Flushes and closes the underlying stream.
+     *
+     * @throws IOException if any I/O exception occurs in the underlying stream.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flushBuffer();
+            stream.flush();
+        } finally {
+            // try to close the stream no matter what
+            stream.close();
+        }
+    }
+
+    /**
+     * Flushes the underlying stream.
+     *
+     * @throws IOException if any I/O exception occurs in the underlying stream.
+     */
+    public void flush() throws IOException {
+        flushBuffer();
+        this.stream.flush();
+    }
+
+}
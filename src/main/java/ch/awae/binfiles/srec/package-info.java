@@ -0,0 +1,7 @@
+/**
+ * This package contains read and write logic for reading and writing {@link ch.awae.binfiles.BinaryFile} instances
+ * from or to Motorola S-record files (S19, S28 and S37).
+ *
+ * @see <a href="https://en.wikipedia.org/wiki/SREC_(file_format)">SREC file format</a>
+ */
+package ch.awae.binfiles.srec;
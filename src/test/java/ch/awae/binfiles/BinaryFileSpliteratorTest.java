@@ -0,0 +1,101 @@
+package ch.awae.binfiles;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryFileSpliteratorTest {
+
+    private static BinaryFile randomFile() {
+        Random random = new Random(5);
+        BinaryFile file = new BinaryFile(1 << 20);
+        for (int i = 0; i < 300; i++) {
+            byte[] data = new byte[1 + random.nextInt(1000)];
+            random.nextBytes(data);
+            file.addFragment(new DataFragment(i * 3000L + random.nextInt(1000), data));
+        }
+        return file;
+    }
+
+    private static List<String> describe(Iterator<DataFragment> iterator) {
+        List<String> result = new ArrayList<>();
+        iterator.forEachRemaining(fragment -> result.add(fragment.getPosition() + "+" + fragment.getLength()));
+        return result;
+    }
+
+    private static List<String> describe(List<DataFragment> fragments) {
+        return describe(fragments.iterator());
+    }
+
+    @Test
+    public void testStreamMatchesIterator() {
+        BinaryFile file = randomFile();
+        for (int step : new int[]{1, 16, 100, 4096}) {
+            List<String> expected = describe(file.iterator(step));
+            assertEquals(expected, describe(file.stream(step).toList()), "step " + step);
+            assertEquals(expected, describe(file.stream(step).parallel().toList()), "step " + step);
+        }
+        assertEquals(describe(file.iterator()), describe(file.stream().parallel().toList()));
+    }
+
+    @Test
+    public void testRangeStreamMatchesRangeIterator() {
+        BinaryFile file = randomFile();
+        List<String> expected = describe(file.iterator(64, 12345, 400000));
+        assertEquals(expected, describe(file.stream(64, 12345, 400000).parallel().toList()));
+        // beyond the current size
+        assertEquals(0, file.stream(64, (1 << 20) - 1000, 1000).parallel().count());
+    }
+
+    @Test
+    public void testSplitIsAlignedToStepSize() {
+        BinaryFile file = new BinaryFile(1024);
+        file.addFragment(new DataFragment(0, new byte[1000]));
+        Spliterator<DataFragment> suffix = file.stream(100).spliterator();
+        assertEquals(10, suffix.estimateSize());
+
+        Spliterator<DataFragment> prefix = suffix.trySplit();
+        assertNotNull(prefix);
+        assertEquals(5, prefix.estimateSize());
+        assertEquals(5, suffix.estimateSize());
+        List<DataFragment> fragments = new ArrayList<>();
+        prefix.forEachRemaining(fragments::add);
+        assertEquals(5, fragments.size());
+        assertEquals(400, fragments.get(4).getPosition());
+        assertTrue(suffix.tryAdvance(fragment -> assertEquals(500, fragment.getPosition())));
+        // the traversal has started
+        assertNull(suffix.trySplit());
+    }
+
+    @Test
+    public void testCharacteristics() {
+        Spliterator<DataFragment> spliterator = randomFile().spliterator();
+        assertTrue(spliterator.hasCharacteristics(Spliterator.ORDERED));
+        assertTrue(spliterator.hasCharacteristics(Spliterator.NONNULL));
+        // the number of fragments is unknown until the file has been scanned
+        assertFalse(spliterator.hasCharacteristics(Spliterator.SIZED));
+    }
+
+    @Test
+    public void testEmptyFile() {
+        BinaryFile file = new BinaryFile();
+        assertEquals(0, file.stream().parallel().count());
+        assertEquals(0, file.spliterator().estimateSize());
+        assertNull(file.spliterator().trySplit());
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        BinaryFile file = new BinaryFile(256);
+        assertThrows(IllegalArgumentException.class, () -> file.stream(0));
+        assertThrows(IllegalArgumentException.class, () -> file.stream(1, 0, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> file.stream(1, 200, 100));
+    }
+
+}
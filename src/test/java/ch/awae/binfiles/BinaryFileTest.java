@@ -3,7 +3,11 @@ package ch.awae.binfiles;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.Test;
 
+import java.nio.ByteOrder;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.zip.CRC32;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -44,6 +48,9 @@ public class BinaryFileTest {
         DataFragment fragment2 = new DataFragment(102, new byte[]{12, 13, 14, 15});
         file.addFragment(fragment1);
         assertThrows(IllegalStateException.class, () -> file.addFragment(fragment2));
+        // the colliding fragment must not have been added partially
+        assertNull(file.getByte(104));
+        assertEquals(104, file.getCurrentSize());
     }
 
     @Test
@@ -140,4 +147,200 @@ public class BinaryFileTest {
         assertEquals(23, d2[0]);
     }
 
+    @Test
+    public void testLargeSparseFile() {
+        BinaryFile file = new BinaryFile(BinaryFile.MAX_SIZE);
+        file.addFragment(new DataFragment(0x0800_0000L, new byte[]{1, 2, 3, 4}));
+        file.addFragment(new DataFragment(0xffff_fffcL, new byte[]{5, 6, 7, 8}));
+
+        assertEquals(BinaryFile.MAX_SIZE, file.getCurrentSize());
+        assertEquals((byte) 1, file.getByte(0x0800_0000L));
+        assertEquals((byte) 8, file.getByte(0xffff_ffffL));
+        assertNull(file.getByte(0x0800_0004L));
+
+        List<@NotNull DataFragment> fragments = file.getFragments(0x0800_0000L - 16, 64);
+        assertEquals(1, fragments.size());
+        assertEquals(0x0800_0000L, fragments.getFirst().getPosition());
+        assertEquals(4, fragments.getFirst().getLength());
+    }
+
+    @Test
+    public void testFragmentExtractionAcrossPages() {
+        BinaryFile file = new BinaryFile();
+        byte[] data = new byte[1000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        file.addFragment(new DataFragment(200, data));
+        file.addFragment(new DataFragment(1300, new byte[]{1}));
+
+        List<@NotNull DataFragment> fragments = file.getFragments(0, 65536);
+        assertEquals(2, fragments.size());
+        assertEquals(200, fragments.get(0).getPosition());
+        assertArrayEquals(data, fragments.get(0).getData());
+        assertEquals(1300, fragments.get(1).getPosition());
+        assertEquals(1, fragments.get(1).getLength());
+    }
+
+    @Test
+    public void testIteratingLargeSparseFile() {
+        BinaryFile file = new BinaryFile(BinaryFile.MAX_SIZE);
+        file.addFragment(new DataFragment(0x10, new byte[]{1, 2, 3, 4}));
+        file.addFragment(new DataFragment(0xffff_fffcL, new byte[]{5, 6, 7, 8}));
+
+        // empty regions must be skipped without visiting every slice
+        List<DataFragment> fragments = new ArrayList<>();
+        file.iterator(16).forEachRemaining(fragments::add);
+        assertEquals(2, fragments.size());
+        assertEquals(0x10, fragments.get(0).getPosition());
+        assertEquals(0xffff_fffcL, fragments.get(1).getPosition());
+    }
+
+    @Test
+    public void testAddBytes() {
+        BinaryFile file = new BinaryFile();
+        byte[] data = {0, 1, 2, 3, 4, 5, 6, 7};
+        file.addBytes(100, data, 2, 4);
+        assertEquals(104, file.getCurrentSize());
+        assertNull(file.getByte(99));
+        assertEquals((byte) 2, file.getByte(100));
+        assertEquals((byte) 5, file.getByte(103));
+        assertNull(file.getByte(104));
+
+        // empty ranges are ignored
+        file.addBytes(200, data, 8, 0);
+        assertEquals(104, file.getCurrentSize());
+
+        assertThrows(IndexOutOfBoundsException.class, () -> file.addBytes(0, data, 6, 4));
+        assertThrows(IndexOutOfBoundsException.class, () -> file.addBytes(65535, data, 0, 2));
+        assertThrows(IllegalStateException.class, () -> file.addBytes(98, data, 0, 4));
+        // nothing has been added by the failed call
+        assertNull(file.getByte(98));
+    }
+
+    @Test
+    public void testCreateWithExpectedLength() {
+        BinaryFile dense = new BinaryFile(1024, 1024);
+        BinaryFile sparse = new BinaryFile(BinaryFile.MAX_SIZE, 16);
+        dense.addBytes(0, new byte[1024], 0, 1024);
+        sparse.addBytes(0xffff_fff0L, new byte[16], 0, 16);
+        assertEquals(1024, dense.getCurrentSize());
+        assertEquals(BinaryFile.MAX_SIZE, sparse.getCurrentSize());
+    }
+
+    @Test
+    public void testIteratingRange() {
+        BinaryFile file = new BinaryFile();
+        file.addFragment(new DataFragment(10, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10}));
+        file.addFragment(new DataFragment(100, new byte[]{1}));
+
+        List<DataFragment> fragments = new ArrayList<>();
+        file.iterator(8, 12, 50).forEachRemaining(fragments::add);
+        // slices stay aligned to multiples of the step size, but are cut off at the start of the range
+        assertEquals(2, fragments.size());
+        assertEquals(12, fragments.get(0).getPosition());
+        assertEquals(4, fragments.get(0).getLength());
+        assertEquals(16, fragments.get(1).getPosition());
+        assertEquals(4, fragments.get(1).getLength());
+
+        // adjacent ranges cover the same data as the entire file
+        List<DataFragment> all = new ArrayList<>();
+        file.iterator(8, 0, 15).forEachRemaining(all::add);
+        file.iterator(8, 15, 65536 - 15).forEachRemaining(all::add);
+        assertEquals(4, all.size());
+        assertEquals(10, all.get(0).getPosition());
+        assertEquals(15, all.get(1).getPosition());
+        assertEquals(16, all.get(2).getPosition());
+        assertEquals(100, all.get(3).getPosition());
+    }
+
+    @Test
+    public void testIteratingInvalidRange() {
+        BinaryFile file = new BinaryFile();
+        assertThrows(IllegalArgumentException.class, () -> file.iterator(0, 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> file.iterator(8, 0, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> file.iterator(8, -1, 10));
+        assertThrows(IndexOutOfBoundsException.class, () -> file.iterator(8, 65530, 10));
+    }
+
+    @Test
+    public void testCopyTo() {
+        BinaryFile file = new BinaryFile(BinaryFile.MAX_SIZE);
+        file.addFragment(new DataFragment(0x10, new byte[]{1, 2, 3}));
+        file.addFragment(new DataFragment(0x1_0000, new byte[]{4, 5}));
+
+        byte[] target = new byte[8];
+        file.copyTo(0xe, target, 1, 6, (byte) -1);
+        assertArrayEquals(new byte[]{0, -1, -1, 1, 2, 3, -1, 0}, target);
+
+        // ranges crossing pages
+        byte[] large = new byte[0x20000];
+        file.copyTo(0, large, 0, large.length, (byte) 7);
+        assertEquals(1, large[0x10]);
+        assertEquals(7, large[0x13]);
+        assertEquals(5, large[0x1_0001]);
+        assertEquals(7, large[0x1_0002]);
+
+        assertThrows(IndexOutOfBoundsException.class, () -> file.copyTo(0, target, 4, 6, (byte) 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> file.copyTo(BinaryFile.MAX_SIZE - 2, target, 0, 4, (byte) 0));
+    }
+
+    @Test
+    public void testChecksumMatchesCopy() {
+        Random random = new Random(5);
+        // paged and dense content
+        for (BinaryFile file : new BinaryFile[]{new BinaryFile(0x40000), new BinaryFile(0x40000, 0x40000)}) {
+            for (long position = 3; position < 0x3f000; position += 0x1000 + random.nextInt(0x1000)) {
+                byte[] data = new byte[1 + random.nextInt(0x800)];
+                random.nextBytes(data);
+                file.addFragment(new DataFragment(position, data));
+            }
+            byte[] image = new byte[0x30000];
+            file.copyTo(0x100, image, 0, image.length, (byte) 0xff);
+            CRC32 crc = new CRC32();
+            crc.update(image);
+            long sum = 0;
+            for (byte b : image) {
+                sum += b & 0xff;
+            }
+
+            assertEquals(crc.getValue(), file.checksum(Checksum.CRC32, 0x100, image.length, (byte) 0xff));
+            assertEquals(sum & 0xffff, file.checksum(Checksum.SUM16, 0x100, image.length, (byte) 0xff));
+            assertEquals(sum & 0xffffffffL, file.checksum(Checksum.SUM32, 0x100, image.length, (byte) 0xff));
+        }
+    }
+
+    @Test
+    public void testChecksumOfEmptyRange() {
+        BinaryFile file = new BinaryFile();
+        assertEquals(0x29b1, new BinaryFile(List.of(new DataFragment(0, "123456789".getBytes())))
+                .checksum(Checksum.CRC16_CCITT, 0, 9, (byte) 0));
+        assertEquals(0x10 * 0xff & 0xff, file.checksum(Checksum.SUM8, 0x20, 0x10, (byte) 0xff));
+        assertThrows(IllegalArgumentException.class, () -> file.checksum(Checksum.CRC32, 0, 0, (byte) 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> file.checksum(Checksum.CRC32, 65530, 10, (byte) 0));
+        assertThrows(NullPointerException.class, () -> file.checksum(null, 0, 10, (byte) 0));
+    }
+
+    @Test
+    public void testWriteChecksum() {
+        BinaryFile file = new BinaryFile(List.of(new DataFragment(0, "123456789".getBytes())));
+        assertEquals(0xcbf43926L, file.writeChecksum(Checksum.CRC32, 0, 9, (byte) 0, 0x10, ByteOrder.BIG_ENDIAN));
+        assertEquals((byte) 0xcb, file.getByte(0x10));
+        assertEquals((byte) 0x26, file.getByte(0x13));
+
+        assertEquals(0x29b1, file.writeChecksum(Checksum.CRC16_CCITT, 0, 9, (byte) 0, 0x14, ByteOrder.LITTLE_ENDIAN));
+        assertEquals((byte) 0xb1, file.getByte(0x14));
+        assertEquals((byte) 0x29, file.getByte(0x15));
+        assertEquals(0x16, file.getCurrentSize());
+
+        // occupied target
+        assertThrows(IllegalStateException.class,
+                () -> file.writeChecksum(Checksum.SUM8, 0, 9, (byte) 0, 0x15, ByteOrder.BIG_ENDIAN));
+        // overlapping target
+        assertThrows(IllegalArgumentException.class,
+                () -> file.writeChecksum(Checksum.CRC32, 0x20, 0x10, (byte) 0, 0x1e, ByteOrder.BIG_ENDIAN));
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> file.writeChecksum(Checksum.CRC32, 0, 9, (byte) 0, 65534, ByteOrder.BIG_ENDIAN));
+    }
+
 }
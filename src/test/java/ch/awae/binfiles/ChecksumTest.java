@@ -0,0 +1,62 @@
+package ch.awae.binfiles;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChecksumTest {
+
+    private static long calculate(Checksum algorithm, byte[] data) {
+        Checksum.State state = algorithm.newState();
+        state.update(data, 0, data.length);
+        return state.value();
+    }
+
+    @Test
+    public void testCheckValues() {
+        byte[] data = "123456789".getBytes();
+        assertEquals(0xcbf43926L, calculate(Checksum.CRC32, data));
+        assertEquals(0x29b1, calculate(Checksum.CRC16_CCITT, data));
+        assertEquals(0xdd, calculate(Checksum.SUM8, data));
+        assertEquals(0x01dd, calculate(Checksum.SUM16, data));
+        assertEquals(0x01dd, calculate(Checksum.SUM32, data));
+    }
+
+    @Test
+    public void testWidths() {
+        assertEquals(4, Checksum.CRC32.width());
+        assertEquals(2, Checksum.CRC16_CCITT.width());
+        assertEquals(1, Checksum.SUM8.width());
+        assertEquals(2, Checksum.SUM16.width());
+        assertEquals(4, Checksum.SUM32.width());
+    }
+
+    @Test
+    public void testFillMatchesUpdate() {
+        for (Checksum algorithm : Checksum.values()) {
+            for (int count : new int[]{1, 100, 4096, 10000}) {
+                byte[] data = new byte[count];
+                Arrays.fill(data, (byte) 0xa5);
+                Checksum.State state = algorithm.newState();
+                state.updateFill((byte) 0xa5, count);
+                assertEquals(calculate(algorithm, data), state.value(), algorithm + " " + count);
+            }
+        }
+    }
+
+    @Test
+    public void testIncrementalUpdates() {
+        byte[] data = new byte[1000];
+        new Random(3).nextBytes(data);
+        for (Checksum algorithm : Checksum.values()) {
+            Checksum.State state = algorithm.newState();
+            state.update(data, 0, 123);
+            state.update(data, 123, 877);
+            assertEquals(calculate(algorithm, data), state.value(), algorithm.name());
+        }
+    }
+
+}
@@ -0,0 +1,250 @@
+package ch.awae.binfiles;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Stress tests racing multiple writers (and readers) against each other. Every test is repeated to increase the chance
+ * of hitting rare interleavings.
+ */
+public class ConcurrentBinaryFileTest {
+
+    private static final int THREADS = 8;
+
+    private static <T> List<T> race(int threads, Callable<T> task) throws Exception {
+        CyclicBarrier barrier = new CyclicBarrier(threads);
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            List<Future<T>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    barrier.await();
+                    return task.call();
+                }));
+            }
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        }
+    }
+
+    @RepeatedTest(20)
+    public void testDisjointFragments() throws Exception {
+        ConcurrentBinaryFile file = new ConcurrentBinaryFile(1 << 20);
+        AtomicInteger next = new AtomicInteger();
+        // interleaved, unaligned fragments: neighbouring fragments share pages and bitmap words
+        race(THREADS, () -> {
+            int index;
+            while ((index = next.getAndIncrement()) < 4000) {
+                byte[] data = new byte[100];
+                Arrays.fill(data, (byte) index);
+                file.addFragment(new DataFragment(index * 100L + 37, data));
+            }
+            return null;
+        });
+
+        assertEquals(4000 * 100 + 37, file.getCurrentSize());
+        List<DataFragment> fragments = file.getFragments(0, file.getSizeLimit());
+        assertEquals(1, fragments.size());
+        byte[] data = fragments.get(0).getData();
+        for (int i = 0; i < data.length; i++) {
+            assertEquals((byte) (i / 100), data[i]);
+        }
+    }
+
+    @RepeatedTest(20)
+    public void testCollidingFragmentsAreAllOrNothing() throws Exception {
+        ConcurrentBinaryFile file = new ConcurrentBinaryFile(1 << 16);
+        AtomicInteger ids = new AtomicInteger();
+        // every thread writes the same range with its own value, crossing several pages
+        List<Boolean> results = race(THREADS, () -> {
+            byte[] data = new byte[10000];
+            Arrays.fill(data, (byte) (ids.incrementAndGet()));
+            try {
+                file.addBytes(1000, data, 0, data.length);
+                return true;
+            } catch (IllegalStateException e) {
+                return false;
+            }
+        });
+
+        assertEquals(1, results.stream().filter(b -> b).count());
+        byte[] data = file.getFragments(0, file.getSizeLimit()).get(0).getData();
+        assertEquals(10000, data.length);
+        for (byte b : data) {
+            assertEquals(data[0], b);
+        }
+        assertEquals(11000, file.getCurrentSize());
+    }
+
+    @RepeatedTest(20)
+    public void testCollidingBytes() throws Exception {
+        ConcurrentBinaryFile file = new ConcurrentBinaryFile(1024);
+        AtomicInteger successes = new AtomicInteger();
+        race(THREADS, () -> {
+            for (int address = 0; address < 1024; address++) {
+                try {
+                    file.addByte(address, (byte) address);
+                    successes.incrementAndGet();
+                } catch (IllegalStateException e) {
+                    // expected for all but one thread
+                }
+            }
+            return null;
+        });
+        assertEquals(1024, successes.get());
+        for (int address = 0; address < 1024; address++) {
+            assertEquals((byte) address, file.getByte(address));
+        }
+    }
+
+    @RepeatedTest(10)
+    public void testReadersNeverSeeUnwrittenValues() throws Exception {
+        ConcurrentBinaryFile file = new ConcurrentBinaryFile(1 << 20);
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicInteger writers = new AtomicInteger();
+        List<String> failures = race(THREADS, () -> {
+            if (writers.getAndIncrement() < THREADS / 2) {
+                // writers: every byte holds the low bits of its address, never 0
+                Random random = new Random();
+                for (int i = 0; i < 2000; i++) {
+                    long position = random.nextInt((1 << 20) - 64);
+                    byte[] data = new byte[1 + random.nextInt(64)];
+                    for (int j = 0; j < data.length; j++) {
+                        data[j] = (byte) ((position + j) % 255 + 1);
+                    }
+                    try {
+                        file.addBytes(position, data, 0, data.length);
+                    } catch (IllegalStateException e) {
+                        // collisions are expected
+                    }
+                }
+                done.set(true);
+                return null;
+            }
+            // readers
+            Random random = new Random();
+            byte[] image = new byte[4096];
+            while (!done.get()) {
+                long start = random.nextInt((1 << 20) - image.length);
+                file.copyTo(start, image, 0, image.length, (byte) 0);
+                for (int j = 0; j < image.length; j++) {
+                    if (image[j] != 0 && image[j] != (byte) ((start + j) % 255 + 1)) {
+                        return "unexpected value at " + (start + j);
+                    }
+                }
+                Byte single = file.getByte(start);
+                if (single != null && single != (byte) (start % 255 + 1)) {
+                    return "unexpected value at " + start;
+                }
+            }
+            return null;
+        });
+        for (String failure : failures) {
+            assertNull(failure);
+        }
+    }
+
+    @Test
+    public void testSizeAndSingleThreadedBehaviour() {
+        ConcurrentBinaryFile file = new ConcurrentBinaryFile();
+        assertEquals(65536, file.getSizeLimit());
+        assertEquals(0, file.getCurrentSize());
+        file.addFragment(new DataFragment(100, new byte[]{1, 2, 3}));
+        file.addByte(10, (byte) 4);
+        assertEquals(103, file.getCurrentSize());
+        assertThrows(IllegalStateException.class, () -> file.addByte(101, (byte) 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> file.addByte(65536, (byte) 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> file.addBytes(65530, new byte[10], 0, 10));
+        assertEquals(103, file.getCurrentSize());
+        assertEquals(2, file.getFragments(0, 65536).size());
+    }
+
+
+    @RepeatedTest(20)
+    public void testFreezeNeverSeesPartialWrites() throws Exception {
+        ConcurrentBinaryFile file = new ConcurrentBinaryFile(1 << 20);
+        AtomicInteger next = new AtomicInteger();
+        AtomicBoolean done = new AtomicBoolean();
+        List<FrozenBinaryFile> snapshots = new ArrayList<>();
+        Thread freezer = new Thread(() -> {
+            while (!done.get()) {
+                snapshots.add(file.freeze());
+            }
+        });
+        freezer.start();
+        // fragments span several pages, so a partial write would be visible as a gap
+        race(THREADS, () -> {
+            int index;
+            while ((index = next.getAndIncrement()) < 100) {
+                byte[] data = new byte[10000];
+                Arrays.fill(data, (byte) index);
+                file.addFragment(new DataFragment(index * 10000L, data));
+            }
+            return null;
+        });
+        done.set(true);
+        freezer.join();
+        snapshots.add(file.freeze());
+
+        for (FrozenBinaryFile snapshot : snapshots) {
+            for (DataFragment fragment : snapshot.getFragments(0, snapshot.getSizeLimit())) {
+                assertEquals(0, fragment.getPosition() % 10000);
+                assertEquals(0, fragment.getLength() % 10000);
+            }
+            if (snapshot.getCurrentSize() > 0) {
+                assertNotNull(snapshot.getByte(snapshot.getCurrentSize() - 1));
+            }
+        }
+        assertEquals(1_000_000, snapshots.get(snapshots.size() - 1).getCurrentSize());
+    }
+
+    @RepeatedTest(20)
+    public void testWritesRightAfterFreezeDoNotLeakIntoSnapshot() throws Exception {
+        ConcurrentBinaryFile file = new ConcurrentBinaryFile(BinaryFile.MAX_SIZE);
+        int rounds = 32;
+        List<FrozenBinaryFile> snapshots = new ArrayList<>();
+        // the snapshot is taken while all writers wait, then every writer installs a new table on its own stripe
+        CyclicBarrier freeze = new CyclicBarrier(THREADS, () -> snapshots.add(file.freeze()));
+        AtomicInteger ids = new AtomicInteger();
+        race(THREADS, () -> {
+            int id = ids.getAndIncrement();
+            for (int round = 0; round < rounds; round++) {
+                freeze.await();
+                int index = round * THREADS + id;
+                file.addFragment(new DataFragment((long) index << 24, new byte[]{(byte) index}));
+            }
+            return null;
+        });
+
+        for (int round = 0; round < rounds; round++) {
+            FrozenBinaryFile snapshot = snapshots.get(round);
+            List<DataFragment> fragments = snapshot.getFragments(0, snapshot.getSizeLimit());
+            assertEquals(round * THREADS, fragments.size(), "snapshot " + round);
+            for (DataFragment fragment : fragments) {
+                assertEquals((byte) (fragment.getPosition() >>> 24), fragment.getData()[0]);
+            }
+        }
+        List<DataFragment> fragments = file.getFragments(0, file.getSizeLimit());
+        assertEquals(rounds * THREADS, fragments.size());
+        for (int index = 0; index < rounds * THREADS; index++) {
+            assertEquals((byte) index, file.getByte((long) index << 24));
+        }
+    }
+
+}
@@ -69,7 +69,218 @@ public class ContentTest {
     public void testInitBadSize() {
         assertThrows(IllegalArgumentException.class, () -> new Content(-1));
         assertThrows(IllegalArgumentException.class, () -> new Content(0));
-        assertThrows(IllegalArgumentException.class, () -> new Content(65537));
+        assertThrows(IllegalArgumentException.class, () -> new Content(Content.MAX_SIZE + 1));
+        assertThrows(IllegalArgumentException.class, () -> new Content(Content.MAX_SIZE + 1, 256));
+    }
+
+    @Test
+    public void testPagedContentAllocatesLazily() {
+        Content content = new Content(65536, 256);
+        assertEquals(0, content.getAllocatedBytes());
+
+        content.put(0xfff0, (byte) 1);
+        content.put(0xfff1, (byte) 2);
+        assertEquals(256, content.getAllocatedBytes());
+        assertEquals((byte) 1, content.get(0xfff0));
+        assertEquals((byte) 2, content.get(0xfff1));
+        assertNull(content.getOrNull(0xffef));
+        assertNull(content.getOrNull(0x00f0));
+
+        content.put(0x0000, (byte) 3);
+        assertEquals(512, content.getAllocatedBytes());
+    }
+
+    @Test
+    public void testPagedContentWithPartialLastPage() {
+        Content content = new Content(300, 256);
+        content.put(299, (byte) 1);
+        assertEquals(44, content.getAllocatedBytes());
+        assertEquals((byte) 1, content.get(299));
+        assertThrows(IndexOutOfBoundsException.class, () -> content.put(300, (byte) 1));
+    }
+
+    @Test
+    public void testPagedWritesDontCollide() {
+        for (int i = 0; i < 64; i++) {
+            for (int j = 0; j < 64; j++) {
+                if (i == j) continue;
+                Content content = new Content(64, 16);
+                content.put(i, (byte) 1);
+                content.put(j, (byte) 2);
+                assertEquals((byte) 1, content.get(i), "content[" + i + "] must be 1 after write");
+                assertEquals((byte) 2, content.get(j), "content[" + j + "] must be 2 after write");
+                int address = j;
+                assertThrows(IllegalStateException.class, () -> content.put(address, (byte) 3));
+            }
+        }
+    }
+
+    @Test
+    public void testForDensity() {
+        // dense content smaller than a dense page allocates the whole address space at once
+        Content dense = Content.forDensity(1024, 512);
+        dense.put(0, (byte) 1);
+        assertEquals(1024, dense.getAllocatedBytes());
+
+        // larger dense content allocates large pages
+        Content large = Content.forDensity(Content.MAX_SIZE, Content.MAX_SIZE);
+        large.put(0, (byte) 1);
+        assertEquals(Content.DENSE_PAGE_SIZE, large.getAllocatedBytes());
+
+        // sparse content only allocates single pages
+        Content sparse = Content.forDensity(1024, 511);
+        sparse.put(0, (byte) 1);
+        assertEquals(Content.DEFAULT_PAGE_SIZE, sparse.getAllocatedBytes());
+    }
+
+    @Test
+    public void testFull32BitAddressSpace() {
+        Content content = new Content(Content.MAX_SIZE, Content.DEFAULT_PAGE_SIZE);
+        content.put(0, (byte) 1);
+        content.put(0x0800_0000L, (byte) 2);
+        content.put(0xffff_ffffL, (byte) 3);
+
+        assertEquals((byte) 1, content.get(0));
+        assertEquals((byte) 2, content.get(0x0800_0000L));
+        assertEquals((byte) 3, content.get(0xffff_ffffL));
+        assertNull(content.getOrNull(0xffff_fffeL));
+        assertEquals(3L * Content.DEFAULT_PAGE_SIZE, content.getAllocatedBytes());
+        assertThrows(IndexOutOfBoundsException.class, () -> content.get(Content.MAX_SIZE));
+    }
+
+    @Test
+    public void testRangeScanAcrossPages() {
+        Content content = new Content(Content.MAX_SIZE, 16);
+        for (long address = 0x1_0000_0000L - 40; address < 0x1_0000_0000L - 4; address++) {
+            content.put(address, (byte) address);
+        }
+        content.put(100, (byte) 1);
+
+        assertEquals(100, content.nextSetAddress(0, Content.MAX_SIZE));
+        assertEquals(101, content.nextClearAddress(100, Content.MAX_SIZE));
+        assertEquals(-1, content.nextSetAddress(0, 100));
+        assertEquals(0x1_0000_0000L - 40, content.nextSetAddress(101, Content.MAX_SIZE));
+        assertEquals(0x1_0000_0000L - 4, content.nextClearAddress(0x1_0000_0000L - 40, Content.MAX_SIZE));
+        assertEquals(0x1_0000_0000L - 10, content.nextClearAddress(0x1_0000_0000L - 40, 0x1_0000_0000L - 10));
+        assertEquals(-1, content.nextSetAddress(0x1_0000_0000L - 4, Content.MAX_SIZE));
+        assertEquals(50, content.nextClearAddress(50, 60));
+
+        byte[] data = new byte[36];
+        content.copy(0x1_0000_0000L - 40, data, 0, 36);
+        for (int i = 0; i < data.length; i++) {
+            assertEquals((byte) (0x1_0000_0000L - 40 + i), data[i]);
+        }
+    }
+
+    @Test
+    public void testRangeScanOnFullPage() {
+        Content content = new Content(256, 128);
+        for (int address = 0; address < 256; address++) {
+            content.put(address, (byte) 0);
+        }
+        assertEquals(0, content.nextSetAddress(0, 256));
+        assertEquals(256, content.nextClearAddress(0, 256));
+        assertEquals(200, content.nextClearAddress(0, 200));
+    }
+
+    @Test
+    public void testPutRange() {
+        Content content = new Content(1024, 64);
+        byte[] data = new byte[300];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        content.putRange(63, data, 10, 200);
+
+        assertNull(content.getOrNull(62));
+        for (int i = 0; i < 200; i++) {
+            assertEquals((byte) (i + 10), content.get(63 + i));
+        }
+        assertNull(content.getOrNull(263));
+        assertEquals(63, content.nextSetAddress(0, 1024));
+        assertEquals(263, content.nextClearAddress(63, 1024));
+    }
+
+    @Test
+    public void testPutRangeCollisionWritesNothing() {
+        Content content = new Content(1024, 64);
+        content.put(200, (byte) 1);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> content.putRange(100, new byte[200], 0, 200));
+        assertTrue(e.getMessage().endsWith("200"));
+        // nothing else must have been written
+        assertEquals(200, content.nextSetAddress(0, 1024));
+        assertEquals(201, content.nextClearAddress(200, 1024));
+    }
+
+    @Test
+    public void testPutRangeOutOfBounds() {
+        Content content = new Content(1024, 64);
+        assertThrows(IndexOutOfBoundsException.class, () -> content.putRange(1000, new byte[100], 0, 100));
+        assertThrows(IndexOutOfBoundsException.class, () -> content.putRange(-1, new byte[100], 0, 100));
+        assertEquals(-1, content.nextSetAddress(0, 1024));
+    }
+
+
+    @Test
+    public void testSnapshotSharesAllPages() {
+        Content content = new Content(1024, 64);
+        content.put(0, (byte) 1);
+        content.put(512, (byte) 2);
+
+        Content snapshot = content.snapshot();
+        assertEquals(128, snapshot.getAllocatedBytes());
+        assertEquals(0, snapshot.getOwnedBytes());
+        assertEquals(0, content.getOwnedBytes());
+        assertEquals((byte) 1, snapshot.get(0));
+        assertEquals((byte) 2, snapshot.get(512));
+    }
+
+    @Test
+    public void testWriteAfterSnapshotCopiesOnlyTouchedPage() {
+        Content content = new Content(1024, 64);
+        content.put(0, (byte) 1);
+        content.put(512, (byte) 2);
+        Content snapshot = content.snapshot();
+
+        content.put(1, (byte) 3);
+        assertEquals(64, content.getOwnedBytes());
+        assertEquals((byte) 3, content.get(1));
+        assertNull(snapshot.getOrNull(1));
+
+        // the copied page keeps all existing data
+        assertEquals((byte) 1, content.get(0));
+        assertThrows(IllegalStateException.class, () -> content.put(0, (byte) 4));
+
+        // writes to the snapshot are independent as well
+        snapshot.put(513, (byte) 5);
+        assertEquals(64, snapshot.getOwnedBytes());
+        assertNull(content.getOrNull(513));
+        assertEquals((byte) 5, snapshot.get(513));
+    }
+
+    @Test
+    public void testWriteAfterSnapshotToNewPage() {
+        Content content = new Content(1024, 64);
+        content.put(0, (byte) 1);
+        Content snapshot = content.snapshot();
+
+        content.putRange(100, new byte[]{1, 2, 3}, 0, 3);
+        assertEquals(64, content.getOwnedBytes());
+        assertEquals(64, snapshot.getAllocatedBytes());
+        assertEquals(-1, snapshot.nextSetAddress(1, 1024));
+    }
+
+    @Test
+    public void testLastSetAddress() {
+        Content content = new Content(Content.MAX_SIZE, Content.DEFAULT_PAGE_SIZE);
+        assertEquals(-1, content.lastSetAddress());
+        content.put(5, (byte) 1);
+        assertEquals(5, content.lastSetAddress());
+        content.put(0x8000_0042L, (byte) 1);
+        assertEquals(0x8000_0042L, content.lastSetAddress());
+        content.put(0xffff_ffffL, (byte) 1);
+        assertEquals(0xffff_ffffL, content.lastSetAddress());
     }
 
 }
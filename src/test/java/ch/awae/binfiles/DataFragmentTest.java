@@ -2,6 +2,9 @@ package ch.awae.binfiles;
 
 import org.junit.jupiter.api.Test;
 
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class DataFragmentTest {
@@ -32,13 +35,20 @@ public class DataFragmentTest {
     @Test
     public void testFragmentStartOutOfBounds() {
         assertThrows(IllegalArgumentException.class, () -> new DataFragment(-1, new byte[100]));
-        assertThrows(IllegalArgumentException.class, () -> new DataFragment(65536, new byte[100]));
+        assertThrows(IllegalArgumentException.class, () -> new DataFragment(0x1_0000_0000L, new byte[100]));
     }
 
     @Test
     public void testFragmentEndOutOfBounds() {
-        assertDoesNotThrow(() -> new DataFragment(0, new byte[65536]));
-        assertThrows(IllegalArgumentException.class, () -> new DataFragment(65000, new byte[537]));
+        assertDoesNotThrow(() -> new DataFragment(0xffff_0000L, new byte[65536]));
+        assertThrows(IllegalArgumentException.class, () -> new DataFragment(0xffff_0000L, new byte[65537]));
+    }
+
+    @Test
+    public void testFragmentAbove16BitAddressSpace() {
+        DataFragment fragment = new DataFragment(0x0800_0000L, new byte[]{1, 2, 3});
+        assertEquals(0x0800_0000L, fragment.getPosition());
+        assertEquals(3, fragment.getLength());
     }
 
     @Test
@@ -62,4 +72,38 @@ public class DataFragmentTest {
         assertEquals(12, fragment.getData()[0]);
     }
 
+    @Test
+    public void testDataBufferView() {
+        DataFragment fragment = new DataFragment(0, new byte[]{1, 2, 3});
+        ByteBuffer view = fragment.getDataBuffer();
+
+        assertTrue(view.isReadOnly());
+        assertEquals(0, view.position());
+        assertEquals(3, view.remaining());
+        assertEquals(1, view.get());
+        assertThrows(ReadOnlyBufferException.class, () -> view.put(0, (byte) 5));
+
+        // every call returns an independent view
+        assertEquals(0, fragment.getDataBuffer().position());
+    }
+
+    @Test
+    public void testOwningConstructorDoesNotCopy() {
+        byte[] buffer = new byte[]{1, 2, 3};
+        DataFragment fragment = new DataFragment(0, buffer, false);
+        assertSame(buffer, fragment.internalData());
+        assertThrows(IllegalArgumentException.class, () -> new DataFragment(0, new byte[0], false));
+    }
+
+    @Test
+    public void testWithPosition() {
+        DataFragment fragment = new DataFragment(0, new byte[]{1, 2, 3});
+        DataFragment moved = fragment.withPosition(0x10000);
+        assertEquals(0x10000, moved.getPosition());
+        assertSame(fragment.internalData(), moved.internalData());
+        assertEquals(0, fragment.getPosition());
+        assertThrows(IllegalArgumentException.class, () -> fragment.withPosition(-1));
+        assertThrows(IllegalArgumentException.class, () -> fragment.withPosition(0xffff_fffeL));
+    }
+
 }
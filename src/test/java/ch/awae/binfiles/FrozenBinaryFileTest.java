@@ -0,0 +1,101 @@
+package ch.awae.binfiles;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteOrder;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FrozenBinaryFileTest {
+
+    @Test
+    public void testFrozenFileIsImmutable() {
+        BinaryFile file = new BinaryFile();
+        file.addByte(10, (byte) 1);
+        FrozenBinaryFile frozen = file.freeze();
+
+        assertThrows(UnsupportedOperationException.class, () -> frozen.addByte(20, (byte) 2));
+        assertThrows(UnsupportedOperationException.class, () -> frozen.addFragment(new DataFragment(20, new byte[]{2})));
+        assertThrows(UnsupportedOperationException.class, () -> frozen.addBytes(20, new byte[]{2}, 0, 1));
+        assertThrows(UnsupportedOperationException.class,
+                () -> frozen.writeChecksum(Checksum.SUM8, 0, 16, (byte) 0, 20, ByteOrder.BIG_ENDIAN));
+        assertNull(frozen.getByte(20));
+        assertEquals(11, frozen.getCurrentSize());
+    }
+
+    @Test
+    public void testFreezeIsNotAffectedByLaterWrites() {
+        BinaryFile file = new BinaryFile();
+        file.addFragment(new DataFragment(0x100, new byte[]{1, 2, 3}));
+        FrozenBinaryFile frozen = file.freeze();
+
+        file.addFragment(new DataFragment(0x103, new byte[]{4, 5}));
+        file.addByte(0x8000, (byte) 6);
+
+        assertEquals(1, frozen.getFragments(0, 0x10000).size());
+        assertEquals(0x100, frozen.getFragments(0, 0x10000).get(0).getPosition());
+        assertArrayEquals(new byte[]{1, 2, 3}, frozen.getFragments(0, 0x10000).get(0).getData());
+        assertEquals(0x103, frozen.getCurrentSize());
+        assertEquals(0x8001, file.getCurrentSize());
+        assertArrayEquals(new byte[]{1, 2, 3, 4, 5}, file.getFragments(0, 0x1000).get(0).getData());
+    }
+
+    @Test
+    public void testFreezeOfFrozenFileReturnsItself() {
+        FrozenBinaryFile frozen = new BinaryFile().freeze();
+        assertSame(frozen, frozen.freeze());
+    }
+
+    @Test
+    public void testMutableCopiesAreIndependent() {
+        BinaryFile file = new BinaryFile();
+        file.addByte(0, (byte) 1);
+        FrozenBinaryFile frozen = file.freeze();
+        BinaryFile first = frozen.mutableCopy();
+        BinaryFile second = frozen.mutableCopy();
+
+        first.addByte(1, (byte) 2);
+        second.addByte(1, (byte) 3);
+        file.addByte(1, (byte) 4);
+
+        assertEquals((byte) 2, first.getByte(1));
+        assertEquals((byte) 3, second.getByte(1));
+        assertEquals((byte) 4, file.getByte(1));
+        assertNull(frozen.getByte(1));
+        assertEquals((byte) 1, first.getByte(0));
+        assertThrows(IllegalStateException.class, () -> first.addByte(0, (byte) 5));
+    }
+
+    @Test
+    public void testMutableCopyOfMutableFile() {
+        BinaryFile file = new BinaryFile(0x20000);
+        file.addByte(0x1_0000, (byte) 1);
+        BinaryFile copy = file.mutableCopy();
+        assertEquals(0x1_0001, copy.getCurrentSize());
+        assertEquals(0x20000, copy.getSizeLimit());
+
+        copy.addByte(0, (byte) 2);
+        assertNull(file.getByte(0));
+        assertEquals((byte) 1, copy.getByte(0x1_0000));
+    }
+
+    @Test
+    public void testWriteAfterFreezeOfDenseFileCopiesOnlyOnePage() {
+        int size = 1 << 20;
+        BinaryFile file = new BinaryFile(size, List.of(new DataFragment(0, new byte[size - 1])));
+        FrozenBinaryFile frozen = file.freeze();
+        BinaryFile copy = frozen.mutableCopy();
+        assertEquals(0, file.getOwnedBytes());
+
+        file.addByte(size - 1, (byte) 1);
+        assertEquals(Content.DENSE_PAGE_SIZE, file.getOwnedBytes());
+        copy.addByte(size - 1, (byte) 2);
+        assertEquals(Content.DENSE_PAGE_SIZE, copy.getOwnedBytes());
+
+        assertNull(frozen.getByte(size - 1));
+        assertEquals((byte) 1, file.getByte(size - 1));
+        assertEquals((byte) 2, copy.getByte(size - 1));
+    }
+
+}
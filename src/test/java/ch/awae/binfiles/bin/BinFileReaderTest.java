@@ -0,0 +1,103 @@
+package ch.awae.binfiles.bin;
+
+import ch.awae.binfiles.BinaryFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinFileReaderTest {
+
+    @TempDir
+    Path directory;
+
+    private static byte[] randomData(int length) {
+        byte[] data = new byte[length];
+        new Random(length).nextBytes(data);
+        return data;
+    }
+
+    @Test
+    public void testReadStream() throws IOException {
+        byte[] data = randomData(1000);
+        try (BinFileReader reader = new BinFileReader(new ByteArrayInputStream(data))) {
+            BinaryFile file = reader.read();
+            assertEquals(1024, file.getSizeLimit());
+            assertEquals(1000, file.getCurrentSize());
+            for (int i = 0; i < data.length; i++) {
+                assertEquals(data[i], file.getByte(i));
+            }
+        }
+    }
+
+    @Test
+    public void testReadStreamAtBaseAddress() throws IOException {
+        byte[] data = randomData(3 << 20);
+        try (BinFileReader reader = new BinFileReader(new ByteArrayInputStream(data))) {
+            BinaryFile file = reader.read(0x0800_0000L);
+            assertEquals(0x1000_0000L, file.getSizeLimit());
+            assertEquals(0x0800_0000L + data.length, file.getCurrentSize());
+            assertNull(file.getByte(0x07ff_ffffL));
+            assertEquals(data[0], file.getByte(0x0800_0000L));
+            assertEquals(data[data.length - 1], file.getByte(0x0800_0000L + data.length - 1));
+        }
+    }
+
+    @Test
+    public void testReadFile() throws IOException {
+        byte[] data = randomData((1 << 20) + 17);
+        Path path = directory.resolve("image.bin");
+        Files.write(path, data);
+        try (BinFileReader reader = BinFileReader.open(path)) {
+            BinaryFile file = reader.read(0x100);
+            assertEquals(0x100 + data.length, file.getCurrentSize());
+            byte[] copy = new byte[data.length];
+            file.copyTo(0x100, copy, 0, copy.length, (byte) 0);
+            assertArrayEquals(data, copy);
+        }
+    }
+
+    @Test
+    public void testReadEmpty() throws IOException {
+        try (BinFileReader reader = new BinFileReader(InputStream.nullInputStream())) {
+            BinaryFile file = reader.read(0x10);
+            assertEquals(0, file.getCurrentSize());
+            assertEquals(16, file.getSizeLimit());
+        }
+        Path path = directory.resolve("empty.bin");
+        Files.write(path, new byte[0]);
+        try (BinFileReader reader = BinFileReader.open(path)) {
+            assertEquals(0, reader.read().getCurrentSize());
+        }
+    }
+
+    @Test
+    public void testImageTooLarge() throws IOException {
+        try (BinFileReader reader = new BinFileReader(new ByteArrayInputStream(new byte[32]))) {
+            assertThrows(IOException.class, () -> reader.read(BinaryFile.MAX_SIZE - 16));
+        }
+        Path path = directory.resolve("image.bin");
+        Files.write(path, new byte[32]);
+        try (BinFileReader reader = BinFileReader.open(path)) {
+            assertThrows(IOException.class, () -> reader.read(BinaryFile.MAX_SIZE - 16));
+        }
+    }
+
+    @Test
+    public void testInvalidArguments() throws IOException {
+        assertThrows(NullPointerException.class, () -> new BinFileReader((InputStream) null));
+        assertThrows(NullPointerException.class, () -> BinFileReader.open(null));
+        try (BinFileReader reader = new BinFileReader(InputStream.nullInputStream())) {
+            assertThrows(IllegalArgumentException.class, () -> reader.read(-1));
+            assertThrows(IllegalArgumentException.class, () -> reader.read(BinaryFile.MAX_SIZE));
+        }
+    }
+
+}
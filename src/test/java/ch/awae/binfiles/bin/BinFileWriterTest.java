@@ -0,0 +1,90 @@
+package ch.awae.binfiles.bin;
+
+import ch.awae.binfiles.BinaryFile;
+import ch.awae.binfiles.DataFragment;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinFileWriterTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testWriteWithDefaultFill() throws IOException {
+        BinaryFile file = new BinaryFile();
+        file.addFragment(new DataFragment(2, new byte[]{1, 2}));
+        file.addFragment(new DataFragment(6, new byte[]{3}));
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        try (BinFileWriter writer = new BinFileWriter(stream)) {
+            writer.write(file);
+        }
+        byte f = (byte) 0xff;
+        assertArrayEquals(new byte[]{f, f, 1, 2, f, f, 3}, stream.toByteArray());
+    }
+
+    @Test
+    public void testWriteRangeWithFill() throws IOException {
+        BinaryFile file = new BinaryFile();
+        file.addFragment(new DataFragment(2, new byte[]{1, 2}));
+        file.addFragment(new DataFragment(6, new byte[]{3}));
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        new BinFileWriter(stream, (byte) 0).write(file, 3, 6);
+        assertArrayEquals(new byte[]{2, 0, 0, 3, 0, 0}, stream.toByteArray());
+    }
+
+    @Test
+    public void testWriteEmptyFile() throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        new BinFileWriter(stream).write(new BinaryFile());
+        assertEquals(0, stream.size());
+    }
+
+    @Test
+    public void testRoundTripThroughFile() throws IOException {
+        BinaryFile file = new BinaryFile(BinaryFile.MAX_SIZE);
+        byte[] data = new byte[3 << 20];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i * 31);
+        }
+        file.addFragment(new DataFragment(0x0800_0000L, data));
+        file.addFragment(new DataFragment(0x0800_0000L + data.length + 100, new byte[]{42}));
+
+        Path path = directory.resolve("image.bin");
+        try (BinFileWriter writer = BinFileWriter.open(path, (byte) 0x55)) {
+            writer.write(file, 0x0800_0000L, data.length + 101);
+        }
+        assertEquals(data.length + 101, Files.size(path));
+
+        BinaryFile read;
+        try (BinFileReader reader = BinFileReader.open(path)) {
+            read = reader.read(0x0800_0000L);
+        }
+        assertEquals(file.getCurrentSize(), read.getCurrentSize());
+        assertEquals(data[12345], read.getByte(0x0800_0000L + 12345));
+        assertEquals((byte) 0x55, read.getByte(0x0800_0000L + data.length));
+        assertEquals((byte) 42, read.getByte(0x0800_0000L + data.length + 100));
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        BinFileWriter writer = new BinFileWriter(OutputStream.nullOutputStream());
+        BinaryFile file = new BinaryFile();
+        assertThrows(NullPointerException.class, () -> writer.write(null));
+        assertThrows(IllegalArgumentException.class, () -> writer.write(file, 0, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> writer.write(file, -1, 10));
+        assertThrows(IndexOutOfBoundsException.class, () -> writer.write(file, 65530, 10));
+        assertThrows(NullPointerException.class, () -> new BinFileWriter((OutputStream) null));
+    }
+
+}
@@ -0,0 +1,159 @@
+package ch.awae.binfiles.hex;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class HexBatchConverterTest {
+
+    private static final String VALID = """
+            :080000000102030405060708D4
+            :080008000102030405060708CC
+            :00000001FF
+            """;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testConvertBatch() throws IOException, InterruptedException {
+        List<HexBatchConverter.Job> jobs = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Path input = directory.resolve("in" + i + ".hex");
+            Files.writeString(input, VALID + (i % 2 == 0 ? VALID : ""));
+            jobs.add(new HexBatchConverter.Job(input, directory.resolve("out" + i + ".hex")));
+        }
+
+        List<HexBatchConverter.Result> results = new HexBatchConverter(4, 16).convert(jobs);
+
+        assertEquals(jobs.size(), results.size());
+        String converted = ":1000000001020304050607080102030405060708A8\n:00000001FF\n";
+        for (int i = 0; i < jobs.size(); i++) {
+            HexBatchConverter.Result result = results.get(i);
+            assertSame(jobs.get(i), result.job());
+            assertTrue(result.isSuccess());
+            assertEquals(i % 2 == 0 ? 2 : 1, result.files());
+            assertEquals(i % 2 == 0 ? converted + converted : converted, Files.readString(jobs.get(i).output()));
+        }
+    }
+
+    @Test
+    public void testFailuresDoNotStopTheBatch() throws IOException, InterruptedException {
+        Path valid = directory.resolve("valid.hex");
+        Path corrupt = directory.resolve("corrupt.hex");
+        Path missing = directory.resolve("missing.hex");
+        Files.writeString(valid, VALID);
+        Files.writeString(corrupt, ":080000000102030405060708D5\n:00000001FF\n");
+
+        List<HexBatchConverter.Result> results = new HexBatchConverter().convert(List.of(
+                new HexBatchConverter.Job(corrupt, directory.resolve("corrupt.out")),
+                new HexBatchConverter.Job(missing, directory.resolve("missing.out")),
+                new HexBatchConverter.Job(valid, directory.resolve("valid.out"))));
+
+        assertFalse(results.get(0).isSuccess());
+        assertInstanceOf(HexFileParsingException.class, results.get(0).error());
+        assertFalse(results.get(1).isSuccess());
+        assertInstanceOf(NoSuchFileException.class, results.get(1).error());
+        assertTrue(results.get(2).isSuccess());
+        assertEquals(1, results.get(2).files());
+
+        // failed jobs do not produce any output
+        assertFalse(Files.exists(directory.resolve("corrupt.out")));
+        assertFalse(Files.exists(directory.resolve("missing.out")));
+        assertTrue(Files.exists(directory.resolve("valid.out")));
+    }
+
+    @Test
+    public void testOutputPermissionsFollowTheUmask() throws IOException, InterruptedException {
+        assumeTrue(Files.getFileAttributeView(directory, PosixFileAttributeView.class) != null, "POSIX only");
+        Path input = directory.resolve("input.hex");
+        Files.writeString(input, VALID);
+        Path reference = directory.resolve("reference.hex");
+        Files.writeString(reference, VALID);
+        Path output = directory.resolve("output.hex");
+
+        List<HexBatchConverter.Result> results = new HexBatchConverter().convert(List.of(
+                new HexBatchConverter.Job(input, output)));
+
+        assertTrue(results.get(0).isSuccess());
+        assertEquals(Files.getPosixFilePermissions(reference), Files.getPosixFilePermissions(output));
+    }
+
+    @Test
+    public void testFailedWriteLeavesNoPartialOutput() throws IOException, InterruptedException {
+        Path input = directory.resolve("input.hex");
+        Files.writeString(input, VALID);
+        // a non-empty directory cannot be replaced by the output
+        Path output = directory.resolve("output");
+        Files.createDirectory(output);
+        Files.writeString(output.resolve("other.txt"), "other");
+
+        List<HexBatchConverter.Result> results = new HexBatchConverter().convert(List.of(
+                new HexBatchConverter.Job(input, output)));
+
+        assertFalse(results.get(0).isSuccess());
+        assertInstanceOf(IOException.class, results.get(0).error());
+        assertTrue(Files.isDirectory(output));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(List.of(input, output), files.sorted().toList());
+        }
+    }
+
+    @Test
+    public void testExistingOutputIsReplaced() throws IOException, InterruptedException {
+        Path input = directory.resolve("input.hex");
+        Path output = directory.resolve("output.hex");
+        Files.writeString(input, VALID);
+        Files.writeString(output, "previous content");
+
+        List<HexBatchConverter.Result> results = new HexBatchConverter().convert(List.of(
+                new HexBatchConverter.Job(input, output)));
+
+        assertTrue(results.get(0).isSuccess());
+        assertEquals(":1000000001020304050607080102030405060708A8\n:00000001FF\n", Files.readString(output));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    @Test
+    public void testValidate() throws IOException, InterruptedException {
+        Path valid = directory.resolve("valid.hex");
+        Path colliding = directory.resolve("colliding.hex");
+        Files.writeString(valid, VALID);
+        Files.writeString(colliding, ":0400000001020304F2\n:0400020001020304F0\n:00000001FF\n");
+
+        List<HexBatchConverter.Result> results = new HexBatchConverter().validate(List.of(valid, colliding));
+
+        assertTrue(results.get(0).isSuccess());
+        assertNull(results.get(0).job().output());
+        assertInstanceOf(IllegalStateException.class, results.get(1).error());
+        assertEquals(0, results.get(1).files());
+    }
+
+    @Test
+    public void testEmptyBatch() throws InterruptedException {
+        assertTrue(new HexBatchConverter().convert(List.of()).isEmpty());
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new HexBatchConverter(0, 16));
+        assertThrows(IllegalArgumentException.class, () -> new HexBatchConverter(1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new HexBatchConverter(1, 256));
+        assertThrows(NullPointerException.class, () -> new HexBatchConverter.Job(null, null));
+        assertThrows(NullPointerException.class, () -> new HexBatchConverter().convert(null));
+    }
+
+}
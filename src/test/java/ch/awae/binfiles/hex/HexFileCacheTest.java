@@ -0,0 +1,206 @@
+package ch.awae.binfiles.hex;
+
+import ch.awae.binfiles.FrozenBinaryFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HexFileCacheTest {
+
+    private static final String FIRST = """
+            :080000000102030405060708D4
+            :00000001FF
+            """;
+
+    private static final String SECOND = """
+            :080000000807060504030201D4
+            :00000001FF
+            """;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testRepeatedReadsHitTheCache() throws IOException {
+        Path path = directory.resolve("a.hex");
+        Files.writeString(path, FIRST);
+        HexFileCache cache = new HexFileCache(1 << 20);
+
+        FrozenBinaryFile first = cache.read(path);
+        FrozenBinaryFile second = cache.read(path);
+
+        assertNotNull(first);
+        assertSame(first, second);
+        assertEquals((byte) 8, first.getByte(7));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.size());
+        assertEquals(first.getAllocatedBytes(), cache.getCachedBytes());
+    }
+
+    @Test
+    public void testModifiedFileIsReloaded() throws IOException {
+        Path path = directory.resolve("a.hex");
+        Files.writeString(path, FIRST);
+        HexFileCache cache = new HexFileCache(1 << 20);
+        FileTime time = Files.getLastModifiedTime(path);
+
+        FrozenBinaryFile first = cache.read(path);
+        Files.writeString(path, SECOND);
+        Files.setLastModifiedTime(path, FileTime.fromMillis(time.toMillis() + 1000));
+        FrozenBinaryFile second = cache.read(path);
+
+        assertNotSame(first, second);
+        assertNotNull(second);
+        assertEquals((byte) 1, second.getByte(7));
+        assertEquals(2, cache.getMissCount());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testContentHashIgnoresTimestamps() throws IOException {
+        Path path = directory.resolve("a.hex");
+        Files.writeString(path, FIRST);
+        HexFileCache cache = new HexFileCache(1 << 20, HexFileCache.Validation.CONTENT_HASH);
+        FileTime time = Files.getLastModifiedTime(path);
+
+        FrozenBinaryFile first = cache.read(path);
+        // same content, new timestamp: still a hit
+        Files.setLastModifiedTime(path, FileTime.fromMillis(time.toMillis() + 1000));
+        assertSame(first, cache.read(path));
+
+        // new content of the same length, same timestamp: a miss
+        Files.writeString(path, SECOND);
+        Files.setLastModifiedTime(path, time);
+        FrozenBinaryFile second = cache.read(path);
+        assertNotNull(second);
+        assertEquals((byte) 1, second.getByte(7));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void testContentHashCoversTheEntireFile() throws IOException {
+        // larger than the hash buffer
+        byte[] content = HexFixtures.randomHex(5, 400, 16);
+        assertTrue(content.length > 3 * 64 * 1024);
+        Path path = directory.resolve("a.hex");
+        Files.write(path, content);
+        HexFileCache cache = new HexFileCache(1 << 24, HexFileCache.Validation.CONTENT_HASH);
+
+        FrozenBinaryFile first = cache.read(path);
+        assertSame(first, cache.read(path));
+
+        // swap the first two data bytes of a record far behind the first buffer, keeping the checksum valid
+        int record = 0;
+        for (int i = 2 * 64 * 1024; record == 0; i++) {
+            if (content[i] == ':') {
+                record = i;
+            }
+        }
+        byte[] modified = content.clone();
+        System.arraycopy(content, record + 9, modified, record + 11, 2);
+        System.arraycopy(content, record + 11, modified, record + 9, 2);
+        assertFalse(Arrays.equals(content, modified));
+        Files.write(path, modified);
+
+        FrozenBinaryFile second = cache.read(path);
+        assertNotSame(first, second);
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedFileIsEvicted() throws IOException {
+        Path a = directory.resolve("a.hex");
+        Path b = directory.resolve("b.hex");
+        Path c = directory.resolve("c.hex");
+        Files.writeString(a, FIRST);
+        Files.writeString(b, FIRST);
+        Files.writeString(c, FIRST);
+        FrozenBinaryFile probe = new HexFileCache(1 << 20).read(a);
+        assertNotNull(probe);
+        long weight = probe.getAllocatedBytes();
+        HexFileCache cache = new HexFileCache(2 * weight);
+
+        cache.read(a);
+        cache.read(b);
+        cache.read(a);
+        cache.read(c);
+
+        assertEquals(2, cache.size());
+        assertEquals(2 * weight, cache.getCachedBytes());
+        cache.read(a);
+        cache.read(c);
+        assertEquals(3, cache.getHitCount());
+        assertEquals(3, cache.getMissCount());
+        // b has been evicted when c was added
+        cache.read(b);
+        assertEquals(4, cache.getMissCount());
+    }
+
+    @Test
+    public void testFilesLargerThanTheBudgetAreNotCached() throws IOException {
+        Path path = directory.resolve("a.hex");
+        Files.writeString(path, FIRST);
+        HexFileCache cache = new HexFileCache(1);
+
+        assertNotNull(cache.read(path));
+        assertNotNull(cache.read(path));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getCachedBytes());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void testEmptyFileIsCachedAsNull() throws IOException {
+        Path path = directory.resolve("empty.hex");
+        Files.writeString(path, "");
+        HexFileCache cache = new HexFileCache(0);
+
+        assertNull(cache.read(path));
+        assertNull(cache.read(path));
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void testFailuresAreNotCached() throws IOException {
+        Path path = directory.resolve("corrupt.hex");
+        Files.writeString(path, ":080000000102030405060708D5\n:00000001FF\n");
+        HexFileCache cache = new HexFileCache(1 << 20);
+
+        assertThrows(HexFileParsingException.class, () -> cache.read(path));
+        assertThrows(HexFileParsingException.class, () -> cache.read(path));
+        assertEquals(2, cache.getMissCount());
+        assertThrows(IOException.class, () -> cache.read(directory.resolve("missing.hex")));
+    }
+
+    @Test
+    public void testInvalidateAndClear() throws IOException {
+        Path path = directory.resolve("a.hex");
+        Files.writeString(path, FIRST);
+        HexFileCache cache = new HexFileCache(1 << 20);
+
+        cache.read(path);
+        cache.invalidate(path);
+        assertEquals(0, cache.size());
+        cache.read(path);
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getCachedBytes());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void testInvalidBudget() {
+        assertThrows(IllegalArgumentException.class, () -> new HexFileCache(-1));
+    }
+
+}
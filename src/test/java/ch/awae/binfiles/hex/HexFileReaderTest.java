@@ -4,8 +4,11 @@ import ch.awae.binfiles.BinaryFile;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -68,6 +71,98 @@ public class HexFileReaderTest {
         }
     }
 
+    @Test
+    public void testReadMappedFile() throws IOException, URISyntaxException {
+        Path path = Path.of(this.getClass().getResource("/ch/awae/binfiles/hex/valid_with_superfluous_data.hex").toURI());
+        try (HexFileReader reader = HexFileReader.open(path)) {
+            BinaryFile file = reader.read();
+            validateReferenceFile(file);
+            assertNull(reader.read());
+        }
+    }
+
+    @Test
+    public void testReadMappedFileMoreAfterEOF() throws IOException, URISyntaxException {
+        Path path = Path.of(this.getClass().getResource("/ch/awae/binfiles/hex/valid_with_more_after_eof.hex").toURI());
+        try (HexFileReader reader = HexFileReader.open(path)) {
+            BinaryFile file = reader.read();
+            validateReferenceFile(file);
+            assertThrows(HexFileParsingException.class, reader::read);
+        }
+    }
+
+    @Test
+    public void testInitNullPath() {
+        assertThrows(NullPointerException.class, () -> HexFileReader.open(null));
+    }
+
+    @Test
+    public void testReadExtendedLinearAddress() throws IOException {
+        String input = """
+                :020000040800F2
+                :0400000001020304F2
+                :0400000508000123CB
+                :00000001FF
+                """;
+        try (HexFileReader reader = new HexFileReader(new ByteArrayInputStream(input.getBytes()))) {
+            BinaryFile file = reader.read();
+            assertNotNull(file);
+            assertEquals(0x1000_0000L, file.getSizeLimit());
+            assertEquals(0x0800_0004L, file.getCurrentSize());
+            assertEquals((byte) 1, file.getByte(0x0800_0000L));
+            assertEquals((byte) 4, file.getByte(0x0800_0003L));
+            assertNull(file.getByte(0));
+        }
+    }
+
+    @Test
+    public void testReadExtendedSegmentAddressWrapsWithinSegment() throws IOException {
+        String input = """
+                :020000021000EC
+                :04FFFE0001020304F5
+                :0400000300000100F8
+                :00000001FF
+                """;
+        try (HexFileReader reader = new HexFileReader(new ByteArrayInputStream(input.getBytes()))) {
+            BinaryFile file = reader.read();
+            assertNotNull(file);
+            assertEquals((byte) 1, file.getByte(0x1fffe));
+            assertEquals((byte) 2, file.getByte(0x1ffff));
+            assertEquals((byte) 3, file.getByte(0x10000));
+            assertEquals((byte) 4, file.getByte(0x10001));
+            assertNull(file.getByte(0x1fffd));
+            assertNull(file.getByte(0x10002));
+        }
+    }
+
+    @Test
+    public void testExtendedAddressResetBetweenFiles() throws IOException {
+        String input = """
+                :020000040800F2
+                :0400000001020304F2
+                :00000001FF
+                :0400000001020304F2
+                :00000001FF
+                """;
+        try (HexFileReader reader = new HexFileReader(new ByteArrayInputStream(input.getBytes()))) {
+            assertNotNull(reader.read());
+            BinaryFile second = reader.read();
+            assertNotNull(second);
+            assertEquals(4, second.getCurrentSize());
+        }
+    }
+
+    @Test
+    public void testUnsupportedRecordType() throws IOException {
+        String input = """
+                :00000006FA
+                :00000001FF
+                """;
+        try (HexFileReader reader = new HexFileReader(new ByteArrayInputStream(input.getBytes()))) {
+            assertThrows(HexFileParsingException.class, reader::read);
+        }
+    }
+
     @Test
     public void testInitNullReader() {
         assertThrows(NullPointerException.class, () -> new HexFileReader((HexRecordReader) null));
@@ -0,0 +1,129 @@
+package ch.awae.binfiles.hex;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HexFileScannerTest {
+
+    private static HexFileScanner scanner(String content) {
+        return new HexFileScanner(new ByteArrayInputStream(content.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    @Test
+    public void testAdjacentRecordsAreMerged() throws IOException {
+        HexFileScanner scanner = scanner("""
+                :080000000102030405060708D4
+                :080008000102030405060708CC
+                :0400200001020304D2
+                :00000001FF
+                """);
+
+        HexFileScanner.Coverage coverage = scanner.scan();
+        assertNotNull(coverage);
+        assertEquals(2, coverage.getRangeCount());
+        assertEquals(0, coverage.getRangeStart(0));
+        assertEquals(16, coverage.getRangeEnd(0));
+        assertEquals(0x20, coverage.getRangeStart(1));
+        assertEquals(0x24, coverage.getRangeEnd(1));
+        assertEquals(20, coverage.getByteCount());
+        assertEquals(4, coverage.getRecordCount());
+        assertThrows(IndexOutOfBoundsException.class, () -> coverage.getRangeStart(2));
+        assertNull(scanner.scan());
+    }
+
+    @Test
+    public void testRangesAcrossRegionsAndExtendedAddresses() throws IOException {
+        HexFileScanner scanner = scanner("""
+                :02FFFE000102FE
+                :020000040001F9
+                :020000000304F7
+                :02000004FFFFFC
+                :02FFFE000506F6
+                :00000001FF
+                """);
+
+        HexFileScanner.Coverage coverage = scanner.scan();
+        assertNotNull(coverage);
+        assertEquals(2, coverage.getRangeCount());
+        assertEquals(0xfffe, coverage.getRangeStart(0));
+        assertEquals(0x10002, coverage.getRangeEnd(0));
+        assertEquals(0xffff_fffeL, coverage.getRangeStart(1));
+        assertEquals(0x1_0000_0000L, coverage.getRangeEnd(1));
+        assertEquals(6, coverage.getByteCount());
+    }
+
+    @Test
+    public void testMultipleFilesAreScannedIndependently() throws IOException {
+        String file = ":080000000102030405060708D4\n:00000001FF\n";
+        HexFileScanner scanner = scanner(file + file);
+
+        HexFileScanner.Coverage first = scanner.scan();
+        HexFileScanner.Coverage second = scanner.scan();
+        assertNotNull(first);
+        assertNotNull(second);
+        assertEquals(8, second.getByteCount());
+        assertEquals(1, second.getRangeCount());
+        assertNull(scanner.scan());
+    }
+
+    @Test
+    public void testEmptyFile() throws IOException {
+        HexFileScanner.Coverage coverage = scanner(":00000001FF\n").scan();
+        assertNotNull(coverage);
+        assertEquals(0, coverage.getRangeCount());
+        assertEquals(1, coverage.getRecordCount());
+        assertNull(scanner("").scan());
+    }
+
+    @Test
+    public void testOverlapIsRejected() {
+        HexFileScanner scanner = scanner("""
+                :080000000102030405060708D4
+                :020006000102F5
+                :00000001FF
+                """);
+        IllegalStateException e = assertThrows(IllegalStateException.class, scanner::scan);
+        assertEquals("value already present at address 6", e.getMessage());
+        assertThrows(HexFileParsingException.class, scanner::scan);
+    }
+
+    @Test
+    public void testMissingEndOfFileIsRejected() {
+        HexFileScanner scanner = scanner(":080000000102030405060708D4\n");
+        assertThrows(HexFileParsingException.class, scanner::scan);
+    }
+
+    @Test
+    public void testBadChecksumIsRejected() {
+        HexFileScanner scanner = scanner(":080000000102030405060708D5\n:00000001FF\n");
+        assertThrows(HexFileParsingException.class, scanner::scan);
+    }
+
+    @Test
+    public void testEmptyDataRecordIsRejectedLikeReader() throws IOException {
+        String content = ":0000000000\n:00000001FF\n";
+        assertThrows(HexFileParsingException.class, () -> scanner(content).scan());
+        try (HexFileReader reader = new HexFileReader(
+                new ByteArrayInputStream(content.getBytes(StandardCharsets.US_ASCII)))) {
+            assertThrows(HexFileParsingException.class, reader::read);
+        }
+    }
+
+    @Test
+    public void testUnsupportedRecordTypeIsRejected() {
+        assertThrows(HexFileParsingException.class, () -> scanner(":00000006FA\n").scan());
+    }
+
+    @Test
+    public void testScanAfterClose() throws IOException {
+        HexFileScanner scanner = scanner(":00000001FF\n");
+        scanner.close();
+        assertThrows(IOException.class, scanner::scan);
+    }
+
+}
@@ -4,10 +4,13 @@ import ch.awae.binfiles.BinaryFile;
 import ch.awae.binfiles.DataFragment;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class HexFileWriterTest {
 
@@ -76,4 +79,132 @@ public class HexFileWriterTest {
         assertEquals(reference, output);
     }
 
+    @Test
+    public void testWriteExtendedLinearAddress() throws IOException {
+        BinaryFile file = new BinaryFile(BinaryFile.MAX_SIZE);
+        file.addFragment(new DataFragment(0x0000, new byte[]{1, 2, 3, 4}));
+        file.addFragment(new DataFragment(0x0001_fff8L, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12}));
+        file.addFragment(new DataFragment(0x0800_0000L, new byte[]{1, 2, 3, 4}));
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        HexFileWriter writer = new HexFileWriter(stream);
+        writer.write(file);
+
+        String output = stream.toString();
+
+        // the fragment crossing the 64K boundary must be split
+        String reference = """
+                :0400000001020304F2
+                :020000040001F9
+                :08FFF8000102030405060708DD
+                :020000040002F8
+                :04000000090A0B0CD2
+                :020000040800F2
+                :0400000001020304F2
+                :00000001FF
+                """;
+        assertEquals(reference, output);
+    }
+
+    @Test
+    public void testExtendedAddressRoundTrip() throws IOException {
+        BinaryFile file = new BinaryFile(BinaryFile.MAX_SIZE);
+        byte[] data = new byte[1000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        file.addFragment(new DataFragment(0x0800_ff00L, data));
+        file.addFragment(new DataFragment(0x0802_0000L, new byte[16]));
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        new HexFileWriter(stream).write(file, 255);
+        BinaryFile read = new HexFileReader(new ByteArrayInputStream(stream.toByteArray())).read();
+
+        assertNotNull(read);
+        assertEquals(0x1000_0000L, read.getSizeLimit());
+        for (int i = 0; i < data.length; i++) {
+            assertEquals(data[i], read.getByte(0x0800_ff00L + i));
+        }
+        assertEquals((byte) 0, read.getByte(0x0802_000fL));
+        assertNull(read.getByte(0x0800_ff00L + data.length));
+    }
+
+    private static String writeSequential(BinaryFile file, int recordLength) throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        new HexFileWriter(stream).write(file, recordLength);
+        return stream.toString();
+    }
+
+    private static String writeParallel(BinaryFile file, int recordLength, ForkJoinPool pool) throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        new HexFileWriter(stream).write(file, recordLength, pool);
+        return stream.toString();
+    }
+
+    @Test
+    public void testParallelWriteMatchesSequential() throws IOException {
+        // 8 MiB of sparse data, split into many regions
+        BinaryFile file = new BinaryFile(0x80_0000);
+        Random random = new Random(99);
+        for (long position = 0xfff0; position < 0x7f_f000; position += 0x1000 + random.nextInt(0x20000)) {
+            byte[] data = new byte[1 + random.nextInt(4000)];
+            random.nextBytes(data);
+            file.addFragment(new DataFragment(position, data));
+        }
+        // data right at the end of a 64K segment and at the start of the next one
+        file.addFragment(new DataFragment(0x7f_fff0, new byte[16]));
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int recordLength : new int[]{1, 7, 16, 255}) {
+                assertEquals(writeSequential(file, recordLength), writeParallel(file, recordLength, pool));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testParallelWriteSmallFiles() throws IOException {
+        BinaryFile empty = new BinaryFile();
+        assertEquals(":00000001FF\n", writeParallel(empty, 16, ForkJoinPool.commonPool()));
+
+        BinaryFile file = new BinaryFile();
+        file.addFragment(new DataFragment(0, new byte[]{1, 2, 3, 4, 5, 6, 7, 8}));
+        file.addFragment(new DataFragment(20, new byte[]{1, 2, 3, 4, 5, 6, 7, 8}));
+        assertEquals(writeSequential(file, 8), writeParallel(file, 8, ForkJoinPool.commonPool()));
+
+        // data only above the first 64K
+        BinaryFile high = new BinaryFile(BinaryFile.MAX_SIZE);
+        high.addFragment(new DataFragment(0xffff_fff0L, new byte[16]));
+        assertEquals(writeSequential(high, 16), writeParallel(high, 16, ForkJoinPool.commonPool()));
+    }
+
+    @Test
+    public void testParallelWriteKeepsSeparatorAndBufferedRecords() throws IOException {
+        BinaryFile file = new BinaryFile(0x40000);
+        file.addFragment(new DataFragment(0x1fffc, new byte[]{1, 2, 3, 4, 5, 6, 7, 8}));
+
+        ByteArrayOutputStream sequential = new ByteArrayOutputStream();
+        HexFileWriter sequentialWriter = new HexFileWriter(new HexRecordWriter(sequential, "\r\n"));
+        sequentialWriter.write(file, 16);
+        sequentialWriter.write(file, 16);
+
+        ByteArrayOutputStream parallel = new ByteArrayOutputStream();
+        HexFileWriter parallelWriter = new HexFileWriter(new HexRecordWriter(parallel, "\r\n"));
+        parallelWriter.write(file, 16, ForkJoinPool.commonPool());
+        parallelWriter.write(file, 16, ForkJoinPool.commonPool());
+
+        assertEquals(sequential.toString(), parallel.toString());
+    }
+
+    @Test
+    public void testParallelWriteInvalidArguments() {
+        HexFileWriter writer = new HexFileWriter(new ByteArrayOutputStream());
+        BinaryFile file = new BinaryFile();
+        assertThrows(IllegalArgumentException.class, () -> writer.write(file, 0, ForkJoinPool.commonPool()));
+        assertThrows(IllegalArgumentException.class, () -> writer.write(file, 256, ForkJoinPool.commonPool()));
+        assertThrows(NullPointerException.class, () -> writer.write(file, 16, null));
+    }
+
 }
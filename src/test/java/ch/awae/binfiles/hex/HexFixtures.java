@@ -0,0 +1,65 @@
+package ch.awae.binfiles.hex;
+
+import ch.awae.binfiles.BinaryFile;
+import ch.awae.binfiles.DataFragment;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Random hex inputs shared by the tests comparing other ways of reading records with the {@link HexRecordReader}.
+ */
+final class HexFixtures {
+
+    private static final int SIZE = 1 << 20;
+
+    private HexFixtures() {
+    }
+
+    /**
+     * Generates a hex input with random data fragments evenly spread over a 1 MiB file. The file is written once per
+     * record length, with "\r\n" as the line separator.
+     *
+     * @param seed          the seed of the random data
+     * @param fragments     the number of fragments, each between 1 and 500 bytes long. at most 2048.
+     * @param recordLengths the record lengths to write the file with
+     * @return the hex input
+     */
+    static byte[] randomHex(long seed, int fragments, int... recordLengths) throws IOException {
+        Random random = new Random(seed);
+        BinaryFile file = new BinaryFile(SIZE);
+        for (int i = 0; i < fragments; i++) {
+            byte[] data = new byte[1 + random.nextInt(500)];
+            random.nextBytes(data);
+            file.addFragment(new DataFragment((long) i * (SIZE / fragments), data));
+        }
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        HexFileWriter writer = new HexFileWriter(new HexRecordWriter(stream, "\r\n"));
+        for (int recordLength : recordLengths) {
+            writer.write(file, recordLength);
+        }
+        writer.flush();
+        return stream.toByteArray();
+    }
+
+    /**
+     * Reads all records of an input with a {@link HexRecordReader}. The position of the buffer is not changed.
+     *
+     * @param input the input
+     * @return all records
+     */
+    static List<HexRecord> readAll(ByteBuffer input) throws IOException {
+        List<HexRecord> records = new ArrayList<>();
+        HexRecordReader reader = HexRecordReader.wrap(input.duplicate());
+        HexRecord record;
+        while ((record = reader.readNext()) != null) {
+            records.add(record);
+        }
+        return records;
+    }
+
+}
@@ -0,0 +1,150 @@
+package ch.awae.binfiles.hex;
+
+import ch.awae.binfiles.BinaryFile;
+import ch.awae.binfiles.DataFragment;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HexMetricsTest {
+
+    private static final String VALID = """
+            :080000000102030405060708D4
+            :080008000102030405060708CC
+            :00000001FF
+            """;
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void testRecordReaderReportsRecords() throws IOException {
+        HexMetrics metrics = new HexMetrics();
+        HexRecordReader reader = new HexRecordReader(stream(VALID));
+        reader.setListener(metrics);
+        while (reader.readNext() != null) {
+            // consume all records
+        }
+
+        HexMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(3, snapshot.recordsRead());
+        assertEquals(16, snapshot.bytesRead());
+        assertEquals(0, snapshot.filesRead());
+        assertEquals(0, snapshot.checksumFailures());
+    }
+
+    @Test
+    public void testRecordReaderReportsChecksumFailures() {
+        HexMetrics metrics = new HexMetrics();
+        HexRecordReader reader = new HexRecordReader(stream(":080000000102030405060708D5\n"));
+        reader.setListener(metrics);
+
+        assertThrows(HexRecordParsingException.class, reader::readNext);
+        assertEquals(1, metrics.snapshot().checksumFailures());
+        assertEquals(0, metrics.snapshot().recordsRead());
+    }
+
+    @Test
+    public void testFileReaderReportsFilesAndRecords() throws IOException {
+        HexMetrics metrics = new HexMetrics();
+        HexFileReader reader = new HexFileReader(stream(VALID + VALID));
+        reader.setListener(metrics);
+        while (reader.read() != null) {
+            // consume all files
+        }
+
+        HexMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(2, snapshot.filesRead());
+        assertEquals(6, snapshot.recordsRead());
+        assertEquals(32, snapshot.bytesRead());
+        assertTrue(snapshot.parseNanos() > 0);
+    }
+
+    @Test
+    public void testFileReaderReportsUnsupportedRecordTypes() {
+        HexMetrics metrics = new HexMetrics();
+        HexFileReader reader = new HexFileReader(stream(":00000006FA\n"));
+        reader.setListener(metrics);
+
+        assertThrows(HexFileParsingException.class, reader::read);
+        assertEquals(1, metrics.snapshot().unsupportedTypes());
+        assertEquals(0, metrics.snapshot().filesRead());
+    }
+
+    @Test
+    public void testFileWriterReportsFilesAndRecords() throws IOException {
+        HexMetrics metrics = new HexMetrics();
+        BinaryFile file = new BinaryFile(0x20000);
+        file.addFragment(new DataFragment(0, new byte[20]));
+        file.addFragment(new DataFragment(0x10000, new byte[4]));
+        HexFileWriter writer = new HexFileWriter(new ByteArrayOutputStream());
+        writer.setListener(metrics);
+        writer.write(file);
+
+        HexMetrics.Snapshot snapshot = metrics.snapshot();
+        // two data records, one extended linear address record, one data record, EOF
+        assertEquals(5, snapshot.recordsWritten());
+        assertEquals(26, snapshot.bytesWritten());
+        assertEquals(1, snapshot.filesWritten());
+        assertTrue(snapshot.encodeNanos() > 0);
+    }
+
+    @Test
+    public void testParallelFileWriterReportsTheSameRecords() throws IOException {
+        BinaryFile file = new BinaryFile(1 << 20);
+        for (int i = 0; i < 16; i++) {
+            file.addFragment(new DataFragment(i * 0x10000L, new byte[100]));
+        }
+        HexMetrics serial = new HexMetrics();
+        HexFileWriter serialWriter = new HexFileWriter(new ByteArrayOutputStream());
+        serialWriter.setListener(serial);
+        serialWriter.write(file, 16);
+        HexMetrics parallel = new HexMetrics();
+        HexFileWriter parallelWriter = new HexFileWriter(new ByteArrayOutputStream());
+        parallelWriter.setListener(parallel);
+        parallelWriter.write(file, 16, new ForkJoinPool(4));
+
+        assertEquals(serial.snapshot().recordsWritten(), parallel.snapshot().recordsWritten());
+        assertEquals(serial.snapshot().bytesWritten(), parallel.snapshot().bytesWritten());
+        assertEquals(1, parallel.snapshot().filesWritten());
+    }
+
+    @Test
+    public void testCustomListenerReceivesRecordTypes() throws IOException {
+        List<Integer> types = new ArrayList<>();
+        HexRecordWriter writer = new HexRecordWriter(new ByteArrayOutputStream());
+        writer.setListener(new HexListener() {
+            @Override
+            public void recordWritten(int type, int length) {
+                types.add(type);
+            }
+        });
+        writer.write(new HexRecord(4, 0, new byte[2]));
+        writer.write(new HexRecord(1, 0, new byte[0]));
+        writer.setListener(null);
+        writer.write(new HexRecord(1, 0, new byte[0]));
+
+        assertEquals(List.of(4, 1), types);
+    }
+
+    @Test
+    public void testReset() throws IOException {
+        HexMetrics metrics = new HexMetrics();
+        HexFileReader reader = new HexFileReader(stream(VALID));
+        reader.setListener(metrics);
+        reader.read();
+        metrics.reset();
+
+        assertEquals(new HexMetrics.Snapshot(0, 0, 0, 0, 0, 0, 0, 0, 0, 0), metrics.snapshot());
+    }
+
+}
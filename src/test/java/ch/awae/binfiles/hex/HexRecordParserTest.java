@@ -0,0 +1,139 @@
+package ch.awae.binfiles.hex;
+
+import ch.awae.binfiles.DataFragment;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HexRecordParserTest {
+
+    private static ByteBuffer ascii(String content) {
+        return ByteBuffer.wrap(content.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void testRandomChunksYieldTheSameRecordsAsTheReader() throws IOException {
+        byte[] input = HexFixtures.randomHex(7, 100, 255, 13);
+        List<HexRecord> expected = HexFixtures.readAll(ByteBuffer.wrap(input));
+        Random random = new Random(11);
+
+        for (int maxChunk : new int[]{1, 3, 100, 5000}) {
+            List<HexRecord> records = new ArrayList<>();
+            HexRecordParser parser = new HexRecordParser(records::add);
+            int position = 0;
+            while (position < input.length) {
+                int length = Math.min(1 + random.nextInt(maxChunk), input.length - position);
+                ByteBuffer chunk = ByteBuffer.wrap(input, position, length);
+                parser.feed(chunk);
+                assertFalse(chunk.hasRemaining());
+                position += length;
+            }
+            parser.finish();
+            assertEquals(expected, records, "max chunk " + maxChunk);
+        }
+    }
+
+    @Test
+    public void testRecordIsEmittedAsSoonAsItIsComplete() throws IOException {
+        List<HexRecord> records = new ArrayList<>();
+        HexRecordParser parser = new HexRecordParser(records::add);
+
+        parser.feed(ascii("garbage:0400100001020"));
+        assertTrue(parser.hasPartialRecord());
+        assertEquals(0, records.size());
+        parser.feed(ascii("304E"));
+        assertEquals(0, records.size());
+        parser.feed(ascii("2\n:000"));
+        assertEquals(List.of(new HexRecord(0, 0x10, new byte[]{1, 2, 3, 4})), records);
+        assertTrue(parser.hasPartialRecord());
+        parser.feed(ascii("00001FF"));
+        assertFalse(parser.hasPartialRecord());
+        assertEquals(2, records.size());
+        parser.finish();
+    }
+
+    @Test
+    public void testFragments() throws IOException {
+        List<DataFragment> fragments = new ArrayList<>();
+        HexRecordParser parser = HexRecordParser.forFragments(fragments::add);
+
+        parser.feed(ascii(":020000040001F9\n:0400100001020304E2\n:00000001FF\n:0400100001020304E2\n:00000001FF\n"));
+        parser.finish();
+
+        assertEquals(2, fragments.size());
+        assertEquals(0x10010, fragments.get(0).getPosition());
+        assertArrayEquals(new byte[]{1, 2, 3, 4}, fragments.get(0).getData());
+        // the base address is reset by the EOF record
+        assertEquals(0x10, fragments.get(1).getPosition());
+    }
+
+    @Test
+    public void testFinishAfterDataWithoutEofInFragmentMode() throws IOException {
+        List<DataFragment> fragments = new ArrayList<>();
+        HexRecordParser parser = HexRecordParser.forFragments(fragments::add);
+
+        // the stream is cut right after a complete data record of the second file
+        parser.feed(ascii(":0400100001020304E2\n:00000001FF\n:0400100001020304E2\n"));
+        assertFalse(parser.hasPartialRecord());
+        HexFileParsingException e = assertThrows(HexFileParsingException.class, parser::finish);
+        assertEquals("unexpected end of stream", e.getMessage());
+        assertThrows(HexRecordParsingException.class, parser::finish);
+
+        // address records alone do not start a file
+        HexRecordParser addressOnly = HexRecordParser.forFragments(fragment -> fail());
+        addressOnly.feed(ascii(":020000040001F9\n"));
+        addressOnly.finish();
+    }
+
+    @Test
+    public void testUnsupportedRecordTypeInFragmentMode() {
+        HexRecordParser parser = HexRecordParser.forFragments(fragment -> fail());
+        assertThrows(HexFileParsingException.class, () -> parser.feed(ascii(":00000006FA")));
+        assertThrows(HexRecordParsingException.class, () -> parser.feed(ascii(":00000001FF")));
+    }
+
+    @Test
+    public void testBadChecksum() {
+        HexRecordParser parser = new HexRecordParser(record -> fail());
+        HexRecordParsingException e = assertThrows(HexRecordParsingException.class,
+                () -> parser.feed(ascii(":0400100001020304E3")));
+        assertEquals("bad checksum in block", e.getMessage());
+        assertThrows(HexRecordParsingException.class, () -> parser.feed(ascii(":00000001FF")));
+        assertThrows(HexRecordParsingException.class, parser::finish);
+    }
+
+    @Test
+    public void testInvalidDigits() {
+        HexRecordParsingException length = assertThrows(HexRecordParsingException.class,
+                () -> new HexRecordParser(record -> fail()).feed(ascii(":x4")));
+        assertEquals("parsing error: invalid hex digits 'x4'", length.getMessage());
+
+        HexRecordParsingException data = assertThrows(HexRecordParsingException.class,
+                () -> new HexRecordParser(record -> fail()).feed(ascii(":04001000010g0304E2")));
+        assertEquals("parsing error: invalid hex digits '0g'", data.getMessage());
+    }
+
+    @Test
+    public void testFinishInsideRecord() throws IOException {
+        HexRecordParser parser = new HexRecordParser(record -> fail());
+        parser.feed(ascii(":0400"));
+        assertThrows(HexRecordParsingException.class, parser::finish);
+    }
+
+    @Test
+    public void testFeedAfterFinish() throws IOException {
+        HexRecordParser parser = new HexRecordParser(record -> fail());
+        parser.feed(ascii("\n"));
+        parser.finish();
+        assertThrows(IOException.class, () -> parser.feed(ascii(":00000001FF")));
+        assertThrows(IOException.class, parser::finish);
+    }
+
+}
@@ -0,0 +1,188 @@
+package ch.awae.binfiles.hex;
+
+import ch.awae.binfiles.BinaryFile;
+import ch.awae.binfiles.DataFragment;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HexRecordPipelineTest {
+
+    private static String transform(String input, String separator, HexRecordStage... stages) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        HexRecordReader reader = new HexRecordReader(new ByteArrayInputStream(input.getBytes()));
+        HexRecordWriter writer = new HexRecordWriter(output, separator);
+        new HexRecordPipeline(stages).run(reader, writer);
+        return output.toString();
+    }
+
+    private static String write(BinaryFile file, int recordLength) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new HexFileWriter(output).write(file, recordLength);
+        return output.toString();
+    }
+
+    @Test
+    public void testPassThrough() throws IOException {
+        String input = """
+                :080000000102030405060708D4
+                :080008000102030405060708CC
+                :0400140001020304DE
+                :00000001FF
+                """;
+        assertEquals(input, transform(input, "\n"));
+    }
+
+    @Test
+    public void testChangeSeparator() throws IOException {
+        String input = ":0400140001020304DE\n:00000001FF\n";
+        assertEquals(":0400140001020304DE\r\n:00000001FF\r\n", transform(input, "\r\n"));
+    }
+
+    @Test
+    public void testRechunkMergesAdjacentRecords() throws IOException {
+        String input = """
+                :080000000102030405060708D4
+                :080008000102030405060708CC
+                :0400140001020304DE
+                :0400180005060708CA
+                :00000001FF
+                """;
+        String expected = """
+                :1000000001020304050607080102030405060708A8
+                :080014000102030405060708C0
+                :00000001FF
+                """;
+        assertEquals(expected, transform(input, "\n", HexRecordStage.rechunk(16)));
+    }
+
+    @Test
+    public void testRechunkMatchesFileWriter() throws IOException {
+        // sparse data crossing several 64K boundaries
+        BinaryFile file = new BinaryFile(0x40000);
+        Random random = new Random(42);
+        for (long position = 0xff00; position < 0x40000; position += 0x3000 + random.nextInt(0x100)) {
+            byte[] data = new byte[1 + random.nextInt(1000)];
+            random.nextBytes(data);
+            file.addFragment(new DataFragment(Math.min(position, 0x40000 - data.length), data));
+        }
+
+        String input = write(file, 7);
+        for (int recordLength : new int[]{1, 16, 32, 255}) {
+            assertEquals(write(file, recordLength), transform(input, "\n", HexRecordStage.rechunk(recordLength)));
+        }
+    }
+
+    @Test
+    public void testRechunkIsFlushedAtEndOfFile() throws IOException {
+        String input = ":0400000001020304F2\n:00000001FF\n:0400040005060708DE\n:00000001FF\n";
+        assertEquals(input, transform(input, "\n", HexRecordStage.rechunk(16)));
+    }
+
+    @Test
+    public void testFilter() throws IOException {
+        String input = """
+                :080000000102030405060708D4
+                :080008000102030405060708CC
+                :0400140001020304DE
+                :00000001FF
+                """;
+        String expected = """
+                :020006000708E9
+                :06000800010203040506DD
+                :00000001FF
+                """;
+        assertEquals(expected, transform(input, "\n", HexRecordStage.filter(6, 14)));
+    }
+
+    @Test
+    public void testFilterInvalidRange() {
+        assertThrows(IllegalArgumentException.class, () -> HexRecordStage.filter(-1, 5));
+        assertThrows(IllegalArgumentException.class, () -> HexRecordStage.filter(6, 5));
+        assertThrows(IllegalArgumentException.class, () -> HexRecordStage.filter(0, BinaryFile.MAX_SIZE + 1));
+    }
+
+    @Test
+    public void testShiftAcross64KBoundary() throws IOException {
+        String input = ":080000000102030405060708D4\n:00000001FF\n";
+        String output = transform(input, "\n", HexRecordStage.shift(0x1fffc));
+
+        BinaryFile file = new HexFileReader(new ByteArrayInputStream(output.getBytes())).read();
+        assertNotNull(file);
+        for (int i = 0; i < 8; i++) {
+            assertEquals((byte) (i + 1), file.getByte(0x1fffc + i));
+        }
+        assertEquals("""
+                :020000040001F9
+                :04FFFC0001020304F7
+                :020000040002F8
+                :0400000005060708E2
+                :00000001FF
+                """, output);
+    }
+
+    @Test
+    public void testShiftOutOfBounds() {
+        String input = ":080000000102030405060708D4\n:00000001FF\n";
+        assertThrows(IllegalArgumentException.class, () -> transform(input, "\n", HexRecordStage.shift(-1)));
+    }
+
+    @Test
+    public void testSegmentAddressesAreResolved() throws IOException {
+        // base 0x12340 -> linear 0x00012340
+        String input = ":020000021234B6\n:0400000001020304F2\n:00000001FF\n";
+        String expected = ":020000040001F9\n:04234000010203048F\n:00000001FF\n";
+        assertEquals(expected, transform(input, "\n"));
+    }
+
+    @Test
+    public void testMultipleFiles() throws IOException {
+        String input = ":020000040001F9\n:0400000001020304F2\n:00000001FF\n:0400000001020304F2\n:00000001FF\n";
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        HexRecordReader reader = new HexRecordReader(new ByteArrayInputStream(input.getBytes()));
+        long files = new HexRecordPipeline().run(reader, new HexRecordWriter(output, "\n"));
+        assertEquals(2, files);
+        // the extended address does not carry over into the second file
+        assertEquals(input, output.toString());
+    }
+
+    @Test
+    public void testStagesAreChainedInOrder() throws IOException {
+        String input = ":080000000102030405060708D4\n:00000001FF\n";
+        // filter first, then shift
+        String expected = ":020012000304E5\n:00000001FF\n";
+        assertEquals(expected, transform(input, "\n", HexRecordStage.filter(2, 4), HexRecordStage.shift(0x10)));
+    }
+
+    @Test
+    public void testUnexpectedEndOfStream() {
+        String input = ":080000000102030405060708D4\n";
+        assertThrows(HexFileParsingException.class, () -> transform(input, "\n"));
+    }
+
+    @Test
+    public void testInvalidRecord() {
+        String input = ":080000000102030405060708D5\n:00000001FF\n";
+        assertThrows(HexFileParsingException.class, () -> transform(input, "\n"));
+    }
+
+    @Test
+    public void testUnsupportedRecordType() {
+        String input = ":00000006FA\n:00000001FF\n";
+        assertThrows(HexFileParsingException.class, () -> transform(input, "\n"));
+    }
+
+    @Test
+    public void testNullArguments() {
+        assertThrows(NullPointerException.class, () -> new HexRecordPipeline((HexRecordStage) null));
+        HexRecordPipeline pipeline = new HexRecordPipeline();
+        assertThrows(NullPointerException.class,
+                () -> pipeline.run(null, new HexRecordWriter(new ByteArrayOutputStream())));
+    }
+
+}
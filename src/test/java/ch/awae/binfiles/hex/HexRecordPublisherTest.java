@@ -0,0 +1,253 @@
+package ch.awae.binfiles.hex;
+
+import ch.awae.binfiles.BinaryFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HexRecordPublisherTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Subscriber requesting records in batches of a given size and collecting them.
+     */
+    private static final class Collector implements Flow.Subscriber<HexRecord> {
+        final CompletableFuture<List<HexRecord>> result = new CompletableFuture<>();
+        final List<HexRecord> records = new ArrayList<>();
+        private final int batch;
+        private Flow.Subscription subscription;
+        private int outstanding;
+
+        Collector(int batch) {
+            this.batch = batch;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            outstanding = batch;
+            subscription.request(batch);
+        }
+
+        @Override
+        public void onNext(HexRecord item) {
+            records.add(item);
+            if (--outstanding == 0) {
+                outstanding = batch;
+                subscription.request(batch);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            result.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            result.complete(records);
+        }
+
+        List<HexRecord> get() throws Exception {
+            return result.get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private Path write(String name, String content) throws IOException {
+        Path path = directory.resolve(name);
+        Files.writeString(path, content);
+        return path;
+    }
+
+    private Path randomFile() throws IOException {
+        Path path = directory.resolve("random.hex");
+        Files.write(path, HexFixtures.randomHex(42, 200, 255, 7));
+        return path;
+    }
+
+    private static List<HexRecord> readAll(Path path) throws IOException {
+        return HexFixtures.readAll(ByteBuffer.wrap(Files.readAllBytes(path)));
+    }
+
+    @Test
+    public void testPublishesTheSameRecordsAsTheReader() throws Exception {
+        Path path = randomFile();
+        List<HexRecord> expected = readAll(path);
+
+        for (int batch : new int[]{1, 7, 1000}) {
+            Collector collector = new Collector(batch);
+            HexRecordPublisher.open(path).subscribe(collector);
+            assertEquals(expected, collector.get(), "batch size " + batch);
+        }
+    }
+
+    @Test
+    public void testSmallBufferOnProvidedChannel() throws Exception {
+        Path path = randomFile();
+        try (AsynchronousFileChannel channel = AsynchronousFileChannel.open(path, StandardOpenOption.READ)) {
+            Collector collector = new Collector(3);
+            new HexRecordPublisher(channel, 1024).subscribe(collector);
+            assertEquals(readAll(path), collector.get());
+            // the channel is not closed by the publisher
+            assertTrue(channel.isOpen());
+        }
+    }
+
+    @Test
+    public void testNoRecordsBeyondDemandArePublished() throws Exception {
+        Path path = randomFile();
+        List<HexRecord> received = new ArrayList<>();
+        Flow.Subscription[] subscription = new Flow.Subscription[1];
+        HexRecordPublisher.open(path).subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription s) {
+                subscription[0] = s;
+                s.request(5);
+            }
+
+            @Override
+            public void onNext(HexRecord item) {
+                synchronized (received) {
+                    received.add(item);
+                }
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+        Thread.sleep(200);
+        synchronized (received) {
+            assertEquals(5, received.size());
+        }
+        subscription[0].cancel();
+    }
+
+    @Test
+    public void testParsingErrorIsSignalled() throws Exception {
+        Path path = write("corrupt.hex", ":00000001FF\n:080000000102030405060708D5\n");
+        Collector collector = new Collector(10);
+        HexRecordPublisher.open(path).subscribe(collector);
+
+        ExecutionException e = assertThrows(ExecutionException.class, collector::get);
+        assertInstanceOf(HexRecordParsingException.class, e.getCause());
+        assertEquals(1, collector.records.size());
+    }
+
+    @Test
+    public void testTruncatedRecordIsSignalled() throws Exception {
+        Path path = write("truncated.hex", ":00000001FF\n:0800000001020304");
+        Collector collector = new Collector(10);
+        HexRecordPublisher.open(path).subscribe(collector);
+
+        ExecutionException e = assertThrows(ExecutionException.class, collector::get);
+        assertInstanceOf(HexRecordParsingException.class, e.getCause());
+    }
+
+    @Test
+    public void testEmptyFileCompletes() throws Exception {
+        Collector collector = new Collector(1);
+        HexRecordPublisher.open(write("empty.hex", "\n\n")).subscribe(collector);
+        assertEquals(List.of(), collector.get());
+    }
+
+    @Test
+    public void testInvalidRequestIsSignalled() throws Exception {
+        CompletableFuture<Throwable> error = new CompletableFuture<>();
+        HexRecordPublisher.open(write("a.hex", ":00000001FF\n")).subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(0);
+            }
+
+            @Override
+            public void onNext(HexRecord item) {
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                error.complete(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+        assertInstanceOf(IllegalArgumentException.class, error.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testSecondSubscriberIsRejected() throws Exception {
+        HexRecordPublisher publisher = HexRecordPublisher.open(write("a.hex", ":00000001FF\n"));
+        Collector first = new Collector(1);
+        Collector second = new Collector(1);
+        publisher.subscribe(first);
+        publisher.subscribe(second);
+
+        assertEquals(1, first.get().size());
+        ExecutionException e = assertThrows(ExecutionException.class, second::get);
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+
+    @Test
+    public void testReadFile() throws Exception {
+        Path path = randomFile();
+        BinaryFile expected;
+        try (HexFileReader reader = HexFileReader.open(path)) {
+            expected = reader.read();
+        }
+        assertNotNull(expected);
+
+        BinaryFile file = HexRecordPublisher.readFile(path).get(10, TimeUnit.SECONDS);
+        assertNotNull(file);
+        assertEquals(expected.getSizeLimit(), file.getSizeLimit());
+        assertEquals(expected.getCurrentSize(), file.getCurrentSize());
+        byte[] expectedData = new byte[(int) expected.getCurrentSize()];
+        byte[] actualData = new byte[(int) file.getCurrentSize()];
+        expected.copyTo(0, expectedData, 0, expectedData.length, (byte) 0);
+        file.copyTo(0, actualData, 0, actualData.length, (byte) 0);
+        assertArrayEquals(expectedData, actualData);
+    }
+
+    @Test
+    public void testReadFileErrors() throws Exception {
+        assertNull(HexRecordPublisher.readFile(write("empty.hex", "")).get(10, TimeUnit.SECONDS));
+
+        ExecutionException missingEof = assertThrows(ExecutionException.class, () -> HexRecordPublisher
+                .readFile(write("noeof.hex", ":080000000102030405060708D4\n")).get(10, TimeUnit.SECONDS));
+        assertInstanceOf(HexFileParsingException.class, missingEof.getCause());
+
+        ExecutionException corrupt = assertThrows(ExecutionException.class, () -> HexRecordPublisher
+                .readFile(write("corrupt.hex", ":080000000102030405060708D5\n")).get(10, TimeUnit.SECONDS));
+        assertInstanceOf(HexFileParsingException.class, corrupt.getCause());
+    }
+
+    @Test
+    public void testCompleteLength() {
+        assertEquals(0, HexRecordPublisher.completeLength(ByteBuffer.wrap(":0".getBytes())));
+        assertEquals(12, HexRecordPublisher.completeLength(ByteBuffer.wrap(":00000001FF\n:00".getBytes())));
+        assertEquals(5, HexRecordPublisher.completeLength(ByteBuffer.wrap("\r\nabc".getBytes())));
+        assertEquals(3, HexRecordPublisher.completeLength(ByteBuffer.wrap(":zz000".getBytes())));
+    }
+
+}
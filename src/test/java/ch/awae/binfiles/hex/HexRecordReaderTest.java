@@ -5,8 +5,10 @@ import org.junit.jupiter.api.Test;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -159,4 +161,109 @@ public class HexRecordReaderTest {
             assertEquals(i + 1, record.data()[i]);
         }
     }
+
+    @Test
+    public void testReadingLowerCaseRecord() throws IOException {
+        InputStream stream = new ByteArrayInputStream(":0812340001020304050607088e".getBytes());
+        HexRecordReader reader = new HexRecordReader(stream);
+        HexRecord record = reader.readNext();
+
+        assertNotNull(record);
+        assertEquals(0x1234, record.address());
+        assertArrayEquals(new byte[]{1, 2, 3, 4, 5, 6, 7, 8}, record.data());
+    }
+
+    @Test
+    public void testStreamConsumedExactly() throws IOException {
+        InputStream stream = new ByteArrayInputStream(":0812340001020304050607088E\nREST".getBytes());
+        HexRecordReader reader = new HexRecordReader(stream);
+        assertNotNull(reader.readNext());
+
+        // only the record itself must have been consumed
+        assertArrayEquals("\nREST".getBytes(), stream.readAllBytes());
+    }
+
+    @Test
+    public void testReadAheadAcrossBufferBoundaries() throws IOException {
+        // build enough records to require multiple buffer refills
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            HexRecord record = new HexRecord(0, i * 16, new byte[]{(byte) i, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15});
+            input.append(":10")
+                    .append("%04X".formatted(record.address()))
+                    .append("00");
+            for (byte b : record.data()) {
+                input.append("%02X".formatted(b));
+            }
+            input.append("%02X".formatted(record.calculateChecksum())).append("\r\n");
+        }
+
+        try (HexRecordReader reader = new HexRecordReader(new ByteArrayInputStream(input.toString().getBytes()), 1024)) {
+            for (int i = 0; i < 200; i++) {
+                HexRecord record = reader.readNext();
+                assertNotNull(record);
+                assertEquals(i * 16, record.address());
+                assertEquals((byte) i, record.data()[0]);
+                assertEquals(15, record.data()[15]);
+            }
+            assertNull(reader.readNext());
+        }
+    }
+
+    @Test
+    public void testReadAheadTruncatedRecord() throws IOException {
+        InputStream stream = new ByteArrayInputStream(":0812340001020304".getBytes());
+        HexRecordReader reader = new HexRecordReader(stream, HexRecordReader.DEFAULT_BUFFER_SIZE);
+        assertThrows(HexRecordParsingException.class, reader::readNext);
+    }
+
+    @Test
+    public void testReadAheadBufferTooSmall() {
+        InputStream stream = new ByteArrayInputStream(new byte[0]);
+        assertThrows(IllegalArgumentException.class, () -> new HexRecordReader(stream, 1023));
+    }
+
+    @Test
+    public void testReadingFromBuffer() throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap("xx:0812340001020304050607088E\n:00000001FF\n".getBytes());
+        buffer.position(2);
+        HexRecordReader reader = HexRecordReader.wrap(buffer);
+
+        HexRecord record = reader.readNext();
+        assertNotNull(record);
+        assertEquals(0x1234, record.address());
+        assertArrayEquals(new byte[]{1, 2, 3, 4, 5, 6, 7, 8}, record.data());
+        HexRecord eof = reader.readNext();
+        assertNotNull(eof);
+        assertEquals(1, eof.type());
+        assertNull(reader.readNext());
+
+        // the buffer itself must not have been touched
+        assertEquals(2, buffer.position());
+    }
+
+    @Test
+    public void testReadingFromBufferTruncatedRecord() {
+        HexRecordReader reader = HexRecordReader.wrap(ByteBuffer.wrap(":08123400010203".getBytes()));
+        assertThrows(HexRecordParsingException.class, reader::readNext);
+    }
+
+    @Test
+    public void testStreamOfReader() throws IOException {
+        try (
+                InputStream stream = this.getClass().getResourceAsStream("/ch/awae/binfiles/hex/valid_simple.hex");
+                HexRecordReader reader = new HexRecordReader(stream)
+        ) {
+            List<Integer> types = reader.stream().map(HexRecord::type).collect(Collectors.toList());
+            assertEquals(5, types.size());
+            assertEquals(1, types.get(4));
+            assertNull(reader.readNext());
+        }
+    }
+
+    @Test
+    public void testStreamOfReaderThrowsParsingErrors() {
+        HexRecordReader reader = HexRecordReader.wrap(ByteBuffer.wrap(":00000001FF\n:00000001FE".getBytes()));
+        assertThrows(HexRecordParsingException.class, () -> reader.stream().count());
+    }
 }
@@ -0,0 +1,62 @@
+package ch.awae.binfiles.hex;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HexRecordSpliteratorTest {
+
+    private static ByteBuffer randomInput() throws IOException {
+        return ByteBuffer.wrap(HexFixtures.randomHex(3, 400, 32));
+    }
+
+    @Test
+    public void testParallelStreamYieldsTheSameRecords() throws IOException {
+        ByteBuffer input = randomInput();
+        List<HexRecord> expected = HexFixtures.readAll(input);
+
+        assertEquals(expected, HexRecordReader.stream(input).toList());
+        assertEquals(expected, HexRecordReader.stream(input).parallel().toList());
+        assertEquals(0, input.position());
+    }
+
+    @Test
+    public void testSplitsAtRecordBoundaries() throws IOException {
+        ByteBuffer input = randomInput();
+        Spliterator<HexRecord> suffix = HexRecordReader.stream(input).spliterator();
+        assertTrue(suffix.hasCharacteristics(Spliterator.ORDERED | Spliterator.NONNULL));
+        assertFalse(suffix.hasCharacteristics(Spliterator.SIZED));
+
+        Spliterator<HexRecord> prefix = suffix.trySplit();
+        assertNotNull(prefix);
+        List<HexRecord> records = new ArrayList<>();
+        prefix.forEachRemaining(records::add);
+        int split = records.size();
+        suffix.forEachRemaining(records::add);
+
+        assertTrue(split > 0 && split < records.size());
+        assertEquals(HexFixtures.readAll(input), records);
+    }
+
+    @Test
+    public void testSmallInputIsNotSplit() {
+        Spliterator<HexRecord> spliterator = HexRecordReader.stream(ByteBuffer.wrap(":00000001FF\n".getBytes()))
+                .spliterator();
+        assertNull(spliterator.trySplit());
+        assertTrue(spliterator.tryAdvance(record -> assertEquals(1, record.type())));
+        assertFalse(spliterator.tryAdvance(record -> fail()));
+    }
+
+    @Test
+    public void testParsingErrorIsThrown() {
+        ByteBuffer input = ByteBuffer.wrap(":00000001FF\n:00000001FE\n".getBytes());
+        assertThrows(HexRecordParsingException.class, () -> HexRecordReader.stream(input).toList());
+    }
+
+}
@@ -0,0 +1,63 @@
+package ch.awae.binfiles.hex;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HexRecordTest {
+
+    @Test
+    public void testDataIsCopied() {
+        byte[] data = {1, 2, 3};
+        HexRecord record = new HexRecord(0, 0x1234, data);
+        data[0] = 10;
+
+        assertEquals(1, record.data()[0]);
+        assertNotSame(record.data(), record.data());
+        assertEquals(3, record.length());
+    }
+
+    @Test
+    public void testDataBufferView() {
+        HexRecord record = new HexRecord(0, 0x1234, new byte[]{1, 2, 3});
+        ByteBuffer view = record.dataBuffer();
+
+        assertTrue(view.isReadOnly());
+        assertEquals(3, view.remaining());
+        assertEquals(2, view.get(1));
+    }
+
+    @Test
+    public void testOwningConstructorDoesNotCopy() {
+        byte[] data = {1, 2, 3};
+        HexRecord record = new HexRecord(0, 0x1234, data, false);
+        assertSame(data, record.internalData());
+    }
+
+    @Test
+    public void testEquality() {
+        HexRecord record = new HexRecord(0, 0x1234, new byte[]{1, 2, 3});
+        assertEquals(record, new HexRecord(0, 0x1234, new byte[]{1, 2, 3}));
+        assertEquals(record.hashCode(), new HexRecord(0, 0x1234, new byte[]{1, 2, 3}).hashCode());
+        assertNotEquals(record, new HexRecord(0, 0x1234, new byte[]{1, 2, 4}));
+        assertNotEquals(record, new HexRecord(1, 0x1234, new byte[]{1, 2, 3}));
+    }
+
+    @Test
+    public void testInvalidFields() {
+        assertThrows(IllegalArgumentException.class, () -> new HexRecord(256, 0, new byte[0]));
+        assertThrows(IllegalArgumentException.class, () -> new HexRecord(0, 65536, new byte[0]));
+        assertThrows(IllegalArgumentException.class, () -> new HexRecord(0, 0, new byte[256]));
+        //noinspection DataFlowIssue
+        assertThrows(NullPointerException.class, () -> new HexRecord(0, 0, null));
+    }
+
+    @Test
+    public void testChecksum() {
+        assertEquals(0x8E, new HexRecord(0, 0x1234, new byte[]{1, 2, 3, 4, 5, 6, 7, 8}).calculateChecksum());
+        assertEquals(0xFF, new HexRecord(1, 0, new byte[0]).calculateChecksum());
+    }
+
+}
@@ -4,8 +4,9 @@ import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.Arrays;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class HexRecordWriterTest {
 
@@ -53,4 +54,58 @@ public class HexRecordWriterTest {
         assertEquals(":0812340001020304050607088E()", string);
     }
 
+    @Test
+    public void testBufferedWriterWritesOnFlush() throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        HexRecordWriter writer = new HexRecordWriter(stream, new byte[]{'\n'}, HexRecordWriter.DEFAULT_BUFFER_SIZE);
+        writer.write(new HexRecord(0, 0x1234, new byte[]{1, 2, 3, 4, 5, 6, 7, 8}));
+        writer.write(new HexRecord(1, 0, new byte[0]));
+
+        // nothing written before flushing
+        assertEquals(0, stream.size());
+
+        writer.flush();
+        assertEquals(":0812340001020304050607088E\n:00000001FF\n", stream.toString());
+    }
+
+    @Test
+    public void testBufferedWriterSpillsWhenFull() throws IOException {
+        ByteArrayOutputStream reference = new ByteArrayOutputStream();
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        HexRecordWriter referenceWriter = new HexRecordWriter(reference, "\r\n");
+        HexRecordWriter writer = new HexRecordWriter(stream, new byte[]{'\r', '\n'}, 1024);
+
+        byte[] data = new byte[255];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        for (int i = 0; i < 20; i++) {
+            HexRecord record = new HexRecord(0, i * 255, data);
+            referenceWriter.write(record);
+            writer.write(record);
+        }
+        // buffer must have been written out while writing
+        assertTrue(stream.size() > 0);
+
+        writer.close();
+        assertEquals(reference.toString(), stream.toString());
+    }
+
+    @Test
+    public void testBufferedWriterWithLongSeparator() throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        byte[] separator = new byte[2000];
+        Arrays.fill(separator, (byte) '-');
+        HexRecordWriter writer = new HexRecordWriter(stream, separator, 1024);
+        writer.write(new HexRecord(0, 0x1234, new byte[]{1, 2, 3, 4, 5, 6, 7, 8}));
+        writer.flush();
+
+        assertEquals(":0812340001020304050607088E" + "-".repeat(2000), stream.toString());
+    }
+
+    @Test
+    public void testBufferedWriterBufferTooSmall() {
+        assertThrows(IllegalArgumentException.class, () -> new HexRecordWriter(new ByteArrayOutputStream(), null, 1023));
+    }
+
 }
@@ -0,0 +1,177 @@
+package ch.awae.binfiles.hex;
+
+import ch.awae.binfiles.BinaryFile;
+import ch.awae.binfiles.DataFragment;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelHexFileReaderTest {
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    private static List<BinaryFile> readSequential(byte[] input) throws IOException {
+        List<BinaryFile> files = new ArrayList<>();
+        try (HexFileReader reader = new HexFileReader(new ByteArrayInputStream(input))) {
+            BinaryFile file;
+            while ((file = reader.read()) != null) {
+                files.add(file);
+            }
+        }
+        return files;
+    }
+
+    private static void assertSameFile(BinaryFile expected, BinaryFile actual) {
+        assertEquals(expected.getSizeLimit(), actual.getSizeLimit());
+        assertEquals(expected.getCurrentSize(), actual.getCurrentSize());
+        List<DataFragment> expectedFragments = expected.getFragments(0, expected.getSizeLimit());
+        List<DataFragment> actualFragments = actual.getFragments(0, actual.getSizeLimit());
+        assertEquals(expectedFragments.size(), actualFragments.size());
+        for (int i = 0; i < expectedFragments.size(); i++) {
+            assertEquals(expectedFragments.get(i).getPosition(), actualFragments.get(i).getPosition());
+            assertArrayEquals(expectedFragments.get(i).getData(), actualFragments.get(i).getData());
+        }
+    }
+
+    private static byte[] generateInput(int files) throws IOException {
+        Random random = new Random(1234);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        HexFileWriter writer = new HexFileWriter(output);
+        for (int f = 0; f < files; f++) {
+            // sparse data crossing several 64K boundaries
+            BinaryFile file = new BinaryFile(0x80000);
+            for (long position = random.nextInt(0x1000); position < 0x7f000; position += 0x2000 + random.nextInt(0x4000)) {
+                byte[] data = new byte[1 + random.nextInt(3000)];
+                random.nextBytes(data);
+                file.addFragment(new DataFragment(position, data));
+            }
+            writer.write(file, 1 + random.nextInt(64));
+        }
+        return output.toByteArray();
+    }
+
+    @Test
+    public void testMatchesSequentialReader() throws IOException {
+        byte[] input = generateInput(3);
+        List<BinaryFile> expected = readSequential(input);
+        List<BinaryFile> actual = new ParallelHexFileReader(POOL, 1024).read(input);
+
+        assertEquals(3, expected.size());
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSameFile(expected.get(i), actual.get(i));
+        }
+    }
+
+    @Test
+    public void testChunkSizesDoNotMatter() throws IOException {
+        byte[] input = generateInput(1);
+        BinaryFile expected = readSequential(input).get(0);
+        for (int chunkSize : new int[]{1024, 1500, 4096, ParallelHexFileReader.DEFAULT_CHUNK_SIZE}) {
+            List<BinaryFile> actual = new ParallelHexFileReader(POOL, chunkSize).read(input);
+            assertEquals(1, actual.size());
+            assertSameFile(expected, actual.get(0));
+        }
+    }
+
+    @Test
+    public void testExtendedSegmentAddress() {
+        // base 0x12340 -> data at 0x12340
+        byte[] input = ":020000021234B6\n:0400000001020304F2\n:00000001FF\n".getBytes();
+        List<BinaryFile> files = new ParallelHexFileReader().read(input);
+        assertEquals(1, files.size());
+        assertEquals(0x20000, files.get(0).getSizeLimit());
+        assertEquals((byte) 1, files.get(0).getByte(0x12340));
+        assertEquals((byte) 4, files.get(0).getByte(0x12343));
+    }
+
+    @Test
+    public void testReadMappedFile() throws IOException, URISyntaxException {
+        Path path = Path.of(this.getClass().getResource("/ch/awae/binfiles/hex/valid_with_superfluous_data.hex").toURI());
+        List<BinaryFile> files = new ParallelHexFileReader().read(path);
+        List<BinaryFile> expected = readSequential(Files.readAllBytes(path));
+        assertEquals(1, files.size());
+        assertSameFile(expected.get(0), files.get(0));
+    }
+
+    @Test
+    public void testIncompleteFileAfterEof() throws URISyntaxException {
+        Path path = Path.of(this.getClass().getResource("/ch/awae/binfiles/hex/valid_with_more_after_eof.hex").toURI());
+        assertThrows(HexFileParsingException.class, () -> new ParallelHexFileReader().read(path));
+    }
+
+    @Test
+    public void testBufferPositionIsNotModified() {
+        ByteBuffer buffer = ByteBuffer.wrap("xx:0400000001020304F2\n:00000001FF\n".getBytes());
+        buffer.position(2);
+        List<BinaryFile> files = new ParallelHexFileReader().read(buffer);
+        assertEquals(1, files.size());
+        assertEquals(2, buffer.position());
+    }
+
+    @Test
+    public void testEmptyInput() {
+        assertTrue(new ParallelHexFileReader().read(new byte[0]).isEmpty());
+        assertTrue(new ParallelHexFileReader().read("no records here\n".getBytes()).isEmpty());
+    }
+
+    @Test
+    public void testUnexpectedEndOfStream() {
+        byte[] input = ":0400000001020304F2\n".getBytes();
+        assertThrows(HexFileParsingException.class, () -> new ParallelHexFileReader().read(input));
+    }
+
+    @Test
+    public void testBadChecksumInLaterChunk() throws IOException {
+        byte[] input = generateInput(1);
+        // corrupt a checksum close to the end of the input
+        int index = input.length - 40;
+        while (input[index] != '\n') {
+            index++;
+        }
+        input[index - 1] = (byte) (input[index - 1] == '0' ? '1' : '0');
+        HexFileParsingException e = assertThrows(HexFileParsingException.class,
+                () -> new ParallelHexFileReader(POOL, 1024).read(input));
+        assertInstanceOf(HexRecordParsingException.class, e.getCause());
+    }
+
+    @Test
+    public void testErrorAfterFirstFileIsRaised() {
+        byte[] input = ":0400000001020304F2\n:00000001FF\n:0400000001020304F3\n".getBytes();
+        assertThrows(HexFileParsingException.class, () -> new ParallelHexFileReader().read(input));
+    }
+
+    @Test
+    public void testUnsupportedRecordType() {
+        byte[] input = ":00000006FA\n:00000001FF\n".getBytes();
+        assertThrows(HexFileParsingException.class, () -> new ParallelHexFileReader().read(input));
+    }
+
+    @Test
+    public void testCollidingData() {
+        byte[] input = ":0400000001020304F2\n:0400020001020304F0\n:00000001FF\n".getBytes();
+        assertThrows(IllegalStateException.class, () -> new ParallelHexFileReader().read(input));
+    }
+
+    @Test
+    public void testInvalidConstructorArguments() {
+        assertThrows(NullPointerException.class, () -> new ParallelHexFileReader(null));
+        assertThrows(IllegalArgumentException.class, () -> new ParallelHexFileReader(POOL, 1023));
+        assertThrows(NullPointerException.class, () -> new ParallelHexFileReader().read((Path) null));
+        assertThrows(NullPointerException.class, () -> new ParallelHexFileReader().read((byte[]) null));
+        assertThrows(NullPointerException.class, () -> new ParallelHexFileReader().read((ByteBuffer) null));
+    }
+
+}
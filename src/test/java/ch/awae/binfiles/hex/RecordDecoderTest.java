@@ -0,0 +1,41 @@
+package ch.awae.binfiles.hex;
+
+import ch.awae.binfiles.DataFragment;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RecordDecoderTest {
+
+    @Test
+    public void testDataRecordIsCopied() throws IOException {
+        byte[] data = {1, 2, 3, 4};
+        List<DataFragment> fragments = new ArrayList<>();
+
+        new RecordDecoder().decode(new HexRecord(0, 0x10, data, false), fragments::add);
+
+        assertEquals(1, fragments.size());
+        // the fragment does not share the data block of the record: changes to the array are not visible through it
+        data[0] = 42;
+        assertEquals(1, fragments.get(0).getDataBuffer().get(0));
+    }
+
+    @Test
+    public void testWrappingDataRecordIsSplit() throws IOException {
+        List<DataFragment> fragments = new ArrayList<>();
+        RecordDecoder decoder = new RecordDecoder();
+        decoder.decode(new HexRecord(4, 0, new byte[]{(byte) 0xff, (byte) 0xff}), fragments::add);
+        decoder.decode(new HexRecord(0, 0xfffe, new byte[]{1, 2, 3, 4}), fragments::add);
+
+        assertEquals(2, fragments.size());
+        assertEquals(0xffff_fffeL, fragments.get(0).getPosition());
+        assertArrayEquals(new byte[]{1, 2}, fragments.get(0).getData());
+        assertEquals(0, fragments.get(1).getPosition());
+        assertArrayEquals(new byte[]{3, 4}, fragments.get(1).getData());
+    }
+
+}
@@ -0,0 +1,92 @@
+package ch.awae.binfiles.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HexDecoderTest {
+
+    // the tests run both with and without the incubator module added
+    private static final boolean VECTOR = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    private static final List<HexDecoder> DECODERS = VECTOR
+            ? List.of(new ScalarHexDecoder(), new VectorHexDecoder())
+            : List.of(new ScalarHexDecoder());
+
+    private static byte[] encode(byte[] data, int offset) {
+        byte[] digits = new byte[offset + 2 * data.length];
+        for (int i = 0; i < data.length; i++) {
+            HexDigits.encode(data[i], digits, offset + 2 * i);
+        }
+        return digits;
+    }
+
+    @Test
+    public void testBestDecoderIsUsed() {
+        if (VECTOR) {
+            assertInstanceOf(VectorHexDecoder.class, HexDigits.decoder());
+        } else {
+            assertInstanceOf(ScalarHexDecoder.class, HexDigits.decoder());
+        }
+    }
+
+    @Test
+    public void testDecodeAllLengths() {
+        Random random = new Random(42);
+        for (int length = 0; length <= 255; length++) {
+            byte[] data = new byte[length];
+            random.nextBytes(data);
+            byte[] digits = encode(data, 3);
+            // mix in lower case digits
+            for (int i = 3; i < digits.length; i += 3) {
+                if (digits[i] >= 'A') {
+                    digits[i] |= 0x20;
+                }
+            }
+            int sum = new ScalarHexDecoder().sum(data, 0, length);
+            for (HexDecoder decoder : DECODERS) {
+                byte[] target = new byte[length + 5];
+                assertEquals(sum, decoder.decode(digits, 3, target, 5, length), decoder.getClass().getSimpleName());
+                for (int i = 0; i < length; i++) {
+                    assertEquals(data[i], target[5 + i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testInvalidDigitsAtAnyPosition() {
+        byte[] invalid = {'/', ':', '@', 'G', '`', 'g', ' ', 0, (byte) 0x80, (byte) 0xb0, (byte) 0xc1, (byte) 0xff};
+        byte[] data = new byte[40];
+        for (int position = 0; position < 2 * data.length; position++) {
+            for (byte character : invalid) {
+                byte[] digits = encode(data, 0);
+                digits[position] = character;
+                for (HexDecoder decoder : DECODERS) {
+                    assertTrue(decoder.decode(digits, 0, new byte[data.length], 0, data.length) < 0,
+                            decoder.getClass().getSimpleName() + " at " + position + ": " + character);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSum() {
+        Random random = new Random(7);
+        for (int length = 0; length <= 300; length++) {
+            byte[] data = new byte[length + 2];
+            random.nextBytes(data);
+            int expected = 0;
+            for (int i = 1; i <= length; i++) {
+                expected += data[i] & 0xff;
+            }
+            for (HexDecoder decoder : DECODERS) {
+                assertEquals(expected, decoder.sum(data, 1, length), decoder.getClass().getSimpleName());
+            }
+        }
+    }
+
+}
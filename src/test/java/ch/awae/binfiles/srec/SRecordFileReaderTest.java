@@ -0,0 +1,113 @@
+package ch.awae.binfiles.srec;
+
+import ch.awae.binfiles.BinaryFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SRecordFileReaderTest {
+
+    private static SRecordFileReader reader(String input) {
+        return new SRecordFileReader(new ByteArrayInputStream(input.getBytes()));
+    }
+
+    private static void assertValidSimple(SRecordFileReader reader) throws IOException {
+        BinaryFile file = reader.read();
+        assertNotNull(file);
+        assertArrayEquals("hello     \0\0".getBytes(), reader.getHeader());
+        assertEquals(128, file.getSizeLimit());
+        assertEquals(0x46, file.getCurrentSize());
+        assertEquals((byte) 0x7c, file.getByte(0));
+        assertEquals((byte) 0x4b, file.getByte(0x1c));
+        assertEquals((byte) 'H', file.getByte(0x38));
+        assertNull(reader.read());
+    }
+
+    @Test
+    public void testReadStream() throws IOException {
+        try (
+                InputStream stream = this.getClass().getResourceAsStream("/ch/awae/binfiles/srec/valid_simple.s19");
+                SRecordFileReader reader = new SRecordFileReader(stream)
+        ) {
+            assertValidSimple(reader);
+        }
+    }
+
+    @Test
+    public void testReadFile() throws IOException, URISyntaxException {
+        Path path = Path.of(this.getClass().getResource("/ch/awae/binfiles/srec/valid_simple.s19").toURI());
+        try (SRecordFileReader reader = SRecordFileReader.open(path)) {
+            assertValidSimple(reader);
+        }
+    }
+
+    @Test
+    public void testMultipleFiles() throws IOException {
+        SRecordFileReader reader = reader("S006000041424333\nS1060000010203F3\nS9030000FC\nS20801234501020304" + "84\nS804000000FB\n");
+        BinaryFile first = reader.read();
+        assertNotNull(first);
+        assertArrayEquals("ABC".getBytes(), reader.getHeader());
+        assertEquals(4, first.getSizeLimit());
+
+        BinaryFile second = reader.read();
+        assertNotNull(second);
+        assertNull(reader.getHeader());
+        assertEquals(0x20000, second.getSizeLimit());
+        assertEquals((byte) 4, second.getByte(0x012348));
+
+        assertNull(reader.read());
+    }
+
+    @Test
+    public void testS37File() throws IOException {
+        BinaryFile file = reader("S307FFFFFFF0ABCD93\nS70500000000FA\n").read();
+        assertNotNull(file);
+        assertEquals(BinaryFile.MAX_SIZE, file.getSizeLimit());
+        assertEquals((byte) 0xcd, file.getByte(0xfffffff1L));
+    }
+
+    @Test
+    public void testRecordCountMismatch() {
+        SRecordFileReader reader = reader("S1060000010203F3\nS5030002FA\nS9030000FC\n");
+        assertThrows(SRecordFileParsingException.class, reader::read);
+        // the reader stays invalid
+        assertThrows(SRecordFileParsingException.class, reader::read);
+    }
+
+    @Test
+    public void testHeaderAfterData() {
+        assertThrows(SRecordFileParsingException.class,
+                () -> reader("S1060000010203F3\nS006000041424333\nS9030000FC\n").read());
+    }
+
+    @Test
+    public void testUnexpectedEndOfStream() {
+        assertThrows(SRecordFileParsingException.class, () -> reader("S1060000010203F3\n").read());
+    }
+
+    @Test
+    public void testRecordErrorIsWrapped() {
+        SRecordFileParsingException e = assertThrows(SRecordFileParsingException.class,
+                () -> reader("S1060000010203F4\nS9030000FC\n").read());
+        assertInstanceOf(SRecordParsingException.class, e.getCause());
+    }
+
+    @Test
+    public void testEmptyStream() throws IOException {
+        assertNull(reader("").read());
+    }
+
+    @Test
+    public void testClosedReader() throws IOException {
+        SRecordFileReader reader = reader("S9030000FC\n");
+        reader.close();
+        assertThrows(IOException.class, reader::read);
+    }
+
+}
@@ -0,0 +1,93 @@
+package ch.awae.binfiles.srec;
+
+import ch.awae.binfiles.BinaryFile;
+import ch.awae.binfiles.DataFragment;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SRecordFileWriterTest {
+
+    private static String write(BinaryFile file, int recordLength, byte[] header) throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        try (SRecordFileWriter writer = new SRecordFileWriter(stream)) {
+            writer.write(file, recordLength, header);
+        }
+        return stream.toString();
+    }
+
+    @Test
+    public void testWriteS19() throws IOException {
+        BinaryFile file = new BinaryFile(List.of(new DataFragment(0x40, "Hello world.\n\0".getBytes())));
+        assertEquals("S111004048656C6C6F20776F726C642E0A003A\nS5030001FB\nS9030000FC\n", write(file, 32, null));
+    }
+
+    @Test
+    public void testWriteHeader() throws IOException {
+        BinaryFile file = new BinaryFile(List.of(new DataFragment(0, new byte[]{1, 2, 3})));
+        assertEquals("S006000041424333\nS1060000010203F3\nS5030001FB\nS9030000FC\n", write(file, 16, "ABC".getBytes()));
+    }
+
+    @Test
+    public void testAddressWidth() throws IOException {
+        BinaryFile s28 = new BinaryFile(0x1000000, List.of(new DataFragment(0x012345, new byte[]{1, 2, 3, 4})));
+        assertEquals("S2080123450102030484\nS5030001FB\nS804000000FB\n", write(s28, 16, null));
+
+        BinaryFile s37 = new BinaryFile(BinaryFile.MAX_SIZE, List.of(new DataFragment(0xfffffff0L, new byte[]{(byte) 0xab, (byte) 0xcd})));
+        assertEquals("S307FFFFFFF0ABCD93\nS5030001FB\nS70500000000FA\n", write(s37, 16, null));
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Random random = new Random(42);
+        BinaryFile file = new BinaryFile(0x100000);
+        for (long position = 0; position < 0xf0000; position += 0x3000 + random.nextInt(0x2000)) {
+            byte[] data = new byte[1 + random.nextInt(2000)];
+            random.nextBytes(data);
+            file.addFragment(new DataFragment(position, data));
+        }
+        byte[] header = "module".getBytes();
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        try (SRecordFileWriter writer = new SRecordFileWriter(stream)) {
+            writer.write(file, 250, header);
+            writer.write(file, 7);
+        }
+
+        SRecordFileReader reader = new SRecordFileReader(new ByteArrayInputStream(stream.toByteArray()));
+        for (int i = 0; i < 2; i++) {
+            BinaryFile result = reader.read();
+            assertNotNull(result);
+            assertEquals(file.getSizeLimit(), result.getSizeLimit());
+            List<DataFragment> expected = file.getFragments(0, file.getSizeLimit());
+            List<DataFragment> actual = result.getFragments(0, result.getSizeLimit());
+            assertEquals(expected.size(), actual.size());
+            for (int j = 0; j < expected.size(); j++) {
+                assertEquals(expected.get(j).getPosition(), actual.get(j).getPosition());
+                assertArrayEquals(expected.get(j).getData(), actual.get(j).getData());
+            }
+            if (i == 0) {
+                assertArrayEquals(header, reader.getHeader());
+            } else {
+                assertNull(reader.getHeader());
+            }
+        }
+        assertNull(reader.read());
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        SRecordFileWriter writer = new SRecordFileWriter(new ByteArrayOutputStream());
+        BinaryFile file = new BinaryFile();
+        assertThrows(IllegalArgumentException.class, () -> writer.write(file, 0));
+        assertThrows(IllegalArgumentException.class, () -> writer.write(file, 251));
+        assertThrows(IllegalArgumentException.class, () -> writer.write(file, 16, new byte[253]));
+        assertThrows(NullPointerException.class, () -> new SRecordFileWriter((SRecordWriter) null));
+    }
+
+}
@@ -0,0 +1,149 @@
+package ch.awae.binfiles.srec;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SRecordReaderTest {
+
+    private static List<SRecord> readAll(SRecordReader reader) throws IOException {
+        List<SRecord> records = new ArrayList<>();
+        SRecord record;
+        while ((record = reader.readNext()) != null) {
+            records.add(record);
+        }
+        // any further call should return NULL
+        assertNull(reader.readNext());
+        return records;
+    }
+
+    private static void assertValidSimple(List<SRecord> records) {
+        assertEquals(6, records.size());
+        assertEquals(new SRecord(0, 0, "hello     \0\0".getBytes()), records.get(0));
+        assertEquals(1, records.get(1).type());
+        assertEquals(0x0000, records.get(1).address());
+        assertEquals(28, records.get(1).length());
+        assertEquals(0x001c, records.get(2).address());
+        assertEquals(new SRecord(1, 0x0038, "Hello world.\n\0".getBytes()), records.get(3));
+        assertEquals(new SRecord(5, 3, new byte[0]), records.get(4));
+        assertEquals(new SRecord(9, 0, new byte[0]), records.get(5));
+    }
+
+    @Test
+    public void testStreamProcessing_validSimple() throws IOException {
+        try (
+                InputStream stream = this.getClass().getResourceAsStream("/ch/awae/binfiles/srec/valid_simple.s19");
+                SRecordReader reader = new SRecordReader(stream)
+        ) {
+            assertValidSimple(readAll(reader));
+        }
+    }
+
+    @Test
+    public void testStreamProcessing_readAhead() throws IOException {
+        try (
+                InputStream stream = this.getClass().getResourceAsStream("/ch/awae/binfiles/srec/valid_simple.s19");
+                SRecordReader reader = new SRecordReader(stream, 1024)
+        ) {
+            assertValidSimple(readAll(reader));
+        }
+    }
+
+    @Test
+    public void testOpenFile() throws IOException, URISyntaxException {
+        Path path = Path.of(this.getClass().getResource("/ch/awae/binfiles/srec/valid_simple.s19").toURI());
+        try (SRecordReader reader = SRecordReader.open(path)) {
+            assertValidSimple(readAll(reader));
+        }
+    }
+
+    @Test
+    public void testWrappedBufferPositionIsNotModified() throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap("xxS2080123450102030484\r\nS804000000FB".getBytes());
+        buffer.position(2);
+        try (SRecordReader reader = SRecordReader.wrap(buffer)) {
+            List<SRecord> records = readAll(reader);
+            assertEquals(2, records.size());
+            assertEquals(new SRecord(2, 0x012345, new byte[]{1, 2, 3, 4}), records.get(0));
+            assertEquals(new SRecord(8, 0, new byte[0]), records.get(1));
+        }
+        assertEquals(2, buffer.position());
+    }
+
+    @Test
+    public void testNoReadAheadConsumesExactlyOneRecord() throws IOException {
+        ByteArrayInputStream stream = new ByteArrayInputStream("S9030000FCrest".getBytes());
+        SRecordReader reader = new SRecordReader(stream);
+        assertNotNull(reader.readNext());
+        assertEquals(4, stream.available());
+    }
+
+    @Test
+    public void testS3Record() throws IOException {
+        SRecordReader reader = SRecordReader.wrap(ByteBuffer.wrap("S307FFFFFFF0ABCD".getBytes()));
+        // missing checksum
+        assertThrows(SRecordParsingException.class, reader::readNext);
+
+        reader = SRecordReader.wrap(ByteBuffer.wrap("S307FFFFFFF0ABCD93".getBytes()));
+        SRecord record = reader.readNext();
+        assertEquals(new SRecord(3, 0xfffffff0L, new byte[]{(byte) 0xab, (byte) 0xcd}), record);
+    }
+
+    @Test
+    public void testBadChecksum() {
+        SRecordReader reader = SRecordReader.wrap(ByteBuffer.wrap("S9030000FD".getBytes()));
+        SRecordParsingException e = assertThrows(SRecordParsingException.class, reader::readNext);
+        assertEquals("bad checksum in record", e.getMessage());
+        // the reader stays invalid
+        assertThrows(SRecordParsingException.class, reader::readNext);
+    }
+
+    @Test
+    public void testInvalidDigits() {
+        SRecordReader reader = SRecordReader.wrap(ByteBuffer.wrap("S9030G00FC".getBytes()));
+        SRecordParsingException e = assertThrows(SRecordParsingException.class, reader::readNext);
+        assertEquals("parsing error: invalid hex digits '0G'", e.getMessage());
+    }
+
+    @Test
+    public void testInvalidType() {
+        assertThrows(SRecordParsingException.class, () -> SRecordReader.wrap(ByteBuffer.wrap("S4030000FC".getBytes())).readNext());
+        assertThrows(SRecordParsingException.class, () -> SRecordReader.wrap(ByteBuffer.wrap("SX030000FC".getBytes())).readNext());
+    }
+
+    @Test
+    public void testByteCountTooSmall() {
+        assertThrows(SRecordParsingException.class, () -> SRecordReader.wrap(ByteBuffer.wrap("S30300000000".getBytes())).readNext());
+    }
+
+    @Test
+    public void testUnexpectedEndOfStream() {
+        assertThrows(SRecordParsingException.class, () -> new SRecordReader(new ByteArrayInputStream("S9030000".getBytes())).readNext());
+        assertThrows(SRecordParsingException.class, () -> new SRecordReader(new ByteArrayInputStream("S9".getBytes())).readNext());
+    }
+
+    @Test
+    public void testClosedReader() throws IOException {
+        SRecordReader reader = SRecordReader.wrap(ByteBuffer.wrap("S9030000FC".getBytes()));
+        reader.close();
+        assertThrows(IOException.class, reader::readNext);
+    }
+
+    @Test
+    public void testInvalidConstructorArguments() {
+        assertThrows(NullPointerException.class, () -> new SRecordReader(null));
+        assertThrows(NullPointerException.class, () -> new SRecordReader(null, 1024));
+        assertThrows(IllegalArgumentException.class, () -> new SRecordReader(new ByteArrayInputStream(new byte[0]), 1023));
+        assertThrows(NullPointerException.class, () -> SRecordReader.wrap(null));
+    }
+
+}
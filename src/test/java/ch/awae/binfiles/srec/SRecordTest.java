@@ -0,0 +1,69 @@
+package ch.awae.binfiles.srec;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SRecordTest {
+
+    @Test
+    public void testAddressLength() {
+        assertEquals(2, SRecord.addressLength(0));
+        assertEquals(2, SRecord.addressLength(1));
+        assertEquals(3, SRecord.addressLength(2));
+        assertEquals(4, SRecord.addressLength(3));
+        assertEquals(2, SRecord.addressLength(5));
+        assertEquals(3, SRecord.addressLength(6));
+        assertEquals(4, SRecord.addressLength(7));
+        assertEquals(3, SRecord.addressLength(8));
+        assertEquals(2, SRecord.addressLength(9));
+        assertThrows(IllegalArgumentException.class, () -> SRecord.addressLength(4));
+        assertThrows(IllegalArgumentException.class, () -> SRecord.addressLength(-1));
+        assertThrows(IllegalArgumentException.class, () -> SRecord.addressLength(10));
+    }
+
+    @Test
+    public void testInvalidRecords() {
+        assertThrows(IllegalArgumentException.class, () -> new SRecord(4, 0, new byte[0]));
+        assertThrows(IllegalArgumentException.class, () -> new SRecord(1, 0x10000, new byte[0]));
+        assertThrows(IllegalArgumentException.class, () -> new SRecord(2, 0x1000000, new byte[0]));
+        assertThrows(IllegalArgumentException.class, () -> new SRecord(3, 0x100000000L, new byte[0]));
+        assertThrows(IllegalArgumentException.class, () -> new SRecord(1, -1, new byte[0]));
+        assertThrows(IllegalArgumentException.class, () -> new SRecord(1, 0, new byte[253]));
+        assertThrows(IllegalArgumentException.class, () -> new SRecord(3, 0, new byte[251]));
+        assertThrows(NullPointerException.class, () -> new SRecord(1, 0, null));
+        assertDoesNotThrow(() -> new SRecord(1, 0xffff, new byte[252]));
+        assertDoesNotThrow(() -> new SRecord(3, 0xffffffffL, new byte[250]));
+    }
+
+    @Test
+    public void testDataIsCopied() {
+        byte[] data = {1, 2, 3};
+        SRecord record = new SRecord(1, 0, data);
+        data[0] = 5;
+        assertEquals(1, record.data()[0]);
+        record.data()[0] = 5;
+        assertEquals(1, record.data()[0]);
+        assertEquals(3, record.length());
+        assertTrue(record.dataBuffer().isReadOnly());
+    }
+
+    @Test
+    public void testChecksum() {
+        assertEquals(0xfc, new SRecord(9, 0, new byte[0]).calculateChecksum());
+        assertEquals(0xf9, new SRecord(5, 3, new byte[0]).calculateChecksum());
+        assertEquals(0x42, new SRecord(1, 0x38, "Hello world.\n\0".getBytes()).calculateChecksum());
+    }
+
+    @Test
+    public void testEquality() {
+        SRecord a = new SRecord(2, 0x123456, new byte[]{1, 2});
+        SRecord b = new SRecord(2, 0x123456, new byte[]{1, 2});
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertNotEquals(a, new SRecord(3, 0x123456, new byte[]{1, 2}));
+        assertNotEquals(a, new SRecord(2, 0x123457, new byte[]{1, 2}));
+        assertNotEquals(a, new SRecord(2, 0x123456, new byte[]{1, 3}));
+    }
+
+}
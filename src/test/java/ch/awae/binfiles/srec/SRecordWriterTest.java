@@ -0,0 +1,59 @@
+package ch.awae.binfiles.srec;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SRecordWriterTest {
+
+    @Test
+    public void testWritingRecords() throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        SRecordWriter writer = new SRecordWriter(stream);
+        writer.write(new SRecord(1, 0x0038, "Hello world.\n\0".getBytes()));
+        writer.write(new SRecord(5, 3, new byte[0]));
+        writer.write(new SRecord(9, 0, new byte[0]));
+
+        assertEquals("S111003848656C6C6F20776F726C642E0A0042\nS5030003F9\nS9030000FC\n", stream.toString());
+    }
+
+    @Test
+    public void testWritingWideAddresses() throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        SRecordWriter writer = new SRecordWriter(stream, (String) null);
+        writer.write(new SRecord(2, 0x012345, new byte[]{1, 2, 3, 4}));
+        writer.write(new SRecord(3, 0xfffffff0L, new byte[]{(byte) 0xab, (byte) 0xcd}));
+
+        assertEquals("S2080123450102030484S307FFFFFFF0ABCD93", stream.toString());
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        SRecord record = new SRecord(3, 0x12345678, new byte[250]);
+        try (SRecordWriter writer = new SRecordWriter(stream, "\r\n".getBytes(), 1024)) {
+            for (int i = 0; i < 10; i++) {
+                writer.write(record);
+            }
+        }
+        SRecordReader reader = new SRecordReader(new ByteArrayInputStream(stream.toByteArray()));
+        for (int i = 0; i < 10; i++) {
+            assertEquals(record, reader.readNext());
+        }
+        assertNull(reader.readNext());
+    }
+
+    @Test
+    public void testInvalidSeparators() {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        assertThrows(IllegalArgumentException.class, () -> new SRecordWriter(stream, "S"));
+        assertThrows(IllegalArgumentException.class, () -> new SRecordWriter(stream, new byte[]{'\n', 'S'}));
+        assertThrows(IllegalArgumentException.class, () -> new SRecordWriter(stream, new byte[]{'\n'}, 1023));
+        assertThrows(NullPointerException.class, () -> new SRecordWriter(null));
+    }
+
+}